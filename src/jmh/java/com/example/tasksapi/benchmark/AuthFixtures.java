@@ -0,0 +1,28 @@
+package com.example.tasksapi.benchmark;
+
+import com.example.tasksapi.security.JwtUtils;
+import com.example.tasksapi.security.UserDetailsImpl;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+// Objects wired the way the application context wires them, with the test profile's settings
+final class AuthFixtures {
+    static final String JWT_SECRET = "testSecretKeyForJwtTokenGenerationAndValidationInTests";
+    static final int JWT_EXPIRATION_MS = 86400000;
+
+    private AuthFixtures() {}
+
+    static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", JWT_EXPIRATION_MS);
+        return jwtUtils;
+    }
+
+    static UserDetailsImpl user() {
+        return new UserDetailsImpl(1L, "benchmark", "benchmark@example.com", "unused",
+                List.of(new SimpleGrantedAuthority("ROLE_MEMBER")));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.tasksapi.benchmark;
+
+import com.example.tasksapi.model.Task;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+// Access patterns the application doesn't use (yet), kept next to the benchmarks that
+// compare them with TaskRepository. Picked up by the application's repository scanning
+// whenever the benchmark sources are on the classpath.
+public interface TaskAccessRepository extends Repository<Task, Long> {
+
+    interface TaskSummary {
+        Long getId();
+        String getTitle();
+        boolean isCompleted();
+    }
+
+    List<TaskSummary> findByOwnerIdOrderById(Long ownerId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<Task> streamByOwnerIdOrderById(Long ownerId);
+}
@@ -0,0 +1,111 @@
+package com.example.tasksapi.benchmark;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Reads every task of one owner with each access pattern, to show what a getAllTasks()
+// style call costs as the table grows
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskRepositoryBenchmark {
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private TaskAccessRepository accessRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private Long ownerId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        taskRepository = context.getBean(TaskRepository.class);
+        accessRepository = context.getBean(TaskAccessRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        ownerId = context.getBean(UserRepository.class)
+                .save(new User("benchmark", "benchmark@example.com", "unused"))
+                .getId();
+        // Plain JDBC batches: loading through JPA would also exercise the index listeners
+        List<Object[]> batch = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{(long) i, "Task " + i, "Generated description for task " + i, i % 3 == 0, ownerId});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "insert into task (id, title, description, completed, owner_id, version) values (?, ?, ?, ?, ?, 0)", batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Task> findAll() {
+        return taskRepository.findAll();
+    }
+
+    // The query behind GET /tasks
+    @Benchmark
+    public List<Task> findByOwner() {
+        return taskRepository.findByOwner(ownerId, new TaskFilter());
+    }
+
+    @Benchmark
+    public List<TaskAccessRepository.TaskSummary> projection() {
+        return accessRepository.findByOwnerIdOrderById(ownerId);
+    }
+
+    @Benchmark
+    public void keysetPages(Blackhole blackhole) {
+        long lastId = 0;
+        List<Task> page;
+        do {
+            page = taskRepository.findByIdGreaterThan(lastId, PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+            blackhole.consume(page);
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    // Streaming only bounds memory if entities are detached as they are consumed
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Task> tasks = accessRepository.streamByOwnerIdOrderById(ownerId)) {
+                tasks.forEach(task -> {
+                    blackhole.consume(task);
+                    entityManager.detach(task);
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tasksapi.benchmark;
+
+import com.example.tasksapi.model.Task;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of task listings as GET /tasks returns them. Output is discarded
+// so the number is serialization alone, without buffer growth or network writes.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskSerializationBenchmark {
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    // Non-closing like the stream Spring's message converter hands to Jackson
+    private final OutputStream sink = StreamUtils.nonClosing(OutputStream.nullOutputStream());
+
+    private ObjectMapper objectMapper;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        // Configured the way Spring Boot configures the application's ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        tasks = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("Task " + i);
+            task.setDescription("Generated description for task " + i);
+            task.setCompleted(i % 3 == 0);
+            task.setOwnerId(1L);
+            task.setAssigneeId(i % 2 == 0 ? 2L : null);
+            task.setTags(i % 4 == 0 ? Set.of("work", "urgent") : Set.of("home"));
+            tasks.add(task);
+        }
+    }
+
+    @Benchmark
+    public void serialize() throws IOException {
+        objectMapper.writeValue(sink, tasks);
+    }
+}
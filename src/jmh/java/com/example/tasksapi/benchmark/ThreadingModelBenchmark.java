@@ -0,0 +1,98 @@
+package com.example.tasksapi.benchmark;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Compares Tomcat's default platform-thread pool (200 threads) with one virtual thread per
+// request, for bursts of concurrent requests that each look up a task and then block for
+// latencyMs, standing in for the round-trip to Postgres that H2 doesn't have. A burst larger
+// than the pool queues on the platform threads; on virtual threads it only waits for the
+// connection pool. The virtual variants need a Java 21 JVM:
+// ./mvnw -Pjava21,jmh test-compile exec:exec -Djmh.include=ThreadingModel
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadingModelBenchmark {
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"100", "1000"})
+    public int concurrency;
+
+    @Param({"10"})
+    public long latencyMs;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService executor;
+    private TaskRepository taskRepository;
+    private Long ownerId;
+    private Long taskId;
+
+    @Setup
+    public void setUp() {
+        executor = threads.equals("virtual") ? newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        context = BenchmarkApplication.start();
+        taskRepository = context.getBean(TaskRepository.class);
+
+        ownerId = context.getBean(UserRepository.class)
+                .save(new User("benchmark", "benchmark@example.com", "unused"))
+                .getId();
+        Task task = new Task();
+        task.setTitle("Benchmark task");
+        task.setOwnerId(ownerId);
+        taskId = taskRepository.save(task).getId();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        context.close();
+    }
+
+    // One burst of concurrent requests; the score is the time until the last one completes
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Boolean>> requests = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            requests.add(executor.submit(this::handleRequest));
+        }
+        int found = 0;
+        for (Future<Boolean> request : requests) {
+            found += request.get() ? 1 : 0;
+        }
+        return found;
+    }
+
+    private boolean handleRequest() throws InterruptedException {
+        boolean found = taskRepository.findByIdAndOwnerId(taskId, ownerId).isPresent();
+        Thread.sleep(latencyMs);
+        return found;
+    }
+
+    // Looked up reflectively so the benchmarks still compile for the Java 17 baseline
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21; run the benchmark with -Pjava21", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.tasksapi.archive;
+
+import com.example.tasksapi.model.ArchivedTask;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.ArchivedTaskRepository;
+import com.example.tasksapi.repository.TaskFilter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Reads the tasks TaskArchiver moved to task_archive, for listings called with
+// includeArchived=true. Archived tasks are returned as tasks marked archived.
+@Service
+public class TaskArchive {
+    private final ArchivedTaskRepository repository;
+
+    public TaskArchive(ArchivedTaskRepository repository) {
+        this.repository = repository;
+    }
+
+    // The live tasks merged with the owner's archived tasks matching the filter, in the
+    // filter's order. Both lists already come in that order, so they are merged rather than
+    // sorted again. Archived tasks are not in the in-memory indexes, so a tag filter is
+    // passed as a predicate and applied to them after loading.
+    @Transactional(readOnly = true)
+    public List<Task> withArchived(Long ownerId, TaskFilter filter, List<Task> live, Predicate<Task> matches) {
+        if (Boolean.FALSE.equals(filter.getCompleted())) {
+            return live;
+        }
+        TaskFilter archivedFilter = new TaskFilter(filter.getCompleted(), filter.getText(), filter.getSort(),
+                filter.isDescending());
+        List<Task> archived = repository.findByOwner(ownerId, archivedFilter).stream()
+                .map(ArchivedTask::toTask)
+                .filter(matches)
+                .toList();
+        return merge(live, archived, filter.getSort().comparator(filter.isDescending()));
+    }
+
+    private static List<Task> merge(List<Task> live, List<Task> archived, Comparator<Task> order) {
+        List<Task> merged = new ArrayList<>(live.size() + archived.size());
+        int i = 0;
+        int j = 0;
+        while (i < live.size() && j < archived.size()) {
+            merged.add(order.compare(archived.get(j), live.get(i)) < 0 ? archived.get(j++) : live.get(i++));
+        }
+        merged.addAll(live.subList(i, live.size()));
+        merged.addAll(archived.subList(j, archived.size()));
+        return merged;
+    }
+
+    // The owner's archived tasks among the given ids, by id
+    @Transactional(readOnly = true)
+    public Map<Long, Task> findByIds(Long ownerId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        TaskFilter filter = new TaskFilter();
+        filter.setIds(ids);
+        return repository.findByOwner(ownerId, filter).stream()
+                .map(ArchivedTask::toTask)
+                .collect(Collectors.toMap(Task::getId, task -> task));
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.tasksapi.archive;
+
+import com.example.tasksapi.invalidation.InvalidationBus;
+import com.example.tasksapi.search.TaskIndexMaintainer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// Moves tasks completed more than maxAgeDays ago from task to task_archive, so that the live
+// table and its indexes only hold the working set. Every intervalMs a background thread moves
+// the due tasks, oldest first, in batches of batchSize. Each batch is one short transaction
+// that locks only its own rows, and the thread pauses pauseMs between batches, so concurrent
+// requests never wait long on it. Moved tasks are dropped from the in-memory indexes here and,
+// through the invalidation bus, on the other instances.
+//
+// The embedded store and the task shards don't keep tasks in the task table, so there is
+// nothing to archive in those profiles.
+@Component
+@Profile("!embedded & !sharded")
+public class TaskArchiver implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(TaskArchiver.class);
+
+    // Locked so that a concurrent update can't change a task between copying and deleting it
+    private static final String SELECT_DUE = "select id from task where completed_at < ? "
+            + "order by completed_at, id limit ? for update";
+    private static final String COPY_TASKS = "insert into task_archive (id, title, description, completed, owner_id, "
+            + "assignee_id, completed_at, archived_at) select id, title, description, completed, owner_id, assignee_id, "
+            + "completed_at, :archivedAt from task where id in (:ids)";
+    private static final String COPY_TAGS = "insert into task_archive_tag (task_id, tag) "
+            + "select task_id, tag from task_tag where task_id in (:ids)";
+    private static final String DELETE_TAGS = "delete from task_tag where task_id in (:ids)";
+    private static final String DELETE_TASKS = "delete from task where id in (:ids)";
+    // Tasks completed before completion times were recorded start aging when first seen
+    private static final String STAMP_UNTIMED = "update task set completed_at = ? where id in "
+            + "(select id from task where completed = true and completed_at is null order by id limit ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskIndexMaintainer indexMaintainer;
+    private final InvalidationBus invalidationBus;
+    private final Counter archivedCounter;
+    private final Timer batchTimer;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.maxAgeDays:30}")
+    private long maxAgeDays;
+
+    @Value("${app.archive.batchSize:500}")
+    private int batchSize;
+
+    @Value("${app.archive.pauseMs:200}")
+    private long pauseMs;
+
+    @Value("${app.archive.intervalMs:60000}")
+    private long intervalMs;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public TaskArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        TaskIndexMaintainer indexMaintainer, InvalidationBus invalidationBus,
+                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.indexMaintainer = indexMaintainer;
+        this.invalidationBus = invalidationBus;
+        this.archivedCounter = Counter.builder("archive.tasks")
+                .description("Completed tasks moved to task_archive")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("archive.batches")
+                .description("Time to move one batch of tasks to task_archive")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        thread = new Thread(this::run, "task-archiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        try {
+            try {
+                stampUntimed();
+            } catch (RuntimeException e) {
+                logger.warn("Stamping completion times of completed tasks failed", e);
+            }
+            while (running) {
+                try {
+                    archiveDue();
+                } catch (RuntimeException e) {
+                    logger.warn("Archiving completed tasks failed", e);
+                }
+                Thread.sleep(intervalMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Gives completed tasks without a completion time the current time, batch by batch
+    void stampUntimed() throws InterruptedException {
+        int stamped;
+        do {
+            stamped = jdbcTemplate.update(STAMP_UNTIMED, utc(Instant.now()), batchSize);
+            if (stamped > 0) {
+                Thread.sleep(pauseMs);
+            }
+        } while (stamped == batchSize);
+    }
+
+    // Moves every task completed more than maxAgeDays ago and returns how many were moved
+    public int archiveDue() throws InterruptedException {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(maxAgeDays));
+        int total = 0;
+        List<Long> moved;
+        do {
+            moved = Objects.requireNonNull(batchTimer.record(() -> archiveBatch(cutoff)));
+            total += moved.size();
+            if (moved.size() == batchSize) {
+                Thread.sleep(pauseMs);
+            }
+        } while (moved.size() == batchSize);
+
+        if (total > 0) {
+            logger.info("Archived {} tasks completed before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private List<Long> archiveBatch(Instant cutoff) {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> due = jdbcTemplate.queryForList(SELECT_DUE, Long.class, utc(cutoff), batchSize);
+            if (due.isEmpty()) {
+                return due;
+            }
+            Map<String, Object> params = Map.of("ids", due, "archivedAt", utc(Instant.now()));
+            namedJdbcTemplate.update(COPY_TASKS, params);
+            namedJdbcTemplate.update(COPY_TAGS, params);
+            namedJdbcTemplate.update(DELETE_TAGS, params);
+            namedJdbcTemplate.update(DELETE_TASKS, params);
+            return due;
+        });
+
+        for (Long id : ids) {
+            indexMaintainer.taskRemoved(id);
+            invalidationBus.publish(InvalidationBus.key(InvalidationBus.TASK, id));
+        }
+        archivedCounter.increment(ids.size());
+        return ids;
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.tasksapi.controller;
+
+import com.example.tasksapi.jfr.JfrRecordingService;
+import com.example.tasksapi.payload.response.MessageResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+// On-demand flight recordings for diagnosing a live instance without restarting it
+// or attaching an agent
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/jfr")
+@PreAuthorize("hasRole('ADMIN')")
+public class JfrController {
+    private final JfrRecordingService recordingService;
+
+    @Value("${app.jfr.maxDurationSeconds:3600}")
+    private long maxDurationSeconds;
+
+    @Value("${app.jfr.maxSizeMb:500}")
+    private long maxSizeMb;
+
+    public JfrController(JfrRecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(defaultValue = "300") long durationSeconds,
+                                   @RequestParam(defaultValue = "100") long sizeMb) throws IOException, ParseException {
+        if (durationSeconds < 1 || durationSeconds > maxDurationSeconds) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Duration must be between 1 and " + maxDurationSeconds + " seconds!"));
+        }
+        if (sizeMb < 1 || sizeMb > maxSizeMb) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Size must be between 1 and " + maxSizeMb + " MB!"));
+        }
+
+        try {
+            recordingService.start(Duration.ofSeconds(durationSeconds), sizeMb * 1024 * 1024);
+        } catch (IllegalStateException e) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Error: A recording is already running!"));
+        }
+        return ResponseEntity.ok(new MessageResponse(
+                "Recording started for " + durationSeconds + " seconds, up to " + sizeMb + " MB."));
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<MessageResponse> stop() {
+        if (!recordingService.stop()) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: No recording is running!"));
+        }
+        return ResponseEntity.ok(new MessageResponse("Recording stopped."));
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<MessageResponse> status() {
+        return ResponseEntity.ok(new MessageResponse(recordingService.getState()
+                .map(state -> "Recording " + state.name().toLowerCase() + ".")
+                .orElse("No recording.")));
+    }
+
+    // Streams the recording so far as a .jfr file; the temporary copy is deleted once sent
+    @GetMapping("/dump")
+    public ResponseEntity<?> dump() throws IOException {
+        Optional<Path> file = recordingService.dump();
+        if (file.isEmpty()) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: No recording to dump!"));
+        }
+
+        String filename = "tasksapi-" + Instant.now().getEpochSecond() + ".jfr";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file.get()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(new InputStreamResource(Files.newInputStream(file.get(), StandardOpenOption.DELETE_ON_CLOSE)));
+    }
+}
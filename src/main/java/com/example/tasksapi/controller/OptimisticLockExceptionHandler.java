@@ -0,0 +1,25 @@
+package com.example.tasksapi.controller;
+
+import com.example.tasksapi.payload.response.MessageResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// A write that lost a race on the task version, from Hibernate's @Version check or the
+// reactive repository's, is a conflict the client can retry, not a server error
+@RestControllerAdvice
+public class OptimisticLockExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockExceptionHandler.class);
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<MessageResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        logger.info("Concurrent modification: {}", e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("Error: Task was modified concurrently, please retry!"));
+    }
+}
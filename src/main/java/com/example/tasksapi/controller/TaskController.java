@@ -1,65 +1,247 @@
 package com.example.tasksapi.controller;
 
+import com.example.tasksapi.archive.TaskArchive;
+import com.example.tasksapi.history.TaskHistory;
+import com.example.tasksapi.idempotency.IdempotencyHandler;
 import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.TaskEvent;
+import com.example.tasksapi.payload.request.TaskOperationRequest;
+import com.example.tasksapi.repository.TaskFilter;
 import com.example.tasksapi.repository.TaskRepository;
-import org.springframework.http.HttpStatus;
+import com.example.tasksapi.repository.UserRepository;
+import com.example.tasksapi.search.TagIndex;
+import com.example.tasksapi.security.UserDetailsImpl;
+import com.example.tasksapi.service.TaskBatchService;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/tasks")
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class TaskController {
     private final TaskRepository repo;
+    private final UserRepository userRepository;
+    private final TagIndex tagIndex;
+    private final TaskBatchService batchService;
+    private final IdempotencyHandler idempotencyHandler;
+    private final TaskHistory history;
+    private final TaskArchive archive;
 
-    public TaskController(TaskRepository repo) {
+    @Value("${app.tasks.maxBatchIds:100}")
+    private int maxBatchIds;
+
+    @Value("${app.tasks.maxBatchOps:100}")
+    private int maxBatchOps;
+
+    @Value("${app.history.pageSize:100}")
+    private int historyPageSize;
+
+    public TaskController(TaskRepository repo, UserRepository userRepository, TagIndex tagIndex,
+                          TaskBatchService batchService, IdempotencyHandler idempotencyHandler, TaskHistory history,
+                          TaskArchive archive) {
         this.repo = repo;
+        this.userRepository = userRepository;
+        this.tagIndex = tagIndex;
+        this.batchService = batchService;
+        this.idempotencyHandler = idempotencyHandler;
+        this.history = history;
+        this.archive = archive;
     }
 
+    // Completed tasks moved to the archive are only listed with includeArchived=true
     @GetMapping
     @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
-    public List<Task> getAllTasks() {
-        return repo.findAll();
+    public ResponseEntity<?> getAllTasks(@AuthenticationPrincipal UserDetailsImpl principal,
+                                         @RequestParam(required = false) Boolean completed,
+                                         @RequestParam(required = false) String q,
+                                         @RequestParam(defaultValue = "id") String sort,
+                                         @RequestParam(required = false) List<String> tags,
+                                         @RequestParam(defaultValue = "all") String mode,
+                                         @RequestParam(defaultValue = "false") boolean includeArchived) {
+        Optional<TaskFilter> parsed = TaskRequests.filter(completed, q, sort);
+        if (parsed.isEmpty()) {
+            return TaskRequests.unsupportedSort();
+        }
+
+        TaskFilter filter = parsed.get();
+        if (tags == null || tags.isEmpty()) {
+            List<Task> live = repo.findByOwner(principal.getId(), filter);
+            return ResponseEntity.ok(includeArchived
+                    ? archive.withArchived(principal.getId(), filter, live, task -> true)
+                    : live);
+        }
+
+        Optional<TagIndex.Mode> tagMode = TaskRequests.tagMode(mode);
+        if (tagMode.isEmpty()) {
+            return TaskRequests.unsupportedTagMode();
+        }
+
+        List<String> normalizedTags = TaskRequests.normalizedTags(tags);
+        Roaring64Bitmap matches = tagIndex.match(principal.getId(), normalizedTags, tagMode.get());
+        List<Task> live;
+        if (matches.isEmpty()) {
+            live = List.of();
+        } else if (TaskRequests.restrictToMatches(filter, matches)) {
+            live = repo.findByOwner(principal.getId(), filter);
+        } else {
+            live = repo.findByOwner(principal.getId(), filter).stream()
+                    .filter(task -> matches.contains(task.getId()))
+                    .toList();
+        }
+        return ResponseEntity.ok(includeArchived
+                ? archive.withArchived(principal.getId(), filter, live,
+                        task -> tagMode.get().matches(task.getTags(), normalizedTags))
+                : live);
+    }
+
+    // Multi-get for clients holding a list of ids: one IN query instead of one request per task
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getTasksByIds(@AuthenticationPrincipal UserDetailsImpl principal,
+                                           @RequestParam List<Long> ids,
+                                           @RequestParam(defaultValue = "false") boolean includeArchived) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxBatchIds) {
+            return TaskRequests.tooManyIds(maxBatchIds);
+        }
+
+        TaskFilter filter = new TaskFilter();
+        filter.setIds(requested);
+        Map<Long, Task> found = requested.isEmpty() ? new HashMap<>() : repo.findByOwner(principal.getId(), filter).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity(), (a, b) -> a, HashMap::new));
+        if (includeArchived && found.size() < requested.size()) {
+            found.putAll(archive.findByIds(principal.getId(), requested.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .toList()));
+        }
+        return ResponseEntity.ok(TaskRequests.batchResponse(requested, found));
     }
 
     @PostMapping
     @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
-    public Task createTask(@RequestBody Task task) {
-        return repo.save(task);
+    public ResponseEntity<?> createTask(@AuthenticationPrincipal UserDetailsImpl principal, @RequestBody Task task,
+                                        @RequestHeader(value = IdempotencyHandler.HEADER, required = false) String idempotencyKey) {
+        // Retried requests carrying the same key get the first response replayed instead of a duplicate task
+        if (idempotencyKey != null) {
+            return idempotencyHandler.execute(principal.getId(), idempotencyKey, task, () -> create(principal, task));
+        }
+        return create(principal, task);
+    }
+
+    // Runs an ordered list of create/update/delete operations in one transaction, so a
+    // reconnecting client can sync with a single round-trip
+    @PostMapping("/ops")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public ResponseEntity<?> applyOperations(@AuthenticationPrincipal UserDetailsImpl principal,
+                                             @RequestBody List<TaskOperationRequest> operations) {
+        if (operations.size() > maxBatchOps) {
+            return TaskRequests.tooManyOperations(maxBatchOps);
+        }
+
+        return ResponseEntity.ok(batchService.apply(principal.getId(), TaskRequests.isAdmin(principal), operations));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
-    public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
-        return repo.findById(id)
+    public ResponseEntity<Task> getTaskById(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id) {
+        return repo.findByIdAndOwnerId(id, principal.getId())
                 .map(task -> ResponseEntity.ok(task))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task updated) {
-        return repo.findById(id)
-                .map(task -> {
+    public ResponseEntity<?> updateTask(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id,
+                                        @RequestBody Task updated) {
+        return repo.findByIdAndOwnerId(id, principal.getId())
+                .<ResponseEntity<?>>map(task -> {
+                    if (!isKnownAssignee(updated.getAssigneeId())) {
+                        return TaskRequests.unknownAssignee();
+                    }
+                    if (updated.hasOversizedTag()) {
+                        return TaskRequests.oversizedTag();
+                    }
+                    Map<String, Object> before = history.stateOf(task);
                     task.setTitle(updated.getTitle());
                     task.setDescription(updated.getDescription());
                     task.setCompleted(updated.isCompleted());
-                    return ResponseEntity.ok(repo.save(task));
+                    task.setAssigneeId(updated.getAssigneeId());
+                    task.setTags(updated.getTags());
+                    Task saved = repo.save(task);
+                    history.recordUpdated(saved, before, principal.getId());
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
-        if (repo.existsById(id)) {
-            repo.deleteById(id);
-            return ResponseEntity.ok().build();
-        } else {
+    public ResponseEntity<Void> deleteTask(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id) {
+        return repo.findByIdAndOwnerId(id, principal.getId())
+                .map(task -> {
+                    repo.delete(task);
+                    history.recordDeleted(task, principal.getId());
+                    return ResponseEntity.ok().<Void>build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The task's change events, oldest first; pass the last id seen as after= for the next page.
+    // History is written asynchronously, so the latest change can take a moment to appear.
+    @GetMapping("/{id}/history")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getTaskHistory(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id,
+                                            @RequestParam(defaultValue = "0") long after,
+                                            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? historyPageSize : limit;
+        if (pageSize < 1 || pageSize > historyPageSize) {
+            return TaskRequests.invalidHistoryLimit(historyPageSize);
+        }
+
+        List<TaskEvent> events = history.events(id, principal.getId(), after, pageSize);
+        if (events.isEmpty() && after == 0) {
             return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(events);
+    }
+
+    // The task as it was at the given instant (ISO-8601), rebuilt from its history
+    @GetMapping(value = "/{id}/history", params = "at")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public ResponseEntity<Task> getTaskAt(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id,
+                                          @RequestParam Instant at) {
+        return history.stateAt(id, principal.getId(), at)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> create(UserDetailsImpl principal, Task task) {
+        if (!isKnownAssignee(task.getAssigneeId())) {
+            return TaskRequests.unknownAssignee();
+        }
+        if (task.hasOversizedTag()) {
+            return TaskRequests.oversizedTag();
+        }
+
+        task.setId(null);
+        task.setOwnerId(principal.getId());
+        Task saved = repo.save(task);
+        history.recordCreated(saved, principal.getId());
+        return ResponseEntity.ok(saved);
+    }
+
+    private boolean isKnownAssignee(Long assigneeId) {
+        return assigneeId == null || userRepository.existsById(assigneeId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.example.tasksapi.controller;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.payload.response.MessageResponse;
+import com.example.tasksapi.payload.response.TaskBatchResponse;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.repository.TaskSort;
+import com.example.tasksapi.search.TagIndex;
+import com.example.tasksapi.security.UserDetailsImpl;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.http.ResponseEntity;
+
+import java.util.*;
+
+// Parameter parsing and error responses of the /tasks API, shared by TaskController and
+// ReactiveTaskController so that both stacks accept and reject requests the same way
+final class TaskRequests {
+    // Larger tag matches are applied in memory rather than bound as an IN list
+    private static final int MAX_TAG_MATCHES_IN_QUERY = 1000;
+
+    private TaskRequests() {}
+
+    // A leading '-' requests descending order, e.g. sort=-title. Empty for an unknown sort key.
+    static Optional<TaskFilter> filter(Boolean completed, String q, String sort) {
+        boolean descending = sort.startsWith("-");
+        return TaskSort.fromParam(descending ? sort.substring(1) : sort)
+                .map(taskSort -> new TaskFilter(completed, q, taskSort, descending));
+    }
+
+    static Optional<TagIndex.Mode> tagMode(String mode) {
+        return Arrays.stream(TagIndex.Mode.values())
+                .filter(m -> m.name().equals(mode.toUpperCase(Locale.ROOT)))
+                .findFirst();
+    }
+
+    static List<String> normalizedTags(List<String> tags) {
+        return tags.stream().map(Task::normalizeTag).filter(tag -> !tag.isEmpty()).toList();
+    }
+
+    // Binds a small tag match to the filter as an IN list. Returns false when the match is
+    // too large for that and has to be applied to the results in memory instead.
+    static boolean restrictToMatches(TaskFilter filter, Roaring64Bitmap matches) {
+        if (matches.getLongCardinality() > MAX_TAG_MATCHES_IN_QUERY) {
+            return false;
+        }
+        filter.setIds(Arrays.stream(matches.toArray()).boxed().toList());
+        return true;
+    }
+
+    // The found tasks in the order they were requested, and the ids that were not found
+    static TaskBatchResponse batchResponse(Set<Long> requested, Map<Long, Task> found) {
+        List<Task> tasks = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Task task = found.get(id);
+            if (task != null) {
+                tasks.add(task);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new TaskBatchResponse(tasks, missing);
+    }
+
+    static boolean isAdmin(UserDetailsImpl principal) {
+        return principal.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
+    }
+
+    static ResponseEntity<?> unsupportedSort() {
+        return badRequest("Error: Unsupported sort key! Allowed: " + TaskSort.allowedParams());
+    }
+
+    static ResponseEntity<?> unsupportedTagMode() {
+        return badRequest("Error: Unsupported tag mode! Allowed: all, any");
+    }
+
+    static ResponseEntity<?> tooManyIds(int maxBatchIds) {
+        return badRequest("Error: At most " + maxBatchIds + " ids can be requested at once!");
+    }
+
+    static ResponseEntity<?> tooManyOperations(int maxBatchOps) {
+        return badRequest("Error: At most " + maxBatchOps + " operations can be sent at once!");
+    }
+
+    static ResponseEntity<?> invalidHistoryLimit(int historyPageSize) {
+        return badRequest("Error: Limit must be between 1 and " + historyPageSize + "!");
+    }
+
+    static ResponseEntity<?> unknownAssignee() {
+        return badRequest("Error: Assignee does not exist!");
+    }
+
+    static ResponseEntity<?> oversizedTag() {
+        return badRequest("Error: Tags must be at most " + Task.MAX_TAG_LENGTH + " characters!");
+    }
+
+    private static ResponseEntity<?> badRequest(String message) {
+        return ResponseEntity
+                .badRequest()
+                .body(new MessageResponse(message));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.tasksapi.controller;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.search.TaskSearchIndex;
+import com.example.tasksapi.security.UserDetailsImpl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/tasks")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class TaskSearchController {
+    private static final int MAX_LIMIT = 100;
+
+    private final TaskSearchIndex searchIndex;
+    private final TaskRepository repo;
+
+    public TaskSearchController(TaskSearchIndex searchIndex, TaskRepository repo) {
+        this.searchIndex = searchIndex;
+        this.repo = repo;
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public List<Task> search(@AuthenticationPrincipal UserDetailsImpl principal,
+                             @RequestParam String q,
+                             @RequestParam(defaultValue = "20") int limit) {
+        return load(principal, searchIndex.search(principal.getId(), q, clamp(limit)));
+    }
+
+    @GetMapping("/autocomplete")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public List<Task> autocomplete(@AuthenticationPrincipal UserDetailsImpl principal,
+                                   @RequestParam String prefix,
+                                   @RequestParam(defaultValue = "10") int limit) {
+        return load(principal, searchIndex.completeTitle(principal.getId(), prefix, clamp(limit)));
+    }
+
+    // Loads the matched tasks in one query and keeps the index's ranking order
+    private List<Task> load(UserDetailsImpl principal, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Task> byId = repo.findAllById(ids).stream()
+                .filter(task -> principal.getId().equals(task.getOwnerId()))
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.tasksapi.controller;
+
+import com.example.tasksapi.model.WebhookSubscription;
+import com.example.tasksapi.payload.response.MessageResponse;
+import com.example.tasksapi.repository.WebhookSubscriptionRepository;
+import com.example.tasksapi.security.UserDetailsImpl;
+import com.example.tasksapi.webhook.WebhookHosts;
+import com.example.tasksapi.webhook.WebhookSubscriptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/webhooks")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class WebhookController {
+    private final WebhookSubscriptions subscriptions;
+    private final WebhookSubscriptionRepository repo;
+    private final WebhookHosts hosts;
+
+    @Value("${app.webhooks.maxSubscriptions:10}")
+    private int maxSubscriptions;
+
+    // Off where task writes don't reach the outbox in the same transaction
+    @Value("${app.webhooks.enabled:true}")
+    private boolean enabled;
+
+    public WebhookController(WebhookSubscriptions subscriptions, WebhookSubscriptionRepository repo,
+                             WebhookHosts hosts) {
+        this.subscriptions = subscriptions;
+        this.repo = repo;
+        this.hosts = hosts;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public List<WebhookSubscription> getSubscriptions(@AuthenticationPrincipal UserDetailsImpl principal) {
+        return repo.findByOwnerIdOrderById(principal.getId());
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public ResponseEntity<?> subscribe(@AuthenticationPrincipal UserDetailsImpl principal,
+                                       @RequestBody WebhookSubscription subscription) {
+        if (!enabled) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Webhooks are not available in this deployment!"));
+        }
+        if (!isHttpUrl(subscription.getUrl())) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Webhook URL must be an absolute http or https URL!"));
+        }
+        if (!hosts.isPublic(URI.create(subscription.getUrl()).getHost())) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Webhook URL must point to a public host!"));
+        }
+        if (subscription.getEvents().isEmpty()) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: At least one event is required!"));
+        }
+        if (subscriptions.count(principal.getId()) >= maxSubscriptions) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: At most " + maxSubscriptions + " webhooks can be registered!"));
+        }
+
+        subscription.setId(null);
+        subscription.setOwnerId(principal.getId());
+        return ResponseEntity.ok(subscriptions.subscribe(subscription));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public ResponseEntity<Void> unsubscribe(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id) {
+        return subscriptions.unsubscribe(id, principal.getId())
+                .map(subscription -> ResponseEntity.ok().<Void>build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static boolean isHttpUrl(String url) {
+        if (url == null || url.length() > WebhookSubscription.MAX_URL_LENGTH) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(url);
+            return ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.tasksapi.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+// Applies the remaining request deadline as the JDBC query timeout of every statement,
+// so the driver cancels work nobody is waiting for anymore. Statements are refused
+// outright once the deadline has passed.
+public class DeadlineAwareDataSource extends DelegatingDataSource {
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    public DeadlineAwareDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(DeadlineAwareDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Optional<Duration> remaining = STATEMENT_FACTORIES.contains(method.getName())
+                    ? RequestDeadline.remaining()
+                    : Optional.empty();
+            if (remaining.isPresent() && (remaining.get().isNegative() || remaining.get().isZero())) {
+                throw new SQLTimeoutException("Request deadline exceeded");
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+
+            if (remaining.isPresent() && result instanceof Statement statement) {
+                // JDBC timeouts have a granularity of whole seconds, so round up
+                long seconds = (remaining.get().toMillis() + 999) / 1000;
+                statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, seconds));
+            }
+            return result;
+        }
+    }
+}
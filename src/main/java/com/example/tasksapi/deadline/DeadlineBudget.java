@@ -0,0 +1,47 @@
+package com.example.tasksapi.deadline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// The deadline of a request: the route's default budget, shortened by the client's
+// X-Request-Timeout header (milliseconds) when that is smaller. Shared by the servlet
+// and reactive deadline filters.
+@Component
+public class DeadlineBudget {
+    @Value("${app.deadlines.defaultMs:30000}")
+    private long defaultMs;
+
+    @Value("${app.deadlines.authMs:5000}")
+    private long authMs;
+
+    @Value("${app.deadlines.tasksMs:10000}")
+    private long tasksMs;
+
+    public long budgetMs(String path, String timeoutHeader) {
+        long budgetMs = routeBudgetMs(path);
+        Long requestedMs = parseTimeout(timeoutHeader);
+        return requestedMs != null ? Math.min(budgetMs, requestedMs) : budgetMs;
+    }
+
+    private long routeBudgetMs(String path) {
+        if (path.startsWith("/api/auth/")) {
+            return authMs;
+        }
+        if (path.equals("/tasks") || path.startsWith("/tasks/")) {
+            return tasksMs;
+        }
+        return defaultMs;
+    }
+
+    private static Long parseTimeout(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            long timeoutMs = Long.parseLong(header.trim());
+            return timeoutMs >= 0 ? timeoutMs : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.tasksapi.deadline;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException() {
+        super("Request deadline exceeded");
+    }
+}
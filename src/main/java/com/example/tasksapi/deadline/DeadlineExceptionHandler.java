@@ -0,0 +1,23 @@
+package com.example.tasksapi.deadline;
+
+import com.example.tasksapi.payload.response.MessageResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class DeadlineExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineExceptionHandler.class);
+
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class})
+    public ResponseEntity<MessageResponse> handleDeadlineExceeded(RuntimeException e) {
+        logger.warn("Request cancelled: {}", e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(new MessageResponse("Error: Request deadline exceeded!"));
+    }
+}
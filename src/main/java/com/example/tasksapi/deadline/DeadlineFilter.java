@@ -0,0 +1,33 @@
+package com.example.tasksapi.deadline;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Starts the deadline of each request: the route's default budget, shortened by the
+// client's X-Request-Timeout header (milliseconds) when that is smaller
+public class DeadlineFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Request-Timeout";
+
+    @Autowired
+    private DeadlineBudget deadlineBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long budgetMs = deadlineBudget.budgetMs(request.getServletPath(), request.getHeader(HEADER));
+
+        RequestDeadline.set(Duration.ofMillis(budgetMs));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
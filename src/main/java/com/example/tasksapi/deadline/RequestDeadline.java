@@ -0,0 +1,35 @@
+package com.example.tasksapi.deadline;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Holds the deadline of the request being processed on the current thread, in the
+// same spirit as SecurityContextHolder. Set by DeadlineFilter and read by the JDBC
+// layer to bound every statement by the remaining budget.
+public final class RequestDeadline {
+    private static final ThreadLocal<Long> deadlineNanos = new ThreadLocal<>();
+
+    private RequestDeadline() {}
+
+    public static void set(Duration budget) {
+        deadlineNanos.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        deadlineNanos.remove();
+    }
+
+    // Empty when no deadline applies; zero or negative once the deadline has passed
+    public static Optional<Duration> remaining() {
+        Long deadline = deadlineNanos.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    public static void checkNotExpired() {
+        remaining().ifPresent(remaining -> {
+            if (remaining.isNegative() || remaining.isZero()) {
+                throw new DeadlineExceededException();
+            }
+        });
+    }
+}
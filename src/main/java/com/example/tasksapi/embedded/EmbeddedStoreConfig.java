@@ -0,0 +1,31 @@
+package com.example.tasksapi.embedded;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@Profile("embedded")
+public class EmbeddedStoreConfig {
+    @Value("${app.embedded.directory:data/tasks}")
+    private String directory;
+
+    @Value("${app.embedded.segmentMb:16}")
+    private int segmentMb;
+
+    @Value("${app.embedded.syncWrites:false}")
+    private boolean syncWrites;
+
+    @Value("${app.embedded.snapshotIntervalMs:300000}")
+    private long snapshotIntervalMs;
+
+    // Recovered before the indexes are built from it; closing takes a final snapshot
+    @Bean(destroyMethod = "close")
+    public EmbeddedTaskStore embeddedTaskStore() throws IOException {
+        return EmbeddedTaskStore.open(Path.of(directory), segmentMb * 1024 * 1024, syncWrites, snapshotIntervalMs);
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.tasksapi.embedded;
+
+import com.example.tasksapi.deadline.RequestDeadline;
+import com.example.tasksapi.invalidation.InvalidationBus;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.TaskSort;
+import com.example.tasksapi.search.TaskIndexMaintainer;
+import com.example.tasksapi.webhook.WebhookOutbox;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.*;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// TaskRepository over the embedded store, taking the place of the JPA repository in the
+// embedded profile. Callers get copies, so changing a task has no effect until it is saved.
+// Writes made inside a Spring transaction are collected and logged as one record when it
+// commits, which keeps a batch atomic; reads in that transaction don't see them yet. With no
+// JDBC query timeout to enforce the request deadline, lookups and writes check it up front.
+// Webhook outbox rows still go to the database: inside a transaction they commit just after
+// the store write, outside of one right away.
+@Repository
+@Primary
+@Profile("embedded")
+public class EmbeddedTaskRepository implements TaskRepository {
+    private final EmbeddedTaskStore store;
+    private final ObjectProvider<TaskIndexMaintainer> indexMaintainer;
+    private final ObjectProvider<WebhookOutbox> webhookOutbox;
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+
+    public EmbeddedTaskRepository(EmbeddedTaskStore store, ObjectProvider<TaskIndexMaintainer> indexMaintainer,
+                                  ObjectProvider<WebhookOutbox> webhookOutbox,
+                                  ObjectProvider<InvalidationBus> invalidationBus) {
+        this.store = store;
+        this.indexMaintainer = indexMaintainer;
+        this.webhookOutbox = webhookOutbox;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public Optional<Task> findByIdAndOwnerId(Long id, Long ownerId) {
+        RequestDeadline.checkNotExpired();
+        return Optional.ofNullable(store.get(id))
+                .filter(task -> Objects.equals(task.getOwnerId(), ownerId))
+                .map(EmbeddedTaskStore::copy);
+    }
+
+    @Override
+    public List<Task> findByIdGreaterThan(Long id, Pageable pageable) {
+        return page(store.all().filter(task -> task.getId() > id), pageable);
+    }
+
+    // Same filtering and ordering as TaskRepositoryImpl.findByOwner
+    @Override
+    public List<Task> findByOwner(Long ownerId, TaskFilter filter) {
+        RequestDeadline.checkNotExpired();
+        Stream<Task> tasks = store.ownedBy(ownerId);
+        if (filter.getIds() != null) {
+            Set<Long> ids = new HashSet<>(filter.getIds());
+            tasks = tasks.filter(task -> ids.contains(task.getId()));
+        }
+        if (filter.getCompleted() != null) {
+            tasks = tasks.filter(task -> task.isCompleted() == filter.getCompleted());
+        }
+        if (StringUtils.hasText(filter.getText())) {
+            String text = filter.getText().trim().toLowerCase(Locale.ROOT);
+            tasks = tasks.filter(task -> containsIgnoringCase(task.getTitle(), text)
+                    || containsIgnoringCase(task.getDescription(), text));
+        }
+        return tasks.sorted(filter.getSort().comparator(filter.isDescending()))
+                .map(EmbeddedTaskStore::copy)
+                .toList();
+    }
+
+    @Override
+    public <S extends Task> S save(S entity) {
+        write(List.of(prepareSave(entity)));
+        return entity;
+    }
+
+    @Override
+    public <S extends Task> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        List<EmbeddedTaskStore.Write> writes = new ArrayList<>();
+        for (S entity : entities) {
+            writes.add(prepareSave(entity));
+            saved.add(entity);
+        }
+        write(writes);
+        return saved;
+    }
+
+    @Override
+    public <S extends Task> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends Task> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    // Writes are durable once logged; there is nothing to flush
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        RequestDeadline.checkNotExpired();
+        return Optional.ofNullable(store.get(id)).map(EmbeddedTaskStore::copy);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.get(id) != null;
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return store.all().map(EmbeddedTaskStore::copy).toList();
+    }
+
+    @Override
+    public List<Task> findAllById(Iterable<Long> ids) {
+        RequestDeadline.checkNotExpired();
+        return StreamSupport.stream(ids.spliterator(), false)
+                .distinct()
+                .map(store::get)
+                .filter(Objects::nonNull)
+                .map(EmbeddedTaskStore::copy)
+                .toList();
+    }
+
+    @Override
+    public List<Task> findAll(Sort sort) {
+        return store.all().sorted(TaskSort.comparator(sort)).map(EmbeddedTaskStore::copy).toList();
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        return new PageImpl<>(page(store.all(), pageable), pageable, store.size());
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        write(prepareDeletes(List.of(id)));
+    }
+
+    @Override
+    public void delete(Task entity) {
+        deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        write(prepareDeletes(ids));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Task> entities) {
+        write(prepareDeletes(StreamSupport.stream(entities.spliterator(), false).map(Task::getId).toList()));
+    }
+
+    @Override
+    public void deleteAll() {
+        write(prepareDeletes(store.all().map(Task::getId).toList()));
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Task> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public Task getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Task getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Task getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Unable to find Task with id " + id));
+    }
+
+    // Query by example needs the JPA metamodel, which the embedded store doesn't have
+
+    @Override
+    public <S extends Task> Optional<S> findOne(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> List<S> findAll(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> long count(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> boolean exists(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleUnsupported();
+    }
+
+    private EmbeddedTaskStore.Write prepareSave(Task entity) {
+        Task previous = entity.getId() == null ? null : store.get(entity.getId());
+        if (entity.getId() == null) {
+            entity.setId(store.nextId());
+        }
+        Task stored = EmbeddedTaskStore.copy(entity);
+        indexMaintainer.ifAvailable(maintainer -> maintainer.taskSaved(stored));
+        webhookOutbox.ifAvailable(outbox -> outbox.taskSaved(stored, previous == null,
+                previous != null && previous.isCompleted()));
+        invalidationBus.ifAvailable(bus -> bus.publish(InvalidationBus.key(InvalidationBus.TASK, stored.getId())));
+        return EmbeddedTaskStore.Write.save(stored);
+    }
+
+    // Deleting a task that doesn't exist is silently ignored, as with the JPA repository
+    private List<EmbeddedTaskStore.Write> prepareDeletes(Iterable<? extends Long> ids) {
+        List<EmbeddedTaskStore.Write> writes = new ArrayList<>();
+        for (Long id : ids) {
+            if (id != null && store.get(id) != null) {
+                indexMaintainer.ifAvailable(maintainer -> maintainer.taskRemoved(id));
+                invalidationBus.ifAvailable(bus -> bus.publish(InvalidationBus.key(InvalidationBus.TASK, id)));
+                writes.add(EmbeddedTaskStore.Write.delete(id));
+            }
+        }
+        return writes;
+    }
+
+    // Applies the writes right away, or when the surrounding transaction commits
+    private void write(List<EmbeddedTaskStore.Write> writes) {
+        RequestDeadline.checkNotExpired();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            store.apply(writes);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<EmbeddedTaskStore.Write> pending =
+                (List<EmbeddedTaskStore.Write>) TransactionSynchronizationManager.getResource(store);
+        if (pending == null) {
+            List<EmbeddedTaskStore.Write> transactionWrites = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(store, transactionWrites);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    store.apply(transactionWrites);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(store);
+                }
+            });
+            pending = transactionWrites;
+        }
+        pending.addAll(writes);
+    }
+
+    private static List<Task> page(Stream<Task> tasks, Pageable pageable) {
+        Stream<Task> sorted = tasks.sorted(TaskSort.comparator(pageable.getSort()));
+        if (pageable.isPaged()) {
+            sorted = sorted.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return sorted.map(EmbeddedTaskStore::copy).toList();
+    }
+
+    private static boolean containsIgnoringCase(String value, String lowerCaseText) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(lowerCaseText);
+    }
+
+    private static UnsupportedOperationException queryByExampleUnsupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the embedded task store");
+    }
+}
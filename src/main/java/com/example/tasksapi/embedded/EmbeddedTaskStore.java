@@ -0,0 +1,427 @@
+package com.example.tasksapi.embedded;
+
+import com.example.tasksapi.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Tasks held in memory and made durable by a write-ahead log. Reads are lock-free map
+// lookups; writes are serialized, appended to the log as one record per batch and only then
+// applied to the maps. The log is split into numbered segments (wal-N.log). A snapshot
+// (snapshot-N.bin) holds every task written before segment N, so recovery loads the newest
+// snapshot and replays the segments from N on; older files are deleted once a snapshot is
+// complete, which the periodic snapshots take care of. Stored tasks are private copies that
+// are never modified, so a snapshot only holds the write lock while it copies references.
+public class EmbeddedTaskStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedTaskStore.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x54534b53;
+    private static final byte OP_SAVE = 1;
+    private static final byte OP_DELETE = 2;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean syncWrites;
+    private final Map<Long, Task> tasks = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> idsByOwner = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService snapshotExecutor;
+
+    // Guarded by writeLock
+    private WriteAheadLog log;
+    private long generation;
+    private boolean dirty;
+
+    private EmbeddedTaskStore(Path directory, int segmentBytes, boolean syncWrites) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncWrites = syncWrites;
+        this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "embedded-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Recovers the store from the directory, creating it if needed. A positive interval also
+    // takes a snapshot that often, as long as something was written since the last one.
+    public static EmbeddedTaskStore open(Path directory, int segmentBytes, boolean syncWrites,
+                                         long snapshotIntervalMs) throws IOException {
+        EmbeddedTaskStore store = new EmbeddedTaskStore(directory, segmentBytes, syncWrites);
+        store.recover();
+        if (snapshotIntervalMs > 0) {
+            store.snapshotExecutor.scheduleWithFixedDelay(store::snapshotQuietly, snapshotIntervalMs,
+                    snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        return store;
+    }
+
+    // The stream and lookup results are the stored instances, which callers must not modify
+    Task get(long id) {
+        return tasks.get(id);
+    }
+
+    Stream<Task> all() {
+        return tasks.values().stream();
+    }
+
+    Stream<Task> ownedBy(Long ownerId) {
+        Set<Long> ids = idsByOwner.get(ownerId);
+        return ids == null ? Stream.empty() : ids.stream().map(tasks::get).filter(Objects::nonNull);
+    }
+
+    int size() {
+        return tasks.size();
+    }
+
+    long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    // Logs the writes as a single record, so that after a crash either all or none of them
+    // are recovered, and then applies them
+    void apply(List<Write> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        byte[] record = encode(writes);
+        writeLock.lock();
+        try {
+            if (!log.append(record)) {
+                rotate(record.length);
+                log.append(record);
+            }
+            if (syncWrites) {
+                log.force();
+            }
+            writes.forEach(this::applyInMemory);
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the task log in " + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Writes every task into a new snapshot and drops the log segments it replaces
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long snapshotGeneration;
+            List<Task> contents;
+            writeLock.lock();
+            try {
+                if (!dirty) {
+                    return;
+                }
+                rotate(0);
+                snapshotGeneration = generation;
+                contents = new ArrayList<>(tasks.values());
+                dirty = false;
+            } finally {
+                writeLock.unlock();
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                writeSnapshot(snapshotGeneration, contents);
+            } catch (IOException | RuntimeException e) {
+                // Keeps the next scheduled snapshot from skipping the tasks this one missed
+                writeLock.lock();
+                try {
+                    dirty = true;
+                } finally {
+                    writeLock.unlock();
+                }
+                throw e;
+            }
+            deleteFilesBefore(snapshotGeneration);
+            logger.info("Wrote snapshot of {} tasks in {} ms", contents.size(), System.currentTimeMillis() - start);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotExecutor.shutdown();
+        snapshot();
+        writeLock.lock();
+        try {
+            log.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeSnapshot(long snapshotGeneration, List<Task> contents) throws IOException {
+        Path temporary = directory.resolve(snapshotName(snapshotGeneration) + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(contents.size());
+            for (Task task : contents) {
+                writeTask(out, task);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(snapshotName(snapshotGeneration)), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void recover() throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        List<Long> snapshots = generations("snapshot-", ".bin");
+        long snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        if (snapshotGeneration > 0) {
+            readSnapshot(directory.resolve(snapshotName(snapshotGeneration)));
+        }
+        int snapshotTasks = tasks.size();
+
+        int records = 0;
+        List<Long> segments = generations("wal-", ".log").stream().filter(g -> g >= snapshotGeneration).toList();
+        for (long segment : segments) {
+            WriteAheadLog replayed = WriteAheadLog.open(directory.resolve(segmentName(segment)), segmentBytes);
+            int[] count = {0};
+            replayed.replay(record -> {
+                decode(record).forEach(this::applyInMemory);
+                count[0]++;
+            });
+            records += count[0];
+            if (segment == segments.get(segments.size() - 1)) {
+                log = replayed;
+                generation = segment;
+            } else {
+                replayed.close();
+            }
+        }
+        if (log == null) {
+            generation = Math.max(snapshotGeneration, 1);
+            log = WriteAheadLog.open(directory.resolve(segmentName(generation)), segmentBytes);
+        }
+        dirty = records > 0;
+        deleteFilesBefore(snapshotGeneration);
+
+        logger.info("Recovered {} tasks ({} from the snapshot, {} log records) in {} ms", tasks.size(), snapshotTasks,
+                records, System.currentTimeMillis() - start);
+    }
+
+    // Starts the next log segment, large enough for a record of the given size
+    private void rotate(int recordBytes) throws IOException {
+        long next = generation + 1;
+        WriteAheadLog rotated = WriteAheadLog.open(directory.resolve(segmentName(next)),
+                Math.max(segmentBytes, recordBytes + WriteAheadLog.HEADER_BYTES));
+        log.close();
+        log = rotated;
+        generation = next;
+    }
+
+    private void applyInMemory(Write write) {
+        if (write.task() != null) {
+            Task task = write.task();
+            Task previous = tasks.put(task.getId(), task);
+            if (previous != null && !Objects.equals(previous.getOwnerId(), task.getOwnerId())) {
+                removeOwned(previous);
+            }
+            if (task.getOwnerId() != null) {
+                idsByOwner.computeIfAbsent(task.getOwnerId(), owner -> ConcurrentHashMap.newKeySet()).add(task.getId());
+            }
+            lastId.accumulateAndGet(task.getId(), Math::max);
+        } else {
+            Task removed = tasks.remove(write.deletedId());
+            if (removed != null) {
+                removeOwned(removed);
+            }
+        }
+    }
+
+    private void removeOwned(Task task) {
+        if (task.getOwnerId() != null) {
+            idsByOwner.computeIfPresent(task.getOwnerId(), (owner, ids) -> {
+                ids.remove(task.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Snapshot of the embedded task store failed; the log is kept", e);
+        }
+    }
+
+    private void readSnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                applyInMemory(Write.save(readTask(in)));
+            }
+        }
+    }
+
+    private List<Long> generations(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteFilesBefore(long generationToKeep) throws IOException {
+        for (long segment : generations("wal-", ".log")) {
+            if (segment < generationToKeep) {
+                Files.deleteIfExists(directory.resolve(segmentName(segment)));
+            }
+        }
+        for (long snapshot : generations("snapshot-", ".bin")) {
+            if (snapshot < generationToKeep) {
+                Files.deleteIfExists(directory.resolve(snapshotName(snapshot)));
+            }
+        }
+    }
+
+    // Stored tasks are never handed out or kept from callers, only copies of them
+    static Task copy(Task task) {
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setTitle(task.getTitle());
+        copy.setDescription(task.getDescription());
+        copy.setCompleted(task.isCompleted());
+        copy.setOwnerId(task.getOwnerId());
+        copy.setAssigneeId(task.getAssigneeId());
+        copy.getTags().addAll(task.getTags());
+        return copy;
+    }
+
+    private static String segmentName(long generation) {
+        return String.format("wal-%020d.log", generation);
+    }
+
+    private static String snapshotName(long generation) {
+        return String.format("snapshot-%020d.bin", generation);
+    }
+
+    private static byte[] encode(List<Write> writes) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 * writes.size());
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(writes.size());
+            for (Write write : writes) {
+                if (write.task() != null) {
+                    out.writeByte(OP_SAVE);
+                    writeTask(out, write.task());
+                } else {
+                    out.writeByte(OP_DELETE);
+                    out.writeLong(write.deletedId());
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Write> decode(byte[] record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            int count = in.readInt();
+            List<Write> writes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                writes.add(in.readByte() == OP_SAVE ? Write.save(readTask(in)) : Write.delete(in.readLong()));
+            }
+            return writes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        out.writeLong(task.getId());
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+        out.writeBoolean(task.isCompleted());
+        writeLong(out, task.getOwnerId());
+        writeLong(out, task.getAssigneeId());
+        out.writeInt(task.getTags().size());
+        for (String tag : task.getTags()) {
+            writeString(out, tag);
+        }
+    }
+
+    private static Task readTask(DataInputStream in) throws IOException {
+        Task task = new Task();
+        task.setId(in.readLong());
+        task.setTitle(readString(in));
+        task.setDescription(readString(in));
+        task.setCompleted(in.readBoolean());
+        task.setOwnerId(readLong(in));
+        task.setAssigneeId(readLong(in));
+        int tagCount = in.readInt();
+        for (int i = 0; i < tagCount; i++) {
+            task.getTags().add(readString(in));
+        }
+        return task;
+    }
+
+    // Strings are length-prefixed UTF-8, as writeUTF is limited to 64 KB; -1 stands for null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    // A saved task, or the id of a deleted one
+    record Write(Task task, long deletedId) {
+        static Write save(Task task) {
+            return new Write(task, 0);
+        }
+
+        static Write delete(long id) {
+            return new Write(null, id);
+        }
+    }
+}
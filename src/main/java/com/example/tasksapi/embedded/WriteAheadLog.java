@@ -0,0 +1,110 @@
+package com.example.tasksapi.embedded;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// One segment of the embedded store's log: a pre-sized, memory-mapped file of
+// [length][crc32][payload] records. Appends are plain memory writes, so a record survives a
+// process crash as soon as append returns; force() also makes it survive losing the machine.
+// The file starts zero-filled, and a zero length or a checksum mismatch marks the end of the
+// log, which is where a torn write left off.
+class WriteAheadLog implements AutoCloseable {
+    static final int HEADER_BYTES = 8;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private WriteAheadLog(Path file, FileChannel channel, MappedByteBuffer buffer) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    // Maps the segment, creating it with the given capacity if it doesn't exist yet, and
+    // positions it after the last intact record
+    static WriteAheadLog open(Path file, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), capacity);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        WriteAheadLog log = new WriteAheadLog(file, channel, buffer);
+        log.replay(payload -> {});
+        log.clearTail();
+        return log;
+    }
+
+    // Returns false, without writing anything, when the record doesn't fit in this segment
+    boolean append(byte[] payload) {
+        if (buffer.remaining() < HEADER_BYTES + payload.length) {
+            return false;
+        }
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.put(payload);
+        buffer.putInt(start + 4, checksum(payload));
+        // The length goes in last, so a record is never visible before its payload is
+        buffer.putInt(start, payload.length);
+        return true;
+    }
+
+    // Hands every intact record to the consumer, in order
+    void replay(Consumer<byte[]> consumer) {
+        buffer.position(0);
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length <= 0 || length > buffer.remaining() - HEADER_BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(start + HEADER_BYTES, payload);
+            if (buffer.getInt(start + 4) != checksum(payload)) {
+                break;
+            }
+            consumer.accept(payload);
+            buffer.position(start + HEADER_BYTES + length);
+        }
+    }
+
+    boolean isEmpty() {
+        return buffer.position() == 0;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    Path file() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // Zeroes everything after the last intact record. After a machine crash, pages written
+    // after a torn record may have reached the disk; new records must not end up followed
+    // by those stale ones.
+    private void clearTail() {
+        int position = buffer.position();
+        byte[] zeros = new byte[64 * 1024];
+        while (buffer.hasRemaining()) {
+            buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+        }
+        buffer.position(position);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
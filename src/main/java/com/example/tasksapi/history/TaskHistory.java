@@ -0,0 +1,202 @@
+package com.example.tasksapi.history;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.history.TaskHistoryWriter.PendingEvent;
+import com.example.tasksapi.model.TaskEvent;
+import com.example.tasksapi.model.TaskHistorySnapshot;
+import com.example.tasksapi.repository.TaskEventRepository;
+import com.example.tasksapi.repository.TaskHistorySnapshotRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+
+// Records who changed which field of a task and when, and reads that history back. Events
+// are handed to TaskHistoryWriter once the writing transaction has committed, so a request
+// never waits for them to be inserted. A past state is rebuilt from the closest earlier
+// snapshot plus the events after it.
+@Service
+public class TaskHistory {
+    private static final TypeReference<LinkedHashMap<String, Object>> STATE_TYPE = new TypeReference<>() {};
+
+    private final TaskHistoryWriter writer;
+    private final TaskEventRepository eventRepository;
+    private final TaskHistorySnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+
+    public TaskHistory(TaskHistoryWriter writer, TaskEventRepository eventRepository,
+                       TaskHistorySnapshotRepository snapshotRepository, ObjectMapper objectMapper) {
+        this.writer = writer;
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // The recorded fields of a task, as they appear in API responses. Take this before
+    // changing a task to record the update afterwards.
+    public Map<String, Object> stateOf(Task task) {
+        Map<String, Object> state = objectMapper.convertValue(task, STATE_TYPE);
+        state.remove("id");
+        state.remove("ownerId");
+        return state;
+    }
+
+    public void recordCreated(Task task, Long actorId) {
+        submit(created(task, actorId));
+    }
+
+    // Nothing is recorded when no field changed
+    public void recordUpdated(Task task, Map<String, Object> before, Long actorId) {
+        submit(updated(task, before, actorId));
+    }
+
+    public void recordDeleted(Task task, Long actorId) {
+        submit(deleted(task, actorId));
+    }
+
+    // Collects events to be written later, for callers without a thread-bound transaction
+    public Batch batch() {
+        return new Batch();
+    }
+
+    // Oldest first, starting after the given event id
+    public List<TaskEvent> events(Long taskId, Long ownerId, long afterId, int limit) {
+        return eventRepository.findByTaskIdAndOwnerIdAndIdGreaterThanOrderById(taskId, ownerId, afterId,
+                PageRequest.of(0, limit));
+    }
+
+    // The task as it was at the given instant; empty if it didn't exist then
+    public Optional<Task> stateAt(Long taskId, Long ownerId, Instant at) {
+        Optional<TaskHistorySnapshot> snapshot = snapshotRepository
+                .findFirstByTaskIdAndOwnerIdAndOccurredAtLessThanEqualOrderByEventIdDesc(taskId, ownerId, at);
+        Map<String, Object> state = snapshot.map(s -> parse(s.getState())).orElse(null);
+        long afterId = snapshot.map(TaskHistorySnapshot::getEventId).orElse(0L);
+
+        for (TaskEvent event : eventRepository.findByTaskIdAndOwnerIdAndIdGreaterThanAndOccurredAtLessThanEqualOrderById(
+                taskId, ownerId, afterId, at)) {
+            switch (event.getType()) {
+                case CREATED -> state = apply(stateOf(new Task()), event);
+                case UPDATED -> state = state == null ? null : apply(state, event);
+                case DELETED -> state = null;
+            }
+        }
+        if (state == null) {
+            return Optional.empty();
+        }
+
+        Task task = objectMapper.convertValue(state, Task.class);
+        task.setId(taskId);
+        task.setOwnerId(ownerId);
+        return Optional.of(task);
+    }
+
+    private PendingEvent created(Task task, Long actorId) {
+        Map<String, Object> state = stateOf(task);
+        return event(task, actorId, TaskEvent.Type.CREATED, diff(stateOf(new Task()), state), state);
+    }
+
+    private PendingEvent updated(Task task, Map<String, Object> before, Long actorId) {
+        Map<String, Object> state = stateOf(task);
+        Map<String, Object> changes = diff(before, state);
+        return changes.isEmpty() ? null : event(task, actorId, TaskEvent.Type.UPDATED, changes, state);
+    }
+
+    private PendingEvent deleted(Task task, Long actorId) {
+        return event(task, actorId, TaskEvent.Type.DELETED, Map.of(), null);
+    }
+
+    private static PendingEvent event(Task task, Long actorId, TaskEvent.Type type, Map<String, Object> changes,
+                                      Map<String, Object> state) {
+        return new PendingEvent(task.getId(), task.getOwnerId(), actorId, type, Instant.now(), changes, state);
+    }
+
+    // Hands the event to the writer once the current transaction commits, or right away outside one
+    private void submit(PendingEvent event) {
+        if (event == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writer.enqueue(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writer.enqueue(event);
+            }
+        });
+    }
+
+    private Map<String, Object> apply(Map<String, Object> state, TaskEvent event) {
+        parse(event.getChanges()).forEach((field, change) -> state.put(field, ((Map<?, ?>) change).get("to")));
+        return state;
+    }
+
+    private static Map<String, Object> diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> field : after.entrySet()) {
+            Object previous = before.get(field.getKey());
+            if (!Objects.equals(previous, field.getValue())) {
+                Map<String, Object> change = new LinkedHashMap<>();
+                change.put("from", previous);
+                change.put("to", field.getValue());
+                changes.put(field.getKey(), change);
+            }
+        }
+        return changes;
+    }
+
+    private Map<String, Object> parse(String json) {
+        try {
+            return objectMapper.readValue(json, STATE_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable task history", e);
+        }
+    }
+
+    // Events are captured when recorded, so later changes to the same task don't leak into them
+    public class Batch {
+        private final List<PendingEvent> events = new ArrayList<>();
+
+        public void recordCreated(Task task, Long actorId) {
+            add(created(task, actorId));
+        }
+
+        public void recordUpdated(Task task, Map<String, Object> before, Long actorId) {
+            add(updated(task, before, actorId));
+        }
+
+        public void recordDeleted(Task task, Long actorId) {
+            add(deleted(task, actorId));
+        }
+
+        // Call once the changes are committed. Blocks while the writer's queue is full.
+        public void submit() {
+            events.forEach(writer::enqueue);
+            events.clear();
+        }
+
+        // Like submit(), but returns false instead of blocking when the writer's queue is
+        // full. The events not handed over yet stay in the batch for a later submit().
+        public boolean trySubmit() {
+            int submitted = 0;
+            while (submitted < events.size() && writer.offer(events.get(submitted))) {
+                submitted++;
+            }
+            events.subList(0, submitted).clear();
+            return events.isEmpty();
+        }
+
+        private void add(PendingEvent event) {
+            if (event != null) {
+                events.add(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.tasksapi.history;
+
+import com.example.tasksapi.model.TaskEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Appends task events to task_event from a background thread, so that recording history
+// costs a request a queue insert rather than an INSERT. The thread waits up to lingerMs for
+// more events after the first one and writes up to batchSize of them as one JDBC batch in one
+// transaction. Every snapshotEvery events of a task it also writes a snapshot of the task's
+// state. The queue is bounded: when the database falls behind, recording blocks instead of
+// dropping events. Failed batches are retried with backoff, and queued events are written
+// before shutdown completes.
+@Component
+public class TaskHistoryWriter implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(TaskHistoryWriter.class);
+
+    private static final String INSERT_EVENT = "insert into task_event (task_id, owner_id, actor_id, type, "
+            + "occurred_at, changes) values (?, ?, ?, ?, ?, ?)";
+    // Takes the id of the task's latest event, which was written just before in the same transaction
+    private static final String INSERT_SNAPSHOT = "insert into task_history_snapshot (task_id, owner_id, event_id, "
+            + "occurred_at, state) select ?, ?, max(id), ?, ? from task_event where task_id = ?";
+    // Events after the task's latest snapshot, for tasks whose count isn't tracked in memory
+    private static final String COUNT_SINCE_SNAPSHOT = "select e.task_id, count(*) from task_event e "
+            + "where e.task_id in (%s) and e.id > coalesce((select max(s.event_id) from task_history_snapshot s "
+            + "where s.task_id = e.task_id), 0) group by e.task_id";
+    private static final int MAX_TRACKED_TASKS = 10_000;
+    private static final long IDLE_POLL_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    // Events since the last snapshot of the most recently written tasks. Only touched by the
+    // writer thread; tasks that aren't tracked, e.g. after a restart, are counted in the database.
+    private final Map<Long, Integer> eventsSinceSnapshot = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > MAX_TRACKED_TASKS;
+        }
+    };
+
+    @Value("${app.history.batchSize:500}")
+    private int batchSize;
+
+    @Value("${app.history.lingerMs:50}")
+    private long lingerMs;
+
+    @Value("${app.history.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.history.snapshotEvery:50}")
+    private int snapshotEvery;
+
+    private volatile BlockingQueue<PendingEvent> queue;
+    private volatile boolean running;
+    private Thread thread;
+    private Timer writeTimer;
+
+    public TaskHistoryWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Blocks while the queue is full
+    public void enqueue(PendingEvent event) {
+        try {
+            queue.put(event);
+            enqueued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recording task history", e);
+        }
+    }
+
+    // Queues the event unless the queue is full, for callers that must not block
+    public boolean offer(PendingEvent event) {
+        if (!queue.offer(event)) {
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    // Waits until every event enqueued before the call has been written; false on timeout
+    public boolean awaitWritten(Duration timeout) throws InterruptedException {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (written.get() < target) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    @Override
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("history.queue.size", queue, BlockingQueue::size)
+                .description("Task events waiting to be written")
+                .register(meterRegistry);
+        writeTimer = Timer.builder("history.writes")
+                .description("Time to write one batch of task events")
+                .register(meterRegistry);
+        running = true;
+        thread = new Thread(this::run, "task-history-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the web server, so no request records into a stopped writer
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Adds queued events until the batch is full or lingerMs have passed
+    private void fill(List<PendingEvent> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long waitNanos = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || waitNanos <= 0) {
+                return;
+            }
+            PendingEvent next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeWithRetry(List<PendingEvent> batch) throws InterruptedException {
+        long backoffMs = 100;
+        while (true) {
+            try {
+                writeTimer.record(() -> write(batch));
+                written.addAndGet(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    logger.error("Dropping {} task events that could not be written before shutdown", batch.size(), e);
+                    written.addAndGet(batch.size());
+                    return;
+                }
+                logger.warn("Writing {} task events failed, retrying in {} ms", batch.size(), backoffMs, e);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    void write(List<PendingEvent> batch) {
+        Map<Long, Integer> sinceSnapshot = countsSinceSnapshot(batch);
+
+        // A snapshot holds the state after the task's last event in this batch. The counts are
+        // only applied once the batch has committed, so a retried batch doesn't count twice.
+        Map<Long, Integer> counts = new HashMap<>();
+        Set<Long> deleted = new HashSet<>();
+        Map<Long, PendingEvent> snapshots = new LinkedHashMap<>();
+        for (PendingEvent event : batch) {
+            if (event.type() == TaskEvent.Type.DELETED) {
+                deleted.add(event.taskId());
+                snapshots.remove(event.taskId());
+                continue;
+            }
+            int count = counts.getOrDefault(event.taskId(), sinceSnapshot.get(event.taskId())) + 1;
+            counts.put(event.taskId(), count);
+            if (count >= snapshotEvery || snapshots.containsKey(event.taskId())) {
+                snapshots.put(event.taskId(), event);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (statement, event) -> {
+                statement.setLong(1, event.taskId());
+                statement.setObject(2, event.ownerId(), Types.BIGINT);
+                statement.setObject(3, event.actorId(), Types.BIGINT);
+                statement.setString(4, event.type().name());
+                statement.setObject(5, utc(event.occurredAt()));
+                statement.setString(6, json(event.changes()));
+            });
+            for (PendingEvent event : snapshots.values()) {
+                jdbcTemplate.update(INSERT_SNAPSHOT, event.taskId(), event.ownerId(), utc(event.occurredAt()),
+                        json(event.state()), event.taskId());
+            }
+        });
+        snapshots.keySet().forEach(taskId -> counts.put(taskId, 0));
+        eventsSinceSnapshot.putAll(counts);
+        deleted.forEach(eventsSinceSnapshot::remove);
+    }
+
+    // The events since the last snapshot of every task in the batch, read from the database
+    // for the tasks that aren't tracked in memory
+    private Map<Long, Integer> countsSinceSnapshot(List<PendingEvent> batch) {
+        Map<Long, Integer> counts = new HashMap<>();
+        List<Long> untracked = new ArrayList<>();
+        for (PendingEvent event : batch) {
+            if (counts.containsKey(event.taskId())) {
+                continue;
+            }
+            Integer count = eventsSinceSnapshot.get(event.taskId());
+            counts.put(event.taskId(), count == null ? 0 : count);
+            if (count == null) {
+                untracked.add(event.taskId());
+            }
+        }
+        if (!untracked.isEmpty()) {
+            String sql = COUNT_SINCE_SNAPSHOT.formatted(String.join(", ", Collections.nCopies(untracked.size(), "?")));
+            jdbcTemplate.query(sql, rs -> {
+                counts.put(rs.getLong(1), rs.getInt(2));
+            }, untracked.toArray());
+        }
+        return counts;
+    }
+
+    private String json(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Task history is not serializable", e);
+        }
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    // An event waiting to be written, with the task's full state after it for snapshots
+    public record PendingEvent(Long taskId, Long ownerId, Long actorId, TaskEvent.Type type, Instant occurredAt,
+                               Map<String, Object> changes, Map<String, Object> state) {}
+}
@@ -0,0 +1,24 @@
+package com.example.tasksapi.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdempotencyConfig {
+    @Value("${app.idempotency.maxEntries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.ttlMs:86400000}")
+    private long ttlMs;
+
+    @Value("${app.idempotency.stripes:16}")
+    private int stripes;
+
+    @Bean
+    @ConditionalOnMissingBean(IdempotencyStore.class)
+    public IdempotencyStore idempotencyStore() {
+        return new StripedIdempotencyStore(maxEntries, ttlMs, stripes);
+    }
+}
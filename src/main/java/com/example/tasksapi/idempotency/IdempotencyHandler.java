@@ -0,0 +1,112 @@
+package com.example.tasksapi.idempotency;
+
+import com.example.tasksapi.payload.response.MessageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Runs a request at most once per idempotency key and replays the stored response to
+// retries. Keys are scoped per caller so that users can never see each other's responses.
+@Component
+public class IdempotencyHandler {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyHandler(IdempotencyStore store, ObjectMapper objectMapper) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    public ResponseEntity<?> execute(Long callerId, String idempotencyKey, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (!isValidKey(idempotencyKey)) {
+            return invalidKey();
+        }
+
+        String key = key(callerId, idempotencyKey);
+        String fingerprint = fingerprint(request);
+        Optional<IdempotencyRecord> existing = store.reserveOrGet(key, fingerprint);
+        if (existing.isPresent()) {
+            return replay(existing.get(), fingerprint);
+        }
+
+        try {
+            ResponseEntity<?> response = action.get();
+            complete(key, fingerprint, response);
+            return response;
+        } catch (RuntimeException e) {
+            // Let the client retry a request that failed unexpectedly
+            store.release(key);
+            throw e;
+        }
+    }
+
+    static String key(Long callerId, String idempotencyKey) {
+        return callerId + ":" + idempotencyKey;
+    }
+
+    static boolean isValidKey(String idempotencyKey) {
+        return !idempotencyKey.isBlank() && idempotencyKey.length() <= MAX_KEY_LENGTH;
+    }
+
+    static ResponseEntity<?> invalidKey() {
+        return ResponseEntity
+                .badRequest()
+                .body(new MessageResponse("Error: Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters!"));
+    }
+
+    void complete(String key, String fingerprint, ResponseEntity<?> response) {
+        store.complete(key, IdempotencyRecord.completed(fingerprint, response.getStatusCode().value(),
+                toJson(response.getBody())));
+    }
+
+    ResponseEntity<?> replay(IdempotencyRecord record, String fingerprint) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            return ResponseEntity
+                    .unprocessableEntity()
+                    .body(new MessageResponse("Error: Idempotency-Key was already used with a different request!"));
+        }
+        if (!record.isCompleted()) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Error: A request with this Idempotency-Key is still in progress!"));
+        }
+        return ResponseEntity
+                .status(record.getStatus())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(record.getBody());
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+}
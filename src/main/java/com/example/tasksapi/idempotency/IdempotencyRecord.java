@@ -0,0 +1,41 @@
+package com.example.tasksapi.idempotency;
+
+// The outcome of the first request made with an idempotency key. A record that is
+// not completed yet marks a request that is still being processed.
+public class IdempotencyRecord {
+    private final String fingerprint;
+    private final boolean completed;
+    private final int status;
+    private final String body;
+
+    private IdempotencyRecord(String fingerprint, boolean completed, int status, String body) {
+        this.fingerprint = fingerprint;
+        this.completed = completed;
+        this.status = status;
+        this.body = body;
+    }
+
+    public static IdempotencyRecord inProgress(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, false, 0, null);
+    }
+
+    public static IdempotencyRecord completed(String fingerprint, int status, String body) {
+        return new IdempotencyRecord(fingerprint, true, status, body);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
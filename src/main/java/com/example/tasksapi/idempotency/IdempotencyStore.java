@@ -0,0 +1,17 @@
+package com.example.tasksapi.idempotency;
+
+import java.util.Optional;
+
+// Remembers the first response per idempotency key. The in-memory implementation is
+// enough for a single node; a shared (e.g. database-backed) implementation can be
+// registered as a bean to replace it when running several replicas.
+public interface IdempotencyStore {
+
+    // Returns the existing record for the key, or reserves the key for the caller and
+    // returns empty. A reserved key must later be completed or released.
+    Optional<IdempotencyRecord> reserveOrGet(String key, String fingerprint);
+
+    void complete(String key, IdempotencyRecord record);
+
+    void release(String key);
+}
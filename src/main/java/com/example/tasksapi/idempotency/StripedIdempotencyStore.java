@@ -0,0 +1,113 @@
+package com.example.tasksapi.idempotency;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded, expiring in-memory store. Keys are spread over independently locked
+// stripes so that concurrent requests only contend when their keys share a stripe.
+public class StripedIdempotencyStore implements IdempotencyStore {
+    private final Stripe[] stripes;
+    private final long ttlMs;
+    private final Clock clock;
+
+    public StripedIdempotencyStore(int maxEntries, long ttlMs, int stripeCount) {
+        this(maxEntries, ttlMs, stripeCount, Clock.systemUTC());
+    }
+
+    StripedIdempotencyStore(int maxEntries, long ttlMs, int stripeCount, Clock clock) {
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.stripes = new Stripe[stripeCount];
+        int perStripe = Math.max(1, maxEntries / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> reserveOrGet(String key, String fingerprint) {
+        Stripe stripe = stripeFor(key);
+        long now = clock.millis();
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                return Optional.of(entry.record);
+            }
+            stripe.entries.remove(key);
+            stripe.entries.put(key, new Entry(IdempotencyRecord.inProgress(fingerprint), now + ttlMs));
+            return Optional.empty();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.put(key, new Entry(record, clock.millis() + ttlMs));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private static final class Entry {
+        private final IdempotencyRecord record;
+        private final long expiresAt;
+
+        private Entry(IdempotencyRecord record, long expiresAt) {
+            this.record = record;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries;
+
+        private Stripe(int capacity) {
+            // Insertion order is also expiry order, so the eldest entry is evicted first
+            // both when it has expired and when the stripe is full
+            this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > capacity || eldest.getValue().expiresAt <= clock.millis();
+                }
+            };
+        }
+    }
+}
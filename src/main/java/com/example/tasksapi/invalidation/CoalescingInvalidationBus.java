@@ -0,0 +1,232 @@
+package com.example.tasksapi.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Collects published keys and sends them every coalesceMs as batches of at most
+// maxBatchKeys, so that a burst of writes to the same entities becomes one message. The
+// transport, and receiving batches from other instances, is up to the subclass; received
+// batches are handed to deliver(). Sending and delivery happen on one scheduler thread.
+// Keys of a batch that could not be sent go back to the pending keys and are sent again,
+// with exponential backoff between flushes, up to maxSendAttempts times.
+public abstract class CoalescingInvalidationBus implements InvalidationBus, SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingInvalidationBus.class);
+    private static final long MAX_RETRY_DELAY_MS = 5000;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Counter sentKeys;
+    private final Counter receivedKeys;
+    private final Object lock = new Object();
+
+    @Value("${app.invalidation.coalesceMs:20}")
+    private long coalesceMs;
+
+    @Value("${app.invalidation.maxBatchKeys:1000}")
+    private int maxBatchKeys;
+
+    @Value("${app.invalidation.maxSendAttempts:8}")
+    private int maxSendAttempts;
+
+    private Set<String> pending = new LinkedHashSet<>();
+    // Send attempts of keys whose batch failed, and when to try again; only touched by flush
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    private int consecutiveFailures;
+    private long retryAtNanos;
+    private volatile ScheduledExecutorService scheduler;
+
+    protected CoalescingInvalidationBus(MeterRegistry meterRegistry) {
+        this.sentKeys = Counter.builder("invalidation.keys").tag("direction", "sent")
+                .description("Invalidation keys published by this instance, after coalescing")
+                .register(meterRegistry);
+        this.receivedKeys = Counter.builder("invalidation.keys").tag("direction", "received")
+                .description("Invalidation keys received from other instances")
+                .register(meterRegistry);
+    }
+
+    // Sends a batch of this instance's keys to the other instances
+    protected abstract void send(Set<String> keys);
+
+    // Starts receiving batches from other instances, on the given scheduler or a thread of its own
+    protected void startReceiving(ScheduledExecutorService scheduler) {
+    }
+
+    protected void stopReceiving() {
+    }
+
+    @Override
+    public void publish(String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(List.of(key));
+            return;
+        }
+
+        // One synchronization per transaction, however many entities it writes
+        @SuppressWarnings("unchecked")
+        Set<String> transactionKeys = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (transactionKeys == null) {
+            Set<String> keys = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(keys);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CoalescingInvalidationBus.this);
+                }
+            });
+            transactionKeys = keys;
+        }
+        transactionKeys.add(key);
+    }
+
+    @Override
+    public void subscribe(String prefix, Consumer<InvalidationBatch> listener) {
+        subscribers.add(new Subscriber(prefix, listener));
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushWhenDue, coalesceMs, coalesceMs, TimeUnit.MILLISECONDS);
+        startReceiving(scheduler);
+    }
+
+    // Keys still pending are sent before the bus stops
+    @Override
+    public void stop() {
+        ScheduledExecutorService stopping = scheduler;
+        scheduler = null;
+        if (stopping == null) {
+            return;
+        }
+        stopReceiving();
+        stopping.shutdown();
+        try {
+            stopping.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // Hands a batch received from another instance to the subscribers
+    protected void deliver(Set<String> keys) {
+        receivedKeys.increment(keys.size());
+        deliver(keys, false);
+    }
+
+    // Holds off while backing off from a failed send
+    private void flushWhenDue() {
+        if (consecutiveFailures > 0 && System.nanoTime() - retryAtNanos < 0) {
+            return;
+        }
+        flush();
+    }
+
+    void flush() {
+        Set<String> keys;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            keys = pending;
+            pending = new LinkedHashSet<>();
+        }
+
+        List<String> all = new ArrayList<>(keys);
+        boolean failed = false;
+        for (int from = 0; from < all.size(); from += maxBatchKeys) {
+            Set<String> batch = new LinkedHashSet<>(all.subList(from, Math.min(from + maxBatchKeys, all.size())));
+            try {
+                send(batch);
+                sentKeys.increment(batch.size());
+                failedAttempts.keySet().removeAll(batch);
+            } catch (RuntimeException e) {
+                failed = true;
+                retryLater(batch, e);
+            }
+            deliver(batch, true);
+        }
+
+        if (failed) {
+            consecutiveFailures++;
+            long delayMs = Math.min(coalesceMs << Math.min(consecutiveFailures, 20), MAX_RETRY_DELAY_MS);
+            retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        } else {
+            consecutiveFailures = 0;
+        }
+    }
+
+    private void retryLater(Set<String> batch, RuntimeException e) {
+        List<String> retried = new ArrayList<>();
+        int dropped = 0;
+        for (String key : batch) {
+            int attempts = failedAttempts.merge(key, 1, Integer::sum);
+            if (attempts < maxSendAttempts) {
+                retried.add(key);
+            } else {
+                failedAttempts.remove(key);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("Sending {} invalidation keys failed {} times; other instances may serve stale entries",
+                    dropped, maxSendAttempts, e);
+        } else {
+            logger.debug("Sending {} invalidation keys failed; retrying", batch.size(), e);
+        }
+        enqueue(retried);
+    }
+
+    private void enqueue(Collection<String> keys) {
+        synchronized (lock) {
+            pending.addAll(keys);
+        }
+    }
+
+    private void deliver(Set<String> keys, boolean local) {
+        for (Subscriber subscriber : subscribers) {
+            Set<String> matching = new LinkedHashSet<>();
+            for (String key : keys) {
+                if (key.startsWith(subscriber.prefix())) {
+                    matching.add(key);
+                }
+            }
+            if (matching.isEmpty()) {
+                continue;
+            }
+            try {
+                subscriber.listener().accept(new InvalidationBatch(matching, local));
+            } catch (RuntimeException e) {
+                logger.warn("Invalidation subscriber for {} failed", subscriber.prefix(), e);
+            }
+        }
+    }
+
+    private record Subscriber(String prefix, Consumer<InvalidationBatch> listener) {}
+}
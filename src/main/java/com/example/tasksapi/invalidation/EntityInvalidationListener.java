@@ -0,0 +1,30 @@
+package com.example.tasksapi.invalidation;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// JPA entity listener that publishes the keys of written tasks and users. The bus sends
+// them once the transaction commits. Like TaskIndexingListener, it resolves the bus lazily,
+// so it is absent in slices such as @DataJpaTest.
+public class EntityInvalidationListener {
+    private final ObjectProvider<InvalidationBus> bus;
+
+    public EntityInvalidationListener(ObjectProvider<InvalidationBus> bus) {
+        this.bus = bus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterWrite(Object entity) {
+        if (entity instanceof Task task) {
+            bus.ifAvailable(b -> b.publish(InvalidationBus.key(InvalidationBus.TASK, task.getId())));
+        } else if (entity instanceof User user) {
+            bus.ifAvailable(b -> b.publish(InvalidationBus.key(InvalidationBus.USER, user.getId())));
+        }
+    }
+}
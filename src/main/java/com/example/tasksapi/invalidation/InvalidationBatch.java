@@ -0,0 +1,17 @@
+package com.example.tasksapi.invalidation;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Keys published together, and whether they came from this instance. Caches that already
+// apply their own instance's writes directly can skip local batches.
+public record InvalidationBatch(Set<String> keys, boolean local) {
+
+    // The ids of the keys with the given prefix, as longs
+    public Set<Long> ids(String prefix) {
+        return keys.stream()
+                .filter(key -> key.startsWith(prefix))
+                .map(key -> Long.valueOf(key.substring(prefix.length())))
+                .collect(Collectors.toSet());
+    }
+}
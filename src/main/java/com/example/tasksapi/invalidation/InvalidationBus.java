@@ -0,0 +1,24 @@
+package com.example.tasksapi.invalidation;
+
+import java.util.function.Consumer;
+
+// Broadcasts the keys of changed entities to every instance of the application, so that
+// in-process caches can drop or reload what another instance has written. Keys are
+// "<entity>:<id>", e.g. task:42. Published keys are coalesced and delivered in batches,
+// to subscribers on this instance as well as on the others.
+public interface InvalidationBus {
+    String TASK = "task:";
+    String USER = "user:";
+    String WEBHOOK_SUBSCRIPTIONS = "webhook-subscriptions:";
+
+    // Publishes once the current transaction commits, or right away outside of one
+    void publish(String key);
+
+    // The listener receives every batch with at least one key starting with the prefix,
+    // reduced to those keys, on the bus thread
+    void subscribe(String prefix, Consumer<InvalidationBatch> listener);
+
+    static String key(String prefix, Object id) {
+        return prefix + id;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.tasksapi.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Invalidation bus for several instances sharing one database. Each batch is a row in
+// cache_invalidation, and every instance polls for the rows of the others every pollMs.
+// On Postgres the sender also NOTIFYs, and the receiver LISTENs on a connection of its
+// own, so batches usually arrive well before the next poll.
+//
+// Row ids come from an identity column but commit in no particular order across
+// instances, so polls don't resume after the last id seen. Each poll reads the rows of the
+// last lookbackMs and skips those already delivered. The window covers slow commits and
+// clock differences between instances; rows are deleted after retentionMs.
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "jdbc")
+public class JdbcInvalidationBus extends CoalescingInvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInvalidationBus.class);
+
+    private static final String CHANNEL = "cache_invalidation";
+    private static final String INSERT = "insert into cache_invalidation (node_id, invalidated_keys, created_at) "
+            + "values (?, ?, ?)";
+    private static final String SELECT_RECENT = "select id, node_id, invalidated_keys, created_at "
+            + "from cache_invalidation where created_at > ? order by id";
+    private static final String PRUNE = "delete from cache_invalidation where created_at < ?";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    // Only touched by the receiver thread
+    private final Map<Long, Instant> delivered = new HashMap<>();
+    private Connection listenConnection;
+    private Instant lastPrune = Instant.EPOCH;
+
+    @Value("${app.invalidation.jdbc.pollMs:1000}")
+    private long pollMs;
+
+    @Value("${app.invalidation.jdbc.lookbackMs:10000}")
+    private long lookbackMs;
+
+    @Value("${app.invalidation.jdbc.retentionMs:60000}")
+    private long retentionMs;
+
+    @Value("${app.invalidation.jdbc.listen:true}")
+    private boolean listen;
+
+    private volatile boolean postgres;
+    private volatile boolean receiving;
+    private Thread receiver;
+
+    public JdbcInvalidationBus(JdbcTemplate jdbcTemplate, DataSource dataSource, MeterRegistry meterRegistry) {
+        super(meterRegistry);
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected void send(Set<String> keys) {
+        jdbcTemplate.update(INSERT, nodeId, String.join("\n", keys), utc(Instant.now()));
+        if (postgres) {
+            jdbcTemplate.execute("notify " + CHANNEL);
+        }
+    }
+
+    @Override
+    protected void startReceiving(ScheduledExecutorService scheduler) {
+        postgres = Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName().contains("PostgreSQL")));
+        receiving = true;
+        receiver = new Thread(() -> receive(scheduler), "invalidation-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    protected void stopReceiving() {
+        receiving = false;
+        try {
+            receiver.join(2 * pollMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void receive(ScheduledExecutorService scheduler) {
+        try {
+            while (receiving) {
+                try {
+                    awaitBatches();
+                    poll(scheduler);
+                } catch (SQLException | RuntimeException e) {
+                    logger.warn("Receiving invalidations failed; retrying in {} ms", pollMs, e);
+                    closeListenConnection();
+                    Thread.sleep(pollMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeListenConnection();
+        }
+    }
+
+    // Returns after pollMs, or as soon as another instance notifies
+    private void awaitBatches() throws SQLException, InterruptedException {
+        if (!postgres || !listen) {
+            Thread.sleep(pollMs);
+            return;
+        }
+        if (listenConnection == null) {
+            listenConnection = dataSource.getConnection();
+            listenConnection.setAutoCommit(true);
+            try (Statement statement = listenConnection.createStatement()) {
+                statement.execute("listen " + CHANNEL);
+            }
+        }
+        listenConnection.unwrap(PGConnection.class).getNotifications((int) pollMs);
+    }
+
+    private void poll(ScheduledExecutorService scheduler) {
+        Instant now = Instant.now();
+        Instant since = now.minusMillis(lookbackMs);
+        jdbcTemplate.query(SELECT_RECENT, rs -> {
+            long id = rs.getLong("id");
+            Instant createdAt = rs.getObject("created_at", OffsetDateTime.class).toInstant();
+            if (delivered.putIfAbsent(id, createdAt) != null || nodeId.equals(rs.getString("node_id"))) {
+                return;
+            }
+            Set<String> keys = new LinkedHashSet<>(Arrays.asList(rs.getString("invalidated_keys").split("\n")));
+            try {
+                scheduler.execute(() -> deliver(keys));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }, utc(since));
+        delivered.values().removeIf(createdAt -> createdAt.isBefore(since));
+
+        if (lastPrune.isBefore(now.minusMillis(retentionMs / 2))) {
+            jdbcTemplate.update(PRUNE, utc(now.minusMillis(retentionMs)));
+            lastPrune = now;
+        }
+    }
+
+    private void closeListenConnection() {
+        if (listenConnection != null) {
+            try {
+                listenConnection.close();
+            } catch (SQLException e) {
+                logger.debug("Closing the LISTEN connection failed", e);
+            }
+            listenConnection = null;
+        }
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.tasksapi.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// The bus of a single instance: batches only reach this instance's subscribers
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "local", matchIfMissing = true)
+public class LocalInvalidationBus extends CoalescingInvalidationBus {
+
+    public LocalInvalidationBus(MeterRegistry meterRegistry) {
+        super(meterRegistry);
+    }
+
+    @Override
+    protected void send(Set<String> keys) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.tasksapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.tasksapi.HttpRequest")
+@Label("HTTP Request")
+@Category({"Tasks API", "Web"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+
+    public void setMethod(String method) { this.method = method; }
+    public void setPath(String path) { this.path = path; }
+    public void setStatus(int status) { this.status = status; }
+}
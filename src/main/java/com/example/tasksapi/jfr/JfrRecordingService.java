@@ -0,0 +1,103 @@
+package com.example.tasksapi.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Manages a single on-demand flight recording. Recordings use the JDK's "default"
+// settings, which are designed for production (around 1% overhead), and are bounded
+// in both duration and size so a forgotten recording cannot fill the disk.
+@Service
+public class JfrRecordingService {
+    static final String RECORDING_NAME = "tasksapi-on-demand";
+
+    // A lock rather than synchronized: dumps write to disk while holding it, which would
+    // pin the carrier thread when requests run on virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Recording recording;
+
+    public void start(Duration duration, long maxSizeBytes) throws IOException, ParseException {
+        lock.lock();
+        try {
+            if (isRunning()) {
+                throw new IllegalStateException("A recording is already running");
+            }
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+
+            Recording started = new Recording(Configuration.getConfiguration("default"));
+            try {
+                started.setName(RECORDING_NAME);
+                started.setToDisk(true);
+                started.setDuration(duration);
+                started.setMaxSize(maxSizeBytes);
+                started.enable(HttpRequestEvent.class);
+                started.enable(JwtVerificationEvent.class);
+                started.enable(PasswordHashEvent.class);
+                started.enable(RepositoryCallEvent.class);
+                started.start();
+            } catch (RuntimeException e) {
+                // Otherwise the recording and its repository chunks stay registered with the JVM
+                started.close();
+                throw e;
+            }
+            recording = started;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns false when there was no running recording to stop
+    public boolean stop() {
+        lock.lock();
+        try {
+            if (!isRunning()) {
+                return false;
+            }
+            recording.stop();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes what has been recorded so far to a temporary file; empty if nothing was ever started
+    public Optional<Path> dump() throws IOException {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.NEW) {
+                return Optional.empty();
+            }
+            Path file = Files.createTempFile("tasksapi-", ".jfr");
+            recording.dump(file);
+            return Optional.of(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<RecordingState> getState() {
+        lock.lock();
+        try {
+            return Optional.ofNullable(recording).map(Recording::getState);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tasksapi.jfr;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Emits one HttpRequestEvent per request. Events cost next to nothing unless a
+// recording that enables them is running.
+public class JfrRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setMethod(request.getMethod());
+                event.setPath(request.getRequestURI());
+                event.setStatus(response.getStatus());
+                event.commit();
+            }
+        }
+    }
+}
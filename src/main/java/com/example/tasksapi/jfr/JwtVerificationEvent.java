@@ -0,0 +1,18 @@
+package com.example.tasksapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.tasksapi.JwtVerification")
+@Label("JWT Verification")
+@Category({"Tasks API", "Security"})
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+    @Label("Valid")
+    boolean valid;
+
+    public void setValid(boolean valid) { this.valid = valid; }
+}
@@ -0,0 +1,18 @@
+package com.example.tasksapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.tasksapi.PasswordHash")
+@Label("Password Hash")
+@Category({"Tasks API", "Security"})
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    public void setOperation(String operation) { this.operation = operation; }
+}
@@ -0,0 +1,26 @@
+package com.example.tasksapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.tasksapi.RepositoryCall")
+@Label("Repository Call")
+@Category({"Tasks API", "Data"})
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Failed")
+    boolean failed;
+
+    public void setRepository(String repository) { this.repository = repository; }
+    public void setMethod(String method) { this.method = method; }
+    public void setFailed(boolean failed) { this.failed = failed; }
+}
@@ -0,0 +1,125 @@
+package com.example.tasksapi.jfr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Streams the JDK's jdk.VirtualThreadPinned events into the threads.virtual.pinned timer.
+// A virtual thread is pinned when it blocks while it cannot leave its carrier thread, such as
+// inside a synchronized block, so it holds one of the few carriers for the whole wait. Each
+// event is tagged with the library it was pinned in (jdbc, hibernate, bcrypt or other), and
+// the first stack seen at each call site is logged. Only active with virtual threads enabled.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final int MAX_LOGGED_SITES = 100;
+    private static final int MAX_LOGGED_FRAMES = 20;
+
+    // Matched against stack frames from the innermost outwards, so a JDBC call made by
+    // Hibernate counts as jdbc
+    private static final Map<String, String> SOURCES = new LinkedHashMap<>();
+    static {
+        SOURCES.put("org.postgresql.", "jdbc");
+        SOURCES.put("org.h2.", "jdbc");
+        SOURCES.put("com.zaxxer.hikari.", "jdbc");
+        SOURCES.put("org.hibernate.", "hibernate");
+        SOURCES.put("org.springframework.security.crypto.bcrypt.", "bcrypt");
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.virtualThreads.pinnedThresholdMs:20}")
+    private long pinnedThresholdMs;
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream started = new RecordingStream();
+        started.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(pinnedThresholdMs)).withStackTrace();
+        started.onEvent(PINNED_EVENT, this::onPinned);
+        started.startAsync();
+        stream = started;
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream running = stream;
+        stream = null;
+        if (running != null) {
+            running.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .map(VirtualThreadPinningMonitor::describe)
+                .toList();
+        record(frames, event.getDuration());
+    }
+
+    // Returns the source tag the pinning was recorded under
+    String record(List<String> frames, Duration duration) {
+        String source = classify(frames);
+        Timer.builder("threads.virtual.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(duration);
+
+        String site = frames.stream().filter(frame -> !isJdkFrame(frame)).findFirst().orElse("unknown");
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            logger.warn("Virtual thread pinned for {} ms ({}) at {}:\n\tat {}", duration.toMillis(), source, site,
+                    String.join("\n\tat ", frames.subList(0, Math.min(frames.size(), MAX_LOGGED_FRAMES))));
+        }
+        return source;
+    }
+
+    static String classify(List<String> frames) {
+        for (String frame : frames) {
+            for (Map.Entry<String, String> source : SOURCES.entrySet()) {
+                if (frame.startsWith(source.getKey())) {
+                    return source.getValue();
+                }
+            }
+        }
+        return "other";
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static boolean isJdkFrame(String frame) {
+        return frame.startsWith("java.") || frame.startsWith("jdk.") || frame.startsWith("sun.");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.tasksapi.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gradient-style adaptive concurrency limit. The limit follows the ratio between the
+// long-term average latency and the latest sample: while latency stays flat it grows
+// by a small queue allowance, and as soon as requests start queueing (e.g. on a slow
+// database) it shrinks towards what the backend can actually serve.
+public class AdaptiveConcurrencyLimiter {
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Releases a permit taken by tryAcquire and feeds the request latency into the limit
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion) {
+        samples++;
+        if (samples == 1) {
+            longRttNanos = rttNanos;
+        } else {
+            double alpha = 2.0 / (Math.min(samples, LONG_WINDOW) + 1);
+            longRttNanos = longRttNanos * (1 - alpha) + rttNanos * alpha;
+        }
+
+        // Latency has dropped well below the long-term average, e.g. once a slow period is
+        // over. The average still carries the slow period, against which a new increase would
+        // look normal, so pull it down towards the current latency faster than it decays
+        if (longRttNanos / rttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        // Don't grow the limit while the application is not even using half of it
+        if (inFlightAtCompletion < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
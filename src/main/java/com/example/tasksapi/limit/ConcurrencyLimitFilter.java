@@ -0,0 +1,112 @@
+package com.example.tasksapi.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sheds load before any authentication work is done. Auth and task routes have
+// separate adaptive limits so that a slow database cannot starve sign-ins.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    @Value("${app.limits.auth.initial:20}")
+    private int authInitialLimit;
+
+    @Value("${app.limits.auth.min:5}")
+    private int authMinLimit;
+
+    @Value("${app.limits.auth.max:200}")
+    private int authMaxLimit;
+
+    @Value("${app.limits.tasks.initial:50}")
+    private int tasksInitialLimit;
+
+    @Value("${app.limits.tasks.min:10}")
+    private int tasksMinLimit;
+
+    @Value("${app.limits.tasks.max:500}")
+    private int tasksMaxLimit;
+
+    @Value("${app.limits.retryAfterSeconds:1}")
+    private int retryAfterSeconds;
+
+    private AdaptiveConcurrencyLimiter authLimiter;
+    private AdaptiveConcurrencyLimiter tasksLimiter;
+
+    @Override
+    protected void initFilterBean() {
+        authLimiter = new AdaptiveConcurrencyLimiter("auth", authInitialLimit, authMinLimit, authMaxLimit);
+        tasksLimiter = new AdaptiveConcurrencyLimiter("tasks", tasksInitialLimit, tasksMinLimit, tasksMaxLimit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request.getServletPath());
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            reject(request, response, limiter);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(String path) {
+        if (path.startsWith("/api/auth/")) {
+            return authLimiter;
+        }
+        if (path.equals("/tasks") || path.startsWith("/tasks/")) {
+            return tasksLimiter;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, AdaptiveConcurrencyLimiter limiter)
+            throws IOException {
+        logger.warn("Shedding request to {}: {} limit of {} reached", request.getServletPath(),
+                limiter.getName(), limiter.getLimit());
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        body.put("error", "Service Unavailable");
+        body.put("message", "Server is overloaded, please retry later");
+        body.put("path", request.getServletPath());
+
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.writeValue(response.getOutputStream(), body);
+    }
+
+    public AdaptiveConcurrencyLimiter getAuthLimiter() {
+        return authLimiter;
+    }
+
+    public AdaptiveConcurrencyLimiter getTasksLimiter() {
+        return tasksLimiter;
+    }
+}
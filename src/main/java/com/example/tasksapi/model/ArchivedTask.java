@@ -0,0 +1,75 @@
+package com.example.tasksapi.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// A completed task moved out of the task table by TaskArchiver, with the same id and fields.
+// Rows are only inserted by the archiver and read for listings that ask for archived tasks.
+@Entity
+@Table(name = "task_archive", indexes = {
+        @Index(name = "idx_task_archive_owner_id", columnList = "owner_id, id"),
+        @Index(name = "idx_task_archive_owner_title", columnList = "owner_id, title, id")
+})
+public class ArchivedTask {
+    @Id
+    private Long id;
+
+    private String title;
+    private String description;
+    private boolean completed;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "assignee_id")
+    private Long assigneeId;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    @ElementCollection
+    @CollectionTable(name = "task_archive_tag", joinColumns = @JoinColumn(name = "task_id"))
+    @Column(name = "tag", length = Task.MAX_TAG_LENGTH)
+    @BatchSize(size = 100)
+    private Set<String> tags = new LinkedHashSet<>();
+
+    public Long getId() { return id; }
+
+    public String getTitle() { return title; }
+
+    public String getDescription() { return description; }
+
+    public boolean isCompleted() { return completed; }
+
+    public Long getOwnerId() { return ownerId; }
+
+    public Long getAssigneeId() { return assigneeId; }
+
+    public Instant getCompletedAt() { return completedAt; }
+
+    public Instant getArchivedAt() { return archivedAt; }
+
+    public Set<String> getTags() { return tags; }
+
+    // The task as listings return it, marked as archived
+    public Task toTask() {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(title);
+        task.setDescription(description);
+        task.setCompleted(completed);
+        task.setOwnerId(ownerId);
+        task.setAssigneeId(assigneeId);
+        task.setCompletedAt(completedAt);
+        task.getTags().addAll(tags);
+        task.setArchived(true);
+        return task;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.tasksapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// One batch of invalidation keys sent by an instance through the JDBC invalidation bus.
+// Rows are written and polled through JdbcTemplate and pruned after a minute or so; this
+// mapping only defines the table.
+@Entity
+@Table(name = "cache_invalidation",
+        indexes = @Index(name = "idx_cache_invalidation_created_at", columnList = "created_at"))
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The sending instance, which skips its own batches
+    @Column(name = "node_id", length = 36, nullable = false)
+    private String nodeId;
+
+    // Newline-separated keys
+    @Column(name = "invalidated_keys", columnDefinition = "text", nullable = false)
+    private String keys;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public Long getId() { return id; }
+
+    public String getNodeId() { return nodeId; }
+
+    public String getKeys() { return keys; }
+
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -1,18 +1,92 @@
 package com.example.tasksapi.model;
 
+import com.example.tasksapi.invalidation.EntityInvalidationListener;
+import com.example.tasksapi.search.TaskIndexingListener;
+import com.example.tasksapi.webhook.WebhookOutboxListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
 
 @Entity // This class will be mapped to a table in the db
-@Table(name = "task")
+@EntityListeners({TaskIndexingListener.class, WebhookOutboxListener.class, EntityInvalidationListener.class})
+@Table(name = "task", indexes = {
+        // Owner-scoped lookups and listings are range scans over (owner_id, id); the
+        // other owner-prefixed indexes back the completed filter and the whitelisted sorts
+        @Index(name = "idx_task_owner_id", columnList = "owner_id, id"),
+        @Index(name = "idx_task_owner_completed", columnList = "owner_id, completed, id"),
+        @Index(name = "idx_task_owner_title", columnList = "owner_id, title, id"),
+        @Index(name = "idx_task_assignee_id", columnList = "assignee_id"),
+        // Lets the archiver find the longest-completed tasks without scanning the table
+        @Index(name = "idx_task_completed_at", columnList = "completed_at")
+})
 public class Task {
+    public static final int MAX_TAG_LENGTH = 50;
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Primary key drawn from a pooled sequence; unlike IDENTITY this lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id; // primary key, which auto increments
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
 
     private String title;
     private String description;
     private boolean completed;
 
+    // When the task was completed; cleared when it is reopened
+    @JsonIgnore
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    // Also bumped by tag-only changes, which is what makes those reach the entity listeners
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    // The raw foreign keys are mapped as plain columns so that scoping a query or
+    // assigning a task never has to load the referenced users
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "assignee_id")
+    private Long assigneeId;
+
+    // Batch fetched so that serializing a listing loads tags in a few IN queries, not one per task
+    @ElementCollection
+    @CollectionTable(name = "task_tag", joinColumns = @JoinColumn(name = "task_id"),
+            indexes = @Index(name = "idx_task_tag_tag", columnList = "tag"))
+    @Column(name = "tag", length = MAX_TAG_LENGTH)
+    @BatchSize(size = 100)
+    private Set<String> tags = new LinkedHashSet<>();
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", insertable = false, updatable = false)
+    private User owner;
+
+    // Set on tasks read back from task_archive; omitted from responses otherwise
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean archived;
+
+    // Whether the task was completed as last loaded or saved, so that an update completing it can be told apart
+    @Transient
+    @JsonIgnore
+    private boolean storedCompleted;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "assignee_id", insertable = false, updatable = false)
+    private User assignee;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -33,4 +107,58 @@ public class Task {
 
     public boolean isCompleted() { return completed; }
     public void setCompleted(boolean completed) { this.completed = completed; }
-}
\ No newline at end of file
+
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    // The owner is always taken from the authenticated principal, never from the request body
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public Long getAssigneeId() { return assigneeId; }
+    public void setAssigneeId(Long assigneeId) { this.assigneeId = assigneeId; }
+
+    public Set<String> getTags() { return tags; }
+    public void setTags(Set<String> tags) {
+        this.tags.clear();
+        if (tags != null) {
+            tags.stream()
+                    .map(Task::normalizeTag)
+                    .filter(tag -> !tag.isEmpty())
+                    .forEach(this.tags::add);
+        }
+    }
+
+    public boolean hasOversizedTag() {
+        return tags.stream().anyMatch(tag -> tag.length() > MAX_TAG_LENGTH);
+    }
+
+    // Tags are matched case-insensitively, so they are stored trimmed and lower-cased
+    public static String normalizeTag(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public User getOwner() { return owner; }
+
+    public User getAssignee() { return assignee; }
+
+    @PrePersist
+    @PreUpdate
+    void stampCompletion() {
+        if (!completed) {
+            completedAt = null;
+        } else if (completedAt == null) {
+            completedAt = Instant.now();
+        }
+    }
+
+    public boolean wasStoredCompleted() { return storedCompleted; }
+    public void markStored() { this.storedCompleted = completed; }
+}
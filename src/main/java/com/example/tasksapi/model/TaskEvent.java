@@ -0,0 +1,59 @@
+package com.example.tasksapi.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// One entry of a task's change history. Rows are only ever appended, in batches, by
+// TaskHistoryWriter; changes maps each changed field to its previous and new value.
+@Entity
+@Table(name = "task_event", indexes = @Index(name = "idx_task_event_task_id", columnList = "task_id, id"))
+public class TaskEvent {
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    // Kept on every event so that history stays owner-scoped after the task is deleted
+    @JsonIgnore
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    // The user who made the change
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Type type;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    // JSON object, e.g. {"title":{"from":"Draft","to":"Final"}}
+    @JsonRawValue
+    @Column(columnDefinition = "text")
+    private String changes;
+
+    public Long getId() { return id; }
+
+    public Long getTaskId() { return taskId; }
+
+    public Long getOwnerId() { return ownerId; }
+
+    public Long getActorId() { return actorId; }
+
+    public Type getType() { return type; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+
+    public String getChanges() { return changes; }
+}
@@ -0,0 +1,45 @@
+package com.example.tasksapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// The full state of a task after one of its events, written every so many events so that
+// rebuilding a past state only has to replay the events after the closest snapshot
+@Entity
+@Table(name = "task_history_snapshot",
+        indexes = @Index(name = "idx_task_history_snapshot_task_id", columnList = "task_id, event_id"))
+public class TaskHistorySnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    // The last event the snapshot includes
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    // JSON object of the task's fields, as recorded in TaskEvent changes
+    @Column(columnDefinition = "text")
+    private String state;
+
+    public Long getId() { return id; }
+
+    public Long getTaskId() { return taskId; }
+
+    public Long getOwnerId() { return ownerId; }
+
+    public Long getEventId() { return eventId; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+
+    public String getState() { return state; }
+}
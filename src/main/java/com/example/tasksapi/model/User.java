@@ -1,11 +1,13 @@
 package com.example.tasksapi.model;
 
+import com.example.tasksapi.invalidation.EntityInvalidationListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@EntityListeners(EntityInvalidationListener.class)
 @Table(name = "users")
 public class User {
     @Id
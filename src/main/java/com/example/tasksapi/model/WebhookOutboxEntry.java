@@ -0,0 +1,62 @@
+package com.example.tasksapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// A task event waiting to be delivered to one subscription. Rows are inserted in the
+// transaction of the task write and deleted once delivered; both happen through JDBC, this
+// mapping only defines the table. A row is due once next_attempt_at has passed, which also
+// serves as the lease of a delivery in flight.
+@Entity
+@Table(name = "webhook_outbox",
+        indexes = @Index(name = "idx_webhook_outbox_due", columnList = "next_attempt_at, id"))
+public class WebhookOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "subscription_id", nullable = false)
+    private Long subscriptionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private WebhookSubscription.Event event;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    // The task as returned by the API, at the time of the write
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public Long getId() { return id; }
+
+    public Long getSubscriptionId() { return subscriptionId; }
+
+    public WebhookSubscription.Event getEvent() { return event; }
+
+    public Long getTaskId() { return taskId; }
+
+    public String getPayload() { return payload; }
+
+    public Instant getCreatedAt() { return createdAt; }
+
+    public int getAttempts() { return attempts; }
+
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+}
@@ -0,0 +1,63 @@
+package com.example.tasksapi.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// An owner's request to have the given task events POSTed to a URL. Events are queued in
+// webhook_outbox in the same transaction as the task write and delivered by WebhookDispatcher.
+@Entity
+@Table(name = "webhook_subscription",
+        indexes = @Index(name = "idx_webhook_subscription_owner_id", columnList = "owner_id"))
+public class WebhookSubscription {
+    public static final int MAX_URL_LENGTH = 2048;
+
+    public enum Event {
+        TASK_CREATED, TASK_UPDATED, TASK_COMPLETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false, length = MAX_URL_LENGTH)
+    private String url;
+
+    // Optional key for the X-Webhook-Signature header; it is never sent back
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String secret;
+
+    // Subscriptions are few and always needed whole, so the events come along eagerly
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "webhook_subscription_event", joinColumns = @JoinColumn(name = "subscription_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event", length = 32)
+    private Set<Event> events = EnumSet.noneOf(Event.class);
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getSecret() { return secret; }
+    public void setSecret(String secret) { this.secret = secret; }
+
+    public Set<Event> getEvents() { return events; }
+    public void setEvents(Set<Event> events) {
+        this.events.clear();
+        if (events != null) {
+            this.events.addAll(events);
+        }
+    }
+}
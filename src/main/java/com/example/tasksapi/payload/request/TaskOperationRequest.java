@@ -0,0 +1,44 @@
+package com.example.tasksapi.payload.request;
+
+import com.example.tasksapi.model.Task;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class TaskOperationRequest {
+    public enum Type {
+        @JsonProperty("create") CREATE,
+        @JsonProperty("update") UPDATE,
+        @JsonProperty("delete") DELETE
+    }
+
+    private Type op;
+
+    // Target of update and delete operations
+    private Long id;
+
+    // Payload of create and update operations
+    private Task task;
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public void setTask(Task task) {
+        this.task = task;
+    }
+}
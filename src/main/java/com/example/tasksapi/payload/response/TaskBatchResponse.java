@@ -0,0 +1,31 @@
+package com.example.tasksapi.payload.response;
+
+import com.example.tasksapi.model.Task;
+
+import java.util.List;
+
+public class TaskBatchResponse {
+    private List<Task> tasks;
+    private List<Long> missing;
+
+    public TaskBatchResponse(List<Task> tasks, List<Long> missing) {
+        this.tasks = tasks;
+        this.missing = missing;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
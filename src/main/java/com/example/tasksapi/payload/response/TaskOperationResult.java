@@ -0,0 +1,48 @@
+package com.example.tasksapi.payload.response;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.payload.request.TaskOperationRequest;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskOperationResult {
+    private int index;
+    private TaskOperationRequest.Type op;
+    private int status;
+    private Long id;
+    private Task task;
+    private String error;
+
+    public TaskOperationResult(int index, TaskOperationRequest.Type op, int status, Long id, Task task, String error) {
+        this.index = index;
+        this.op = op;
+        this.status = status;
+        this.id = id;
+        this.task = task;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public TaskOperationRequest.Type getOp() {
+        return op;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
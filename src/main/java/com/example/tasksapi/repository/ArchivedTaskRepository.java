@@ -0,0 +1,8 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.ArchivedTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// Read side of task_archive; rows are moved there by TaskArchiver
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long>, ArchivedTaskRepositoryCustom {
+}
@@ -0,0 +1,9 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.ArchivedTask;
+
+import java.util.List;
+
+public interface ArchivedTaskRepositoryCustom {
+    List<ArchivedTask> findByOwner(Long ownerId, TaskFilter filter);
+}
@@ -0,0 +1,25 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.ArchivedTask;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// Owner-scoped listings of archived tasks, filtered and sorted like those of live tasks
+public class ArchivedTaskRepositoryImpl implements ArchivedTaskRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final boolean postgres;
+
+    public ArchivedTaskRepositoryImpl(DataSource dataSource) {
+        this.postgres = TaskRepositoryImpl.isPostgres(dataSource);
+    }
+
+    @Override
+    public List<ArchivedTask> findByOwner(Long ownerId, TaskFilter filter) {
+        return TaskRepositoryImpl.findByOwner(entityManager, postgres, ArchivedTask.class, ownerId, filter);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.tasksapi.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// On Postgres, title listings sort with the "C" collation and null titles first (see
+// TaskRepositoryImpl), which the JPA-managed (owner_id, title, id) indexes cannot serve.
+// Hibernate cannot declare a collated index column, so these are created once it has built
+// the schema, which depending on the EntityManagerFactory waits for.
+@Component
+public class CollatedTitleIndexes {
+    static final List<String> POSTGRES_INDEXES = List.of(
+            "create index if not exists idx_task_owner_title_c on task "
+                    + "(owner_id, title collate \"C\" nulls first, id)",
+            "create index if not exists idx_task_archive_owner_title_c on task_archive "
+                    + "(owner_id, title collate \"C\" nulls first, id)");
+
+    public CollatedTitleIndexes(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        if (TaskRepositoryImpl.isPostgres(dataSource)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            POSTGRES_INDEXES.forEach(jdbcTemplate::execute);
+        }
+    }
+}
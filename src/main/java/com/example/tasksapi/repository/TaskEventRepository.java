@@ -0,0 +1,21 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.TaskEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+// Read side of the task history; events are written by TaskHistoryWriter. Both queries are
+// range scans over the (task_id, id) index.
+public interface TaskEventRepository extends JpaRepository<TaskEvent, Long> {
+
+    // Keyset pages of a task's history, oldest first
+    List<TaskEvent> findByTaskIdAndOwnerIdAndIdGreaterThanOrderById(Long taskId, Long ownerId, Long afterId,
+                                                                    Pageable pageable);
+
+    // The events to replay on top of a snapshot to rebuild the state at a point in time
+    List<TaskEvent> findByTaskIdAndOwnerIdAndIdGreaterThanAndOccurredAtLessThanEqualOrderById(Long taskId, Long ownerId,
+                                                                                              Long afterId, Instant at);
+}
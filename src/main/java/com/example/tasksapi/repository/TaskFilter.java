@@ -0,0 +1,62 @@
+package com.example.tasksapi.repository;
+
+import java.util.Collection;
+
+// Filtering and ordering options for an owner's task listing
+public class TaskFilter {
+    private Collection<Long> ids;
+    private Boolean completed;
+    private String text;
+    private TaskSort sort = TaskSort.ID;
+    private boolean descending;
+
+    public TaskFilter() {}
+
+    public TaskFilter(Boolean completed, String text, TaskSort sort, boolean descending) {
+        this.completed = completed;
+        this.text = text;
+        this.sort = sort;
+        this.descending = descending;
+    }
+
+    public Collection<Long> getIds() {
+        return ids;
+    }
+
+    // Restricts the listing to these task ids, e.g. the result of an in-memory index lookup
+    public void setIds(Collection<Long> ids) {
+        this.ids = ids;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public TaskSort getSort() {
+        return sort;
+    }
+
+    public void setSort(TaskSort sort) {
+        this.sort = sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+}
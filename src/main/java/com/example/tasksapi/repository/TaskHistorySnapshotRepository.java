@@ -0,0 +1,14 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.TaskHistorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface TaskHistorySnapshotRepository extends JpaRepository<TaskHistorySnapshot, Long> {
+
+    // The latest snapshot taken at or before the given instant
+    Optional<TaskHistorySnapshot> findFirstByTaskIdAndOwnerIdAndOccurredAtLessThanEqualOrderByEventIdDesc(
+            Long taskId, Long ownerId, Instant at);
+}
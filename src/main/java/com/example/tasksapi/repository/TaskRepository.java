@@ -3,9 +3,21 @@
 package com.example.tasksapi.repository;
 
 import com.example.tasksapi.model.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+import java.util.Optional;
+
 // Each Task has a primary key of type Long
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+
+    // Owner-scoped lookup, served by the (owner_id, id) index. Tags are joined in, since
+    // every caller serializes or replaces them and would otherwise need a second query.
+    @EntityGraph(attributePaths = "tags")
+    Optional<Task> findByIdAndOwnerId(Long id, Long ownerId);
 
-}
\ No newline at end of file
+    // Keyset batches over the whole table, used to (re)build in-process indexes
+    List<Task> findByIdGreaterThan(Long id, Pageable pageable);
+}
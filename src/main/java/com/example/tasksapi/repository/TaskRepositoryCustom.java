@@ -0,0 +1,9 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.Task;
+
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+    List<Task> findByOwner(Long ownerId, TaskFilter filter);
+}
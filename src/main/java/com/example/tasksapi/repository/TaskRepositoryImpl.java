@@ -0,0 +1,101 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Builds owner-scoped listing queries with the Criteria API so that filtering and
+// sorting happen in SQL instead of in the client
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final boolean postgres;
+
+    public TaskRepositoryImpl(DataSource dataSource) {
+        this.postgres = isPostgres(dataSource);
+    }
+
+    @Override
+    public List<Task> findByOwner(Long ownerId, TaskFilter filter) {
+        return findByOwner(entityManager, postgres, Task.class, ownerId, filter);
+    }
+
+    // Also lists ArchivedTask, which maps the same attributes
+    static <T> List<T> findByOwner(EntityManager entityManager, boolean postgres, Class<T> entityClass, Long ownerId,
+                                   TaskFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> task = query.from(entityClass);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(task.get("ownerId"), ownerId));
+        if (filter.getIds() != null) {
+            predicates.add(task.get("id").in(filter.getIds()));
+        }
+        if (filter.getCompleted() != null) {
+            predicates.add(cb.equal(task.get("completed"), filter.getCompleted()));
+        }
+        if (StringUtils.hasText(filter.getText())) {
+            String pattern = "%" + escapeLike(filter.getText().trim().toLowerCase(Locale.ROOT)) + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(task.get("title")), pattern, '\\'),
+                    cb.like(cb.lower(task.get("description")), pattern, '\\')));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        if (filter.getSort() == TaskSort.TITLE) {
+            orders.add(titleOrder(entityManager, postgres, task.get("title"), filter.isDescending()));
+        } else {
+            orders.add(order(cb, task.get(filter.getSort().getAttribute()), filter.isDescending()));
+        }
+        if (filter.getSort() != TaskSort.ID) {
+            // Tie-break on the primary key so results are stable
+            orders.add(order(cb, task.get("id"), filter.isDescending()));
+        }
+
+        query.select(task)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(orders);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static Order order(CriteriaBuilder cb, Path<?> path, boolean descending) {
+        return descending ? cb.desc(path) : cb.asc(path);
+    }
+
+    // Titles in TaskSort.TITLE_ORDER with null titles first when ascending, so that listings
+    // merged with others in memory (archived tasks, shards) keep the order the database returned.
+    // On Postgres, CollatedTitleIndexes serves this order.
+    private static Order titleOrder(EntityManager entityManager, boolean postgres, Path<String> title,
+                                    boolean descending) {
+        HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        Expression<String> ordered = postgres ? hcb.collate(title, "\"C\"") : title;
+        return descending ? hcb.desc(ordered, false) : hcb.asc(ordered, true);
+    }
+
+    // Asks the database itself, since the configured Hibernate dialect may not match it (the
+    // test profile runs H2 under the PostgreSQL dialect)
+    static boolean isPostgres(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect to the task database", e);
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
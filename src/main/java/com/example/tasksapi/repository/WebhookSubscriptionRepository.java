@@ -0,0 +1,15 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.WebhookSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, Long> {
+    List<WebhookSubscription> findByOwnerIdOrderById(Long ownerId);
+
+    Optional<WebhookSubscription> findByIdAndOwnerId(Long id, Long ownerId);
+
+    long countByOwnerId(Long ownerId);
+}
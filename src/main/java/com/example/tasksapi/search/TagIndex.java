@@ -0,0 +1,116 @@
+package com.example.tasksapi.search;
+
+import com.example.tasksapi.model.Task;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Per-owner, per-tag bitmaps of task ids. Tag filters become bitmap intersections
+// (all) or unions (any) instead of joins against task_tag.
+@Component
+public class TagIndex implements TaskIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Map<String, Roaring64Bitmap>> ownerTagDocs = new HashMap<>();
+    private final Map<Long, IndexedDoc> docs = new HashMap<>();
+
+    private record IndexedDoc(Long ownerId, Set<String> tags) {}
+
+    public enum Mode {
+        ALL, ANY;
+
+        // Whether a task with these tags matches, for tasks that aren't in the index such as archived ones
+        public boolean matches(Collection<String> taskTags, Collection<String> tags) {
+            if (tags.isEmpty()) {
+                return false;
+            }
+            return this == ALL ? taskTags.containsAll(tags) : tags.stream().anyMatch(taskTags::contains);
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ownerTagDocs.clear();
+            docs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Task task) {
+        long docId = task.getId();
+        IndexedDoc doc = new IndexedDoc(task.getOwnerId(), Set.copyOf(task.getTags()));
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(docId);
+            if (doc.ownerId() == null || doc.tags().isEmpty()) {
+                return;
+            }
+            docs.put(docId, doc);
+            Map<String, Roaring64Bitmap> tagDocs = ownerTagDocs.computeIfAbsent(doc.ownerId(), o -> new HashMap<>());
+            doc.tags().forEach(tag -> tagDocs.computeIfAbsent(tag, t -> new Roaring64Bitmap()).addLong(docId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long taskId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns a private copy, so callers may keep or modify it without holding the lock
+    public Roaring64Bitmap match(Long ownerId, Collection<String> tags, Mode mode) {
+        lock.readLock().lock();
+        try {
+            Map<String, Roaring64Bitmap> tagDocs = ownerTagDocs.getOrDefault(ownerId, Map.of());
+            Roaring64Bitmap result = null;
+            for (String tag : tags) {
+                Roaring64Bitmap docIds = tagDocs.getOrDefault(tag, new Roaring64Bitmap());
+                if (result == null) {
+                    result = docIds.clone();
+                } else if (mode == Mode.ALL) {
+                    result.and(docIds);
+                } else {
+                    result.or(docIds);
+                }
+                if (mode == Mode.ALL && result.isEmpty()) {
+                    break;
+                }
+            }
+            return result == null ? new Roaring64Bitmap() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDoc(long docId) {
+        IndexedDoc doc = docs.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        Map<String, Roaring64Bitmap> tagDocs = ownerTagDocs.get(doc.ownerId());
+        for (String tag : doc.tags()) {
+            Roaring64Bitmap bitmap = tagDocs.get(tag);
+            bitmap.removeLong(docId);
+            if (bitmap.isEmpty()) {
+                tagDocs.remove(tag);
+            }
+        }
+        if (tagDocs.isEmpty()) {
+            ownerTagDocs.remove(doc.ownerId());
+        }
+    }
+}
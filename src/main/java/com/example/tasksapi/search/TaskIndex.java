@@ -0,0 +1,12 @@
+package com.example.tasksapi.search;
+
+import com.example.tasksapi.model.Task;
+
+// An in-process secondary index over tasks, kept in sync by TaskIndexMaintainer
+public interface TaskIndex {
+    void clear();
+
+    void index(Task task);
+
+    void remove(Long taskId);
+}
@@ -0,0 +1,112 @@
+package com.example.tasksapi.search;
+
+import com.example.tasksapi.invalidation.InvalidationBus;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Builds every TaskIndex from the database before the application takes traffic and
+// then applies task writes to them once the writing transaction has committed. Tasks
+// written by other instances arrive through the invalidation bus and are re-read.
+@Component
+public class TaskIndexMaintainer implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(TaskIndexMaintainer.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final List<TaskIndex> indexes;
+    private final TaskRepository repo;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public TaskIndexMaintainer(List<TaskIndex> indexes, TaskRepository repo,
+                               PlatformTransactionManager transactionManager, InvalidationBus invalidationBus) {
+        this.indexes = indexes;
+        this.repo = repo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // This instance's own writes are already applied by taskSaved and taskRemoved
+        invalidationBus.subscribe(InvalidationBus.TASK, batch -> {
+            if (!batch.local()) {
+                refresh(batch.ids(InvalidationBus.TASK));
+            }
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        indexes.forEach(TaskIndex::clear);
+
+        // Keyset pagination keeps each batch an index range scan however large the table is
+        long lastId = 0;
+        long count = 0;
+        List<Task> batch;
+        do {
+            final long after = lastId;
+            batch = readOnlyTransaction.execute(status -> {
+                List<Task> tasks = repo.findByIdGreaterThan(after, PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+                tasks.forEach(this::applySaved);
+                return tasks;
+            });
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+                count += batch.size();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        logger.info("Indexed {} tasks in {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    // Re-reads the given tasks into the indexes; those that no longer exist are removed
+    public void refresh(Collection<Long> taskIds) {
+        Set<Long> missing = new HashSet<>(taskIds);
+        readOnlyTransaction.executeWithoutResult(status -> repo.findAllById(taskIds).forEach(task -> {
+            missing.remove(task.getId());
+            applySaved(task);
+        }));
+        missing.forEach(taskId -> indexes.forEach(index -> index.remove(taskId)));
+    }
+
+    public void taskSaved(Task task) {
+        afterCommit(() -> applySaved(task));
+    }
+
+    public void taskRemoved(Long taskId) {
+        afterCommit(() -> indexes.forEach(index -> index.remove(taskId)));
+    }
+
+    private void applySaved(Task task) {
+        indexes.forEach(index -> index.index(task));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
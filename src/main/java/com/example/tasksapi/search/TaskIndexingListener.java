@@ -0,0 +1,29 @@
+package com.example.tasksapi.search;
+
+import com.example.tasksapi.model.Task;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// JPA entity listener that forwards every task write to the in-process indexes.
+// Hibernate creates it through Spring, so the maintainer is resolved lazily and is
+// simply absent in slices such as @DataJpaTest.
+public class TaskIndexingListener {
+    private final ObjectProvider<TaskIndexMaintainer> maintainer;
+
+    public TaskIndexingListener(ObjectProvider<TaskIndexMaintainer> maintainer) {
+        this.maintainer = maintainer;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Task task) {
+        maintainer.ifAvailable(m -> m.taskSaved(task));
+    }
+
+    @PostRemove
+    public void afterRemove(Task task) {
+        maintainer.ifAvailable(m -> m.taskRemoved(task.getId()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.tasksapi.search;
+
+import com.example.tasksapi.model.Task;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Inverted index over task titles and descriptions. Posting lists are compressed
+// bitmaps of task ids, so restricting a term to one owner's tasks is a bitmap AND.
+@Component
+public class TaskSearchIndex implements TaskIndex {
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sorted so that title prefixes can be resolved with a range lookup
+    private final NavigableMap<String, Roaring64Bitmap> titlePostings = new TreeMap<>();
+    private final Map<String, Roaring64Bitmap> descriptionPostings = new HashMap<>();
+    private final Map<Long, Roaring64Bitmap> ownerDocs = new HashMap<>();
+    private final Map<Long, IndexedDoc> docs = new HashMap<>();
+
+    private record IndexedDoc(Long ownerId, Set<String> titleTerms, Set<String> descriptionTerms) {}
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            titlePostings.clear();
+            descriptionPostings.clear();
+            ownerDocs.clear();
+            docs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Task task) {
+        long docId = task.getId();
+        IndexedDoc doc = new IndexedDoc(task.getOwnerId(),
+                Tokenizer.distinctTerms(task.getTitle()),
+                Tokenizer.distinctTerms(task.getDescription()));
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(docId);
+            docs.put(docId, doc);
+            doc.titleTerms().forEach(term -> titlePostings.computeIfAbsent(term, t -> new Roaring64Bitmap()).addLong(docId));
+            doc.descriptionTerms().forEach(term -> descriptionPostings.computeIfAbsent(term, t -> new Roaring64Bitmap()).addLong(docId));
+            if (doc.ownerId() != null) {
+                ownerDocs.computeIfAbsent(doc.ownerId(), o -> new Roaring64Bitmap()).addLong(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long taskId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ranks the owner's tasks by idf-weighted term matches, counting title hits double
+    public List<Long> search(Long ownerId, String query, int limit) {
+        Set<String> terms = Tokenizer.distinctTerms(query);
+
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap owned = ownerDocs.get(ownerId);
+            if (owned == null || terms.isEmpty()) {
+                return List.of();
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Roaring64Bitmap inTitle = and(titlePostings.get(term), owned);
+                Roaring64Bitmap inDescription = and(descriptionPostings.get(term), owned);
+                double idf = idf(Roaring64Bitmap.or(inTitle, inDescription).getLongCardinality(), owned.getLongCardinality());
+                accumulate(scores, inTitle, idf * TITLE_WEIGHT);
+                accumulate(scores, inDescription, idf * DESCRIPTION_WEIGHT);
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of the owner's tasks having a title term that starts with the prefix, lowest id first
+    public List<Long> completeTitle(Long ownerId, String prefix, int limit) {
+        List<String> terms = Tokenizer.tokenize(prefix);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String termPrefix = terms.get(terms.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap owned = ownerDocs.get(ownerId);
+            if (owned == null) {
+                return List.of();
+            }
+
+            Roaring64Bitmap matches = new Roaring64Bitmap();
+            titlePostings.subMap(termPrefix, true, termPrefix + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(matches::or);
+            matches.and(owned);
+
+            List<Long> ids = new ArrayList<>();
+            LongIterator it = matches.getLongIterator();
+            while (it.hasNext() && ids.size() < limit) {
+                ids.add(it.next());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDoc(long docId) {
+        IndexedDoc doc = docs.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        doc.titleTerms().forEach(term -> removePosting(titlePostings, term, docId));
+        doc.descriptionTerms().forEach(term -> removePosting(descriptionPostings, term, docId));
+        if (doc.ownerId() != null) {
+            removePosting(ownerDocs, doc.ownerId(), docId);
+        }
+    }
+
+    private static <K> void removePosting(Map<K, Roaring64Bitmap> postings, K key, long docId) {
+        Roaring64Bitmap bitmap = postings.get(key);
+        if (bitmap != null) {
+            bitmap.removeLong(docId);
+            if (bitmap.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Roaring64Bitmap and(Roaring64Bitmap postings, Roaring64Bitmap owned) {
+        return postings == null ? new Roaring64Bitmap() : Roaring64Bitmap.and(postings, owned);
+    }
+
+    private static double idf(long documentFrequency, long documentCount) {
+        return Math.log(1.0 + (double) documentCount / Math.max(1L, documentFrequency));
+    }
+
+    private static void accumulate(Map<Long, Double> scores, Roaring64Bitmap docIds, double weight) {
+        LongIterator it = docIds.getLongIterator();
+        while (it.hasNext()) {
+            scores.merge(it.next(), weight, Double::sum);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.tasksapi.security;
 
+import com.example.tasksapi.jfr.JwtVerificationEvent;
+import com.example.tasksapi.timing.RequestTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
@@ -23,17 +28,43 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+    private Timer jwtVerificationTimer;
+
+    @Override
+    protected void initFilterBean() {
+        jwtVerificationTimer = Timer.builder("auth.jwt.verification")
+                .description("Time spent verifying and parsing bearer tokens")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
+            String username = null;
+            if (jwt != null) {
+                JwtVerificationEvent event = new JwtVerificationEvent();
+                event.begin();
+                long verificationStart = System.nanoTime();
+                username = jwtUtils.validateJwtToken(jwt) ? jwtUtils.getUserNameFromJwtToken(jwt) : null;
+                long verificationNanos = System.nanoTime() - verificationStart;
+                jwtVerificationTimer.record(verificationNanos, TimeUnit.NANOSECONDS);
+                RequestTimings.record(RequestTimings.Phase.JWT, verificationNanos);
+                event.setValid(username != null);
+                event.commit();
+            }
+            if (username != null) {
+                long lookupStart = System.nanoTime();
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                RequestTimings.record(RequestTimings.Phase.USER_LOOKUP, System.nanoTime() - lookupStart);
+
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
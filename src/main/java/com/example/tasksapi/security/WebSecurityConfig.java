@@ -1,6 +1,12 @@
 package com.example.tasksapi.security;
 
+import com.example.tasksapi.deadline.DeadlineFilter;
+import com.example.tasksapi.jfr.JfrRequestFilter;
+import com.example.tasksapi.limit.ConcurrencyLimitFilter;
+import com.example.tasksapi.timing.ServerTimingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +24,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebSecurityConfig {
     @Autowired
     UserDetailsServiceImpl userDetailsService;
@@ -25,11 +32,34 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
     }
 
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter() {
+        return new ConcurrencyLimitFilter();
+    }
+
+    @Bean
+    public DeadlineFilter deadlineFilter() {
+        return new DeadlineFilter();
+    }
+
+    @Bean
+    public ServerTimingFilter serverTimingFilter() {
+        return new ServerTimingFilter();
+    }
+
+    @Bean
+    public JfrRequestFilter jfrRequestFilter() {
+        return new JfrRequestFilter();
+    }
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -47,7 +77,7 @@ public class WebSecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
@@ -58,12 +88,23 @@ public class WebSecurityConfig {
             .authorizeHttpRequests(auth -> 
                 auth.requestMatchers("/api/auth/**").permitAll()
                     .requestMatchers("/api/test/**").permitAll()
+                    .requestMatchers("/actuator/health").permitAll()
+                    // Metrics reveal per-endpoint and auth timings, so scrapers need an admin token
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
                     .anyRequest().authenticated()
             );
         
         http.authenticationProvider(authenticationProvider());
 
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Shed excess load before spending anything on JWT verification or user lookups
+        http.addFilterBefore(concurrencyLimitFilter(), AuthTokenFilter.class);
+        // Started after authentication so that a spent budget surfaces as 504 from the
+        // controllers rather than as a failed user lookup
+        http.addFilterAfter(deadlineFilter(), AuthTokenFilter.class);
+        // Outermost, so the total covers everything the application does for the request
+        http.addFilterBefore(serverTimingFilter(), ConcurrencyLimitFilter.class);
+        http.addFilterBefore(jfrRequestFilter(), ServerTimingFilter.class);
         
         return http.build();
     }
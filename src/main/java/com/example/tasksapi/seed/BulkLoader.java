@@ -0,0 +1,62 @@
+package com.example.tasksapi.seed;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Loads CSV files straight into tables, bypassing JPA: COPY on PostgreSQL, CSVREAD on H2.
+// Either way the rows go in as one statement per file instead of one insert per row.
+public class BulkLoader {
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public BulkLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        this.postgres = "PostgreSQL".equalsIgnoreCase(product);
+        if (!postgres && !"H2".equalsIgnoreCase(product)) {
+            throw new IllegalStateException("Bulk loading is only supported on PostgreSQL and H2, not " + product);
+        }
+    }
+
+    // The file must start with a header row naming the columns
+    public long load(String table, String[] columns, Path csv) {
+        String columnList = String.join(", ", columns);
+        if (postgres) {
+            return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                    return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                            "COPY " + table + " (" + columnList + ") FROM STDIN WITH (FORMAT csv, HEADER true)", reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        // CSVREAD arguments are read when the statement is prepared, so the path can't be a bind parameter
+        String fileName = csv.toAbsolutePath().toString().replace("'", "''");
+        return jdbcTemplate.update("INSERT INTO " + table + " (" + columnList + ") "
+                + "SELECT * FROM CSVREAD('" + fileName + "', NULL, 'charset=UTF-8')");
+    }
+
+    // Moves the id generators past the loaded rows so that the application's own inserts don't collide
+    public void restartIdentity(String table, long next) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+
+    public void restartSequence(String sequence, long next) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+    }
+
+    public long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.tasksapi.seed;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+// Writes synthetic users and tasks as CSV, the input format of both PostgreSQL COPY and
+// H2 CSVREAD. Rows are streamed so that millions of them never need to be held in
+// memory, and a fixed seed makes every run produce the same dataset.
+public class DataGenerator {
+    static final String[] USER_COLUMNS = {"id", "username", "email", "password", "role"};
+    static final String[] TASK_COLUMNS = {"id", "title", "description", "completed", "owner_id", "assignee_id", "version"};
+    static final String[] TAG_COLUMNS = {"task_id", "tag"};
+
+    private static final String[] VERBS = {"Review", "Write", "Fix", "Plan", "Update", "Prepare", "Call", "Email",
+            "Test", "Deploy", "Clean up", "Book", "Order", "Schedule", "Refactor", "Document"};
+    private static final String[] OBJECTS = {"quarterly report", "release notes", "login page", "team offsite",
+            "budget", "onboarding guide", "database backup", "customer feedback", "invoice", "API docs",
+            "dentist appointment", "groceries", "sprint board", "test plan", "hiring pipeline", "laptop"};
+    private static final String[] DETAILS = {"before the deadline", "with the whole team", "and share the results",
+            "for the next sprint", "as discussed on Monday", "including the edge cases", "and follow up by email"};
+    private static final String[] TAGS = {"work", "home", "urgent", "later", "errand", "finance", "health",
+            "project", "meeting", "reading", "ops", "bug"};
+
+    private final Random random;
+
+    public DataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // Every user shares one password hash: hashing millions of passwords would dominate the run
+    public void writeUsers(Writer out, long firstId, int count, String passwordHash) throws IOException {
+        for (long id = firstId; id < firstId + count; id++) {
+            // Roughly one admin per hundred members
+            String role = random.nextInt(100) == 0 ? "ADMIN" : "MEMBER";
+            writeRow(out, String.valueOf(id), "user" + id, "user" + id + "@example.com", passwordHash, role);
+        }
+    }
+
+    // Tasks are spread over the users firstUserId..lastUserId; about a third is completed,
+    // a quarter assigned to someone and most carry one to three tags
+    public void writeTasks(Writer tasks, Writer tags, long firstId, int count, long firstUserId, long lastUserId)
+            throws IOException {
+        long users = lastUserId - firstUserId + 1;
+        for (long id = firstId; id < firstId + count; id++) {
+            String title = pick(VERBS) + " " + pick(OBJECTS);
+            String description = random.nextInt(4) == 0 ? "" : title + " " + pick(DETAILS);
+            String ownerId = String.valueOf(firstUserId + (long) (random.nextDouble() * users));
+            String assigneeId = random.nextInt(4) == 0 ? String.valueOf(firstUserId + (long) (random.nextDouble() * users)) : "";
+            writeRow(tasks, String.valueOf(id), title, description, String.valueOf(random.nextInt(3) == 0),
+                    ownerId, assigneeId, "0");
+
+            int tagCount = random.nextInt(4);
+            int first = random.nextInt(TAGS.length);
+            for (int t = 0; t < tagCount; t++) {
+                writeRow(tags, String.valueOf(id), TAGS[(first + t) % TAGS.length]);
+            }
+        }
+    }
+
+    public static void writeHeader(Writer out, String[] columns) throws IOException {
+        writeRow(out, columns);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Values never contain quotes, commas or line breaks, so no escaping is needed; empty means NULL
+    private static void writeRow(Writer out, String... values) throws IOException {
+        out.write(String.join(",", values));
+        out.write('\n');
+    }
+}
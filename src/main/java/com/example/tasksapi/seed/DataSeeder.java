@@ -0,0 +1,113 @@
+package com.example.tasksapi.seed;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.search.TaskIndexMaintainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Fills the database with synthetic users and tasks for benchmarking and capacity
+// planning. Enabled with the seed profile, e.g.
+//   ./mvnw spring-boot:run -Dspring-boot.run.profiles=seed -Dspring-boot.run.arguments=--app.seed.tasks=5000000
+// Rows are appended after existing ones, generated into CSV chunks and bulk loaded.
+@Component
+@Profile("seed")
+public class DataSeeder implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final TaskIndexMaintainer indexMaintainer;
+
+    @Value("${app.seed.users:1000}")
+    private int users;
+
+    @Value("${app.seed.tasks:100000}")
+    private long tasks;
+
+    @Value("${app.seed.chunkSize:500000}")
+    private int chunkSize;
+
+    @Value("${app.seed.randomSeed:42}")
+    private long randomSeed;
+
+    @Value("${app.seed.password:password}")
+    private String password;
+
+    public DataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, TaskIndexMaintainer indexMaintainer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.indexMaintainer = indexMaintainer;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long start = System.currentTimeMillis();
+        BulkLoader loader = new BulkLoader(jdbcTemplate);
+        DataGenerator generator = new DataGenerator(randomSeed);
+        Path directory = Files.createTempDirectory("tasksapi-seed");
+        try {
+            long firstUserId = loader.maxId("users") + 1;
+            long lastUserId = firstUserId + users - 1;
+            Path userFile = directory.resolve("users.csv");
+            try (Writer out = Files.newBufferedWriter(userFile, StandardCharsets.UTF_8)) {
+                DataGenerator.writeHeader(out, DataGenerator.USER_COLUMNS);
+                generator.writeUsers(out, firstUserId, users, passwordEncoder.encode(password));
+            }
+            loader.load("users", DataGenerator.USER_COLUMNS, userFile);
+            loader.restartIdentity("users", lastUserId + 1);
+
+            long firstTaskId = loader.maxId("task") + 1;
+            long loaded = 0;
+            while (loaded < tasks) {
+                int count = (int) Math.min(chunkSize, tasks - loaded);
+                loadTaskChunk(loader, generator, directory, firstTaskId + loaded, count, firstUserId, lastUserId);
+                loaded += count;
+                logger.info("Seeded {} of {} tasks", loaded, tasks);
+            }
+            // The pooled optimizer hands out the allocation block that ends at the value it
+            // reads, so the sequence has to start a whole block past the last loaded id
+            loader.restartSequence("task_seq", firstTaskId + tasks + Task.ID_ALLOCATION_SIZE);
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+
+        long seeded = System.currentTimeMillis() - start;
+        logger.info("Seeded {} users and {} tasks in {} ms", users, tasks, seeded);
+        // Search and tag indexes were built at startup, before these rows existed
+        indexMaintainer.rebuild();
+    }
+
+    private void loadTaskChunk(BulkLoader loader, DataGenerator generator, Path directory, long firstId, int count,
+                               long firstUserId, long lastUserId) throws IOException {
+        Path taskFile = directory.resolve("tasks.csv");
+        Path tagFile = directory.resolve("task_tags.csv");
+        try (Writer taskOut = Files.newBufferedWriter(taskFile, StandardCharsets.UTF_8);
+             Writer tagOut = Files.newBufferedWriter(tagFile, StandardCharsets.UTF_8)) {
+            DataGenerator.writeHeader(taskOut, DataGenerator.TASK_COLUMNS);
+            DataGenerator.writeHeader(tagOut, DataGenerator.TAG_COLUMNS);
+            generator.writeTasks(taskOut, tagOut, firstId, count, firstUserId, lastUserId);
+        }
+        loader.load("task", DataGenerator.TASK_COLUMNS, taskFile);
+        loader.load("task_tag", DataGenerator.TAG_COLUMNS, tagFile);
+        Files.delete(taskFile);
+        Files.delete(tagFile);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.tasksapi.service;
+
+import com.example.tasksapi.history.TaskHistory;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.payload.request.TaskOperationRequest;
+import com.example.tasksapi.payload.response.TaskOperationResult;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Applies an ordered list of task operations in a single transaction. The referenced
+// tasks and assignees are loaded with one IN query each, and the resulting writes are
+// flushed at commit as JDBC batches. History events are handed to the writer only if it commits.
+// An operation that is invalid (missing payload, unknown task or assignee, delete without the
+// admin role) is not all-or-nothing: it gets an error result and is skipped, and the other
+// operations still commit together. Only a failing write rolls back the whole batch. Tasks
+// created by the batch can be updated or deleted by its later operations.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TaskBatchService {
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final TaskHistory history;
+
+    public TaskBatchService(TaskRepository taskRepository, UserRepository userRepository, TaskHistory history) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.history = history;
+    }
+
+    @Transactional
+    public List<TaskOperationResult> apply(Long ownerId, boolean admin, List<TaskOperationRequest> operations) {
+        Map<Long, Task> owned = loadOwnedTasks(ownerId, operations);
+        Set<Long> knownAssignees = loadKnownAssignees(operations);
+
+        List<TaskOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(applyOne(i, operations.get(i), ownerId, admin, owned, knownAssignees));
+        }
+        return results;
+    }
+
+    private TaskOperationResult applyOne(int index, TaskOperationRequest operation, Long ownerId, boolean admin,
+                                         Map<Long, Task> owned, Set<Long> knownAssignees) {
+        TaskOperationRequest.Type op = operation.getOp();
+        if (op == null) {
+            return failure(index, null, operation.getId(), HttpStatus.BAD_REQUEST, "Operation type is required");
+        }
+
+        Task payload = operation.getTask();
+        if (op != TaskOperationRequest.Type.DELETE) {
+            if (payload == null) {
+                return failure(index, op, operation.getId(), HttpStatus.BAD_REQUEST, "Task payload is required");
+            }
+            if (payload.getAssigneeId() != null && !knownAssignees.contains(payload.getAssigneeId())) {
+                return failure(index, op, operation.getId(), HttpStatus.BAD_REQUEST, "Assignee does not exist");
+            }
+            if (payload.hasOversizedTag()) {
+                return failure(index, op, operation.getId(), HttpStatus.BAD_REQUEST,
+                        "Tags must be at most " + Task.MAX_TAG_LENGTH + " characters");
+            }
+        }
+
+        if (op == TaskOperationRequest.Type.CREATE) {
+            payload.setId(null);
+            payload.setOwnerId(ownerId);
+            Task created = taskRepository.save(payload);
+            history.recordCreated(created, ownerId);
+            owned.put(created.getId(), created);
+            return new TaskOperationResult(index, op, HttpStatus.OK.value(), created.getId(), created, null);
+        }
+
+        Task task = operation.getId() == null ? null : owned.get(operation.getId());
+        if (task == null) {
+            return failure(index, op, operation.getId(), HttpStatus.NOT_FOUND, "Task not found");
+        }
+
+        if (op == TaskOperationRequest.Type.UPDATE) {
+            Map<String, Object> before = history.stateOf(task);
+            task.setTitle(payload.getTitle());
+            task.setDescription(payload.getDescription());
+            task.setCompleted(payload.isCompleted());
+            task.setAssigneeId(payload.getAssigneeId());
+            task.setTags(payload.getTags());
+            // A no-op for the managed entity under JPA, but not every TaskRepository tracks changes
+            taskRepository.save(task);
+            history.recordUpdated(task, before, ownerId);
+            return new TaskOperationResult(index, op, HttpStatus.OK.value(), task.getId(), task, null);
+        }
+
+        // Deleting is reserved for admins, as on DELETE /tasks/{id}
+        if (!admin) {
+            return failure(index, op, task.getId(), HttpStatus.FORBIDDEN, "Only admins can delete tasks");
+        }
+        taskRepository.delete(task);
+        history.recordDeleted(task, ownerId);
+        owned.remove(task.getId());
+        return new TaskOperationResult(index, op, HttpStatus.OK.value(), task.getId(), null, null);
+    }
+
+    private Map<Long, Task> loadOwnedTasks(Long ownerId, List<TaskOperationRequest> operations) {
+        Set<Long> ids = operations.stream()
+                .filter(operation -> operation.getOp() != TaskOperationRequest.Type.CREATE)
+                .map(TaskOperationRequest::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        TaskFilter filter = new TaskFilter();
+        filter.setIds(ids);
+        return taskRepository.findByOwner(ownerId, filter).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private Set<Long> loadKnownAssignees(List<TaskOperationRequest> operations) {
+        Set<Long> assigneeIds = operations.stream()
+                .map(TaskOperationRequest::getTask)
+                .filter(Objects::nonNull)
+                .map(Task::getAssigneeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (assigneeIds.isEmpty()) {
+            return Set.of();
+        }
+        return userRepository.findAllById(assigneeIds).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static TaskOperationResult failure(int index, TaskOperationRequest.Type op, Long id,
+                                               HttpStatus status, String error) {
+        return new TaskOperationResult(index, op, status.value(), id, null, error);
+    }
+}
@@ -0,0 +1,398 @@
+package com.example.tasksapi.sharding;
+
+import com.example.tasksapi.deadline.RequestDeadline;
+import com.example.tasksapi.invalidation.InvalidationBus;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.TaskSort;
+import com.example.tasksapi.search.TaskIndexMaintainer;
+import com.example.tasksapi.webhook.WebhookOutbox;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.*;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+// TaskRepository over the task shards, taking the place of the JPA repository in the sharded
+// profile. Everything scoped to an owner goes to that owner's shard alone, which covers every
+// request of the API. Lookups by id and listings across owners ask all shards in parallel and
+// merge the sorted results. Ids come from the task_seq of the primary database, so they stay
+// unique across shards.
+//
+// Callers get copies, so changing a task has no effect until it is saved. Writes made inside
+// a Spring transaction are collected and applied when it commits, in one transaction per
+// shard; reads in that transaction don't see them yet. A transaction writing to a single
+// shard, as any one owner's batch does, is atomic; one spanning shards is not.
+@Repository
+@Primary
+@Profile("sharded")
+public class ShardedTaskRepository implements TaskRepository {
+    private final TaskShards shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<TaskIndexMaintainer> indexMaintainer;
+    private final ObjectProvider<WebhookOutbox> webhookOutbox;
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+    private final AtomicReference<IdBlock> idBlock = new AtomicReference<>(IdBlock.EXHAUSTED);
+    private volatile String nextIdSql;
+
+    public ShardedTaskRepository(TaskShards shards, JdbcTemplate jdbcTemplate,
+                                 ObjectProvider<TaskIndexMaintainer> indexMaintainer,
+                                 ObjectProvider<WebhookOutbox> webhookOutbox,
+                                 ObjectProvider<InvalidationBus> invalidationBus) {
+        this.shards = shards;
+        this.jdbcTemplate = jdbcTemplate;
+        this.indexMaintainer = indexMaintainer;
+        this.webhookOutbox = webhookOutbox;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public Optional<Task> findByIdAndOwnerId(Long id, Long ownerId) {
+        RequestDeadline.checkNotExpired();
+        return shards.forOwner(ownerId).findById(id)
+                .filter(task -> Objects.equals(task.getOwnerId(), ownerId));
+    }
+
+    @Override
+    public List<Task> findByIdGreaterThan(Long id, Pageable pageable) {
+        return page(id, pageable);
+    }
+
+    @Override
+    public List<Task> findByOwner(Long ownerId, TaskFilter filter) {
+        RequestDeadline.checkNotExpired();
+        return shards.forOwner(ownerId).findByOwner(ownerId, filter);
+    }
+
+    @Override
+    public <S extends Task> S save(S entity) {
+        write(List.of(prepareSave(entity)));
+        return entity;
+    }
+
+    @Override
+    public <S extends Task> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        List<PendingWrite> writes = new ArrayList<>();
+        for (S entity : entities) {
+            writes.add(prepareSave(entity));
+            saved.add(entity);
+        }
+        write(writes);
+        return saved;
+    }
+
+    @Override
+    public <S extends Task> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends Task> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    // Writes reach the shards on commit, or right away outside a transaction; there is nothing to flush
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        return shards.scatter(shard -> shard.findById(id)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return findAll(Sort.unsorted());
+    }
+
+    @Override
+    public List<Task> findAllById(Iterable<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        ids.forEach(distinct::add);
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        return merge(shards.scatter(shard -> shard.findAllById(distinct)), Sort.unsorted(), 0, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> findAll(Sort sort) {
+        return merge(shards.scatter(shard -> shard.findAll(Long.MIN_VALUE, sort, Long.MAX_VALUE)), sort, 0,
+                Long.MAX_VALUE);
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        return new PageImpl<>(page(Long.MIN_VALUE, pageable), pageable, count());
+    }
+
+    @Override
+    public long count() {
+        return shards.scatter(TaskShard::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        findById(id).ifPresent(this::delete);
+    }
+
+    @Override
+    public void delete(Task entity) {
+        deleteAll(List.of(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).map(Long.class::cast).toList();
+        deleteAll(findAllById(idList));
+    }
+
+    // Tasks are routed by their owner; deleting a task that doesn't exist is silently ignored
+    @Override
+    public void deleteAll(Iterable<? extends Task> entities) {
+        List<PendingWrite> writes = new ArrayList<>();
+        for (Task entity : entities) {
+            Long id = entity.getId();
+            if (id == null) {
+                continue;
+            }
+            writes.add(new PendingWrite(shards.forOwner(entity.getOwnerId()), TaskShard.Write.delete(id), () -> {
+                indexMaintainer.ifAvailable(maintainer -> maintainer.taskRemoved(id));
+                invalidationBus.ifAvailable(bus -> bus.publish(InvalidationBus.key(InvalidationBus.TASK, id)));
+            }));
+        }
+        write(writes);
+    }
+
+    @Override
+    public void deleteAll() {
+        deleteAll(findAll());
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Task> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public Task getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Task getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Task getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Unable to find Task with id " + id));
+    }
+
+    // Query by example needs the JPA metamodel, which the shards aren't mapped with
+
+    @Override
+    public <S extends Task> Optional<S> findOne(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> List<S> findAll(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> long count(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task> boolean exists(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends Task, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleUnsupported();
+    }
+
+    private PendingWrite prepareSave(Task entity) {
+        boolean created = entity.getId() == null;
+        if (created) {
+            entity.setId(nextId());
+        }
+        boolean wasCompleted = !created && entity.wasStoredCompleted();
+        entity.markStored();
+        // The shard checks the copy's version, the one that was read; the caller's task moves on
+        // to the version the write stores, so that saving it again in the same request works
+        Task stored = copy(entity);
+        entity.setVersion(created || entity.getVersion() == null ? 0 : entity.getVersion() + 1);
+        return new PendingWrite(shards.forOwner(stored.getOwnerId()), TaskShard.Write.save(stored, created), () -> {
+            indexMaintainer.ifAvailable(maintainer -> maintainer.taskSaved(stored));
+            webhookOutbox.ifAvailable(outbox -> outbox.taskSaved(stored, created, wasCompleted));
+            invalidationBus.ifAvailable(bus -> bus.publish(InvalidationBus.key(InvalidationBus.TASK, stored.getId())));
+        });
+    }
+
+    // Outside a transaction the writes are applied before anyone is told about them. Inside
+    // one, the webhook outbox rows join it, and the shard writes are applied just before it
+    // commits, so a failing shard rolls the outbox rows back.
+    private void write(List<PendingWrite> writes) {
+        RequestDeadline.checkNotExpired();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            byShard(writes).forEach(TaskShard::apply);
+            writes.forEach(write -> write.notification().run());
+            return;
+        }
+
+        writes.forEach(write -> write.notification().run());
+        @SuppressWarnings("unchecked")
+        List<PendingWrite> pending = (List<PendingWrite>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<PendingWrite> transactionWrites = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, transactionWrites);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    byShard(transactionWrites).forEach(TaskShard::apply);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ShardedTaskRepository.this);
+                }
+            });
+            pending = transactionWrites;
+        }
+        pending.addAll(writes);
+    }
+
+    private static Map<TaskShard, List<TaskShard.Write>> byShard(List<PendingWrite> writes) {
+        Map<TaskShard, List<TaskShard.Write>> byShard = new LinkedHashMap<>();
+        writes.forEach(write -> byShard.computeIfAbsent(write.shard(), shard -> new ArrayList<>()).add(write.write()));
+        return byShard;
+    }
+
+    // Every shard returns the first offset + size tasks of its own, which is enough to cut the
+    // requested page from the merged order
+    private List<Task> page(long afterId, Pageable pageable) {
+        long limit = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : Long.MAX_VALUE;
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        return merge(shards.scatter(shard -> shard.findAll(afterId, pageable.getSort(), limit)), pageable.getSort(),
+                offset, limit);
+    }
+
+    // Each shard's tasks are already sorted, so the stable sort just merges those runs
+    private static List<Task> merge(List<List<Task>> perShard, Sort sort, long offset, long limit) {
+        return perShard.stream()
+                .flatMap(List::stream)
+                .sorted(TaskSort.comparator(sort))
+                .skip(offset)
+                .limit(limit - offset)
+                .toList();
+    }
+
+    // Hands out the ids of one sequence block before fetching the next. A block covers the
+    // allocation size below the sequence value, as with Hibernate's pooled optimizer.
+    private long nextId() {
+        long id = idBlock.get().take();
+        if (id > 0) {
+            return id;
+        }
+        if (nextIdSql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            nextIdSql = product != null && product.contains("PostgreSQL")
+                    ? "select nextval('task_seq')"
+                    : "select next value for task_seq";
+        }
+        long hi = Objects.requireNonNull(jdbcTemplate.queryForObject(nextIdSql, Long.class));
+        IdBlock block = new IdBlock(Math.max(hi - Task.ID_ALLOCATION_SIZE + 1, 1), hi);
+        long first = block.take();
+        idBlock.set(block);
+        return first;
+    }
+
+    private static Task copy(Task task) {
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setTitle(task.getTitle());
+        copy.setDescription(task.getDescription());
+        copy.setCompleted(task.isCompleted());
+        copy.setVersion(task.getVersion());
+        copy.setOwnerId(task.getOwnerId());
+        copy.setAssigneeId(task.getAssigneeId());
+        copy.getTags().addAll(task.getTags());
+        copy.markStored();
+        return copy;
+    }
+
+    private static UnsupportedOperationException queryByExampleUnsupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the sharded task store");
+    }
+
+    // A write, the shard it goes to, and who to tell about it once it is applied or joined a transaction
+    private record PendingWrite(TaskShard shard, TaskShard.Write write, Runnable notification) {}
+
+    private static final class IdBlock {
+        static final IdBlock EXHAUSTED = new IdBlock(1, 0);
+
+        private final AtomicLong next;
+        private final long hi;
+
+        IdBlock(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+
+        // Returns 0 once the block is used up
+        long take() {
+            long id = next.getAndIncrement();
+            return id <= hi ? id : 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.tasksapi.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The shard pools are not DataSource beans, so that spring.datasource stays the primary
+// database for everything but tasks
+@Configuration
+@Profile("sharded")
+public class ShardingConfig {
+    @Value("${app.sharding.urls}")
+    private String[] urls;
+
+    @Value("${app.sharding.username:}")
+    private String username;
+
+    @Value("${app.sharding.password:}")
+    private String password;
+
+    @Value("${app.sharding.poolSize:10}")
+    private int poolSize;
+
+    @Value("${app.sharding.threads:8}")
+    private int threads;
+
+    // ownerId:shard pairs, e.g. 42:1,77:0
+    @Value("${app.sharding.pinnedOwners:}")
+    private String pinnedOwners;
+
+    // Created before the indexes are built from it; closing shuts down the shard pools
+    @Bean(destroyMethod = "close")
+    public TaskShards taskShards() {
+        List<TaskShard> shards = new ArrayList<>(urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("task-shard-" + i);
+            dataSource.setJdbcUrl(urls[i].trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(poolSize);
+            TaskShard shard = new TaskShard(i, dataSource);
+            shard.createSchema();
+            shards.add(shard);
+        }
+        return new TaskShards(shards, parsePinnedOwners(pinnedOwners), threads);
+    }
+
+    static Map<Long, Integer> parsePinnedOwners(String value) {
+        Map<Long, Integer> pinned = new HashMap<>();
+        for (String pair : StringUtils.commaDelimitedListToStringArray(value)) {
+            if (!StringUtils.hasText(pair)) {
+                continue;
+            }
+            String[] parts = pair.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected ownerId:shard in app.sharding.pinnedOwners, got " + pair);
+            }
+            pinned.put(Long.parseLong(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return pinned;
+    }
+}
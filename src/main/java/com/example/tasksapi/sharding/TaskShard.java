@@ -0,0 +1,260 @@
+package com.example.tasksapi.sharding;
+
+import com.example.tasksapi.deadline.DeadlineAwareDataSource;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.repository.TaskSort;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The task and task_tag tables of one shard database, read and written with plain SQL in
+// the layout Hibernate uses for Task. Tags are loaded in batches of the same size as the JPA
+// @BatchSize. Every listing comes back in the order of its TaskSort comparator, so results
+// of several shards can be merged without re-reading them: null titles are placed explicitly
+// and, on Postgres, titles are sorted with the "C" collation, whatever the database locale.
+// Statements are bounded by the request deadline, like those on the primary datasource.
+public class TaskShard implements AutoCloseable {
+    private static final String COLUMNS = "id, title, description, completed, version, owner_id, assignee_id";
+    private static final int TAG_BATCH_SIZE = 100;
+    private static final List<String> SCHEMA = List.of(
+            "create table if not exists task (id bigint not null primary key, title varchar(255), "
+                    + "description varchar(255), completed boolean not null, version bigint, owner_id bigint, "
+                    + "assignee_id bigint)",
+            "create index if not exists idx_task_owner_id on task (owner_id, id)",
+            "create index if not exists idx_task_owner_completed on task (owner_id, completed, id)",
+            "create index if not exists idx_task_owner_title on task (owner_id, title, id)",
+            "create index if not exists idx_task_assignee_id on task (assignee_id)",
+            "create table if not exists task_tag (task_id bigint not null references task (id), tag varchar("
+                    + Task.MAX_TAG_LENGTH + "))",
+            "create index if not exists idx_task_tag_task_id on task_tag (task_id)",
+            "create index if not exists idx_task_tag_tag on task_tag (tag)");
+    // Serves title listings in the collation they are sorted with
+    private static final String POSTGRES_TITLE_INDEX = "create index if not exists idx_task_owner_title_c on task "
+            + "(owner_id, title collate \"C\" nulls first, id)";
+
+    private static final RowMapper<Task> TASK_MAPPER = (rs, rowNum) -> {
+        Task task = new Task();
+        task.setId(rs.getLong("id"));
+        task.setTitle(rs.getString("title"));
+        task.setDescription(rs.getString("description"));
+        task.setCompleted(rs.getBoolean("completed"));
+        task.setVersion(rs.getObject("version", Long.class));
+        task.setOwnerId(rs.getObject("owner_id", Long.class));
+        task.setAssigneeId(rs.getObject("assignee_id", Long.class));
+        return task;
+    };
+
+    private final int index;
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean postgres;
+
+    public TaskShard(int index, DataSource dataSource) {
+        this.index = index;
+        this.dataSource = dataSource;
+        DataSource deadlineAware = new DeadlineAwareDataSource(dataSource);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(deadlineAware);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(deadlineAware));
+        this.postgres = isPostgres(dataSource);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void createSchema() {
+        SCHEMA.forEach(statement -> jdbcTemplate.getJdbcTemplate().execute(statement));
+        if (postgres) {
+            jdbcTemplate.getJdbcTemplate().execute(POSTGRES_TITLE_INDEX);
+        }
+    }
+
+    public Optional<Task> findById(Long id) {
+        return withTags(jdbcTemplate.query("select " + COLUMNS + " from task where id = :id",
+                Map.of("id", id), TASK_MAPPER)).stream().findFirst();
+    }
+
+    public List<Task> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return withTags(jdbcTemplate.query("select " + COLUMNS + " from task where id in (:ids) order by id",
+                Map.of("ids", ids), TASK_MAPPER));
+    }
+
+    // Same filtering and ordering as TaskRepositoryImpl.findByOwner
+    public List<Task> findByOwner(Long ownerId, TaskFilter filter) {
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from task where owner_id = :ownerId");
+        MapSqlParameterSource params = new MapSqlParameterSource("ownerId", ownerId);
+        if (filter.getIds() != null) {
+            if (filter.getIds().isEmpty()) {
+                return List.of();
+            }
+            sql.append(" and id in (:ids)");
+            params.addValue("ids", filter.getIds());
+        }
+        if (filter.getCompleted() != null) {
+            sql.append(" and completed = :completed");
+            params.addValue("completed", filter.getCompleted());
+        }
+        if (StringUtils.hasText(filter.getText())) {
+            sql.append(" and (lower(title) like :pattern escape '\\' or lower(description) like :pattern escape '\\')");
+            params.addValue("pattern", "%" + escapeLike(filter.getText().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        sql.append(" order by ").append(orderBy(filter.getSort(), filter.isDescending()));
+        return withTags(jdbcTemplate.query(sql.toString(), params, TASK_MAPPER));
+    }
+
+    // The first limit tasks with an id above afterId, in the given order
+    public List<Task> findAll(long afterId, Sort sort, long limit) {
+        String order = sort.isUnsorted() ? "id asc" : sort.stream()
+                .map(o -> orderBy(TaskSort.fromSortOrder(o), o.isDescending()))
+                .collect(Collectors.joining(", "));
+        MapSqlParameterSource params = new MapSqlParameterSource("afterId", afterId);
+        String sql = "select " + COLUMNS + " from task where id > :afterId order by " + order;
+        if (limit < Long.MAX_VALUE) {
+            sql += " limit :limit";
+            params.addValue("limit", limit);
+        }
+        return withTags(jdbcTemplate.query(sql, params, TASK_MAPPER));
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.getJdbcTemplate().queryForObject("select count(*) from task", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // Applies the writes in order, in one transaction of this shard
+    public void apply(List<Write> writes) {
+        transactionTemplate.executeWithoutResult(status -> writes.forEach(write -> {
+            if (write.task() == null) {
+                deleteTags(write.id());
+                jdbcTemplate.update("delete from task where id = :id", Map.of("id", write.id()));
+            } else {
+                save(write.task(), write.created());
+            }
+        }));
+    }
+
+    // An update of a task that isn't there inserts it, as merging a detached entity does. An
+    // update of a task that was changed since it was read fails, like a stale JPA @Version.
+    private void save(Task task, boolean created) {
+        long nextVersion = created || task.getVersion() == null ? 0 : task.getVersion() + 1;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", task.getId())
+                .addValue("title", task.getTitle())
+                .addValue("description", task.getDescription())
+                .addValue("completed", task.isCompleted())
+                .addValue("version", task.getVersion())
+                .addValue("nextVersion", nextVersion)
+                .addValue("ownerId", task.getOwnerId())
+                .addValue("assigneeId", task.getAssigneeId());
+        boolean updated = !created && jdbcTemplate.update("update task set title = :title, "
+                + "description = :description, completed = :completed, assignee_id = :assigneeId, "
+                + "version = :nextVersion where id = :id"
+                + (task.getVersion() == null ? "" : " and version = :version"), params) > 0;
+        if (!created && !updated && exists(task.getId())) {
+            throw new OptimisticLockingFailureException(
+                    "Task " + task.getId() + " was modified concurrently on shard " + index);
+        }
+        if (updated) {
+            deleteTags(task.getId());
+        } else {
+            jdbcTemplate.update("insert into task (id, title, description, completed, version, owner_id, assignee_id) "
+                    + "values (:id, :title, :description, :completed, :nextVersion, :ownerId, :assigneeId)", params);
+        }
+        if (!task.getTags().isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into task_tag (task_id, tag) values (:taskId, :tag)",
+                    task.getTags().stream()
+                            .map(tag -> new MapSqlParameterSource("taskId", task.getId()).addValue("tag", tag))
+                            .toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    private boolean exists(Long id) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from task where id = :id", Map.of("id", id), Long.class);
+        return count != null && count > 0;
+    }
+
+    private void deleteTags(Long taskId) {
+        jdbcTemplate.update("delete from task_tag where task_id = :taskId", Map.of("taskId", taskId));
+    }
+
+    // Fills in the tags of each batch of tasks with one IN query, keeping the task order. The
+    // tasks count as stored, so that a later save can tell whether it completes them.
+    private List<Task> withTags(List<Task> tasks) {
+        for (int from = 0; from < tasks.size(); from += TAG_BATCH_SIZE) {
+            Map<Long, Task> byId = tasks.subList(from, Math.min(from + TAG_BATCH_SIZE, tasks.size())).stream()
+                    .collect(Collectors.toMap(Task::getId, Function.identity()));
+            jdbcTemplate.query("select task_id, tag from task_tag where task_id in (:ids)",
+                    Map.of("ids", byId.keySet()),
+                    rs -> {
+                        byId.get(rs.getLong("task_id")).getTags().add(rs.getString("tag"));
+                    });
+        }
+        tasks.forEach(Task::markStored);
+        return tasks;
+    }
+
+    // Null titles are placed explicitly, as databases disagree on where they go by default.
+    // H2 already compares strings by their characters; Postgres follows the database locale
+    // unless told otherwise.
+    private String orderBy(TaskSort sort, boolean descending) {
+        String direction = descending ? " desc" : " asc";
+        return switch (sort) {
+            case ID -> "id" + direction;
+            case TITLE -> (postgres ? "title collate \"C\"" : "title") + direction
+                    + (descending ? " nulls last" : " nulls first") + ", id" + direction;
+            case COMPLETED -> "completed" + direction + ", id" + direction;
+        };
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect to task shard", e);
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + index;
+    }
+
+    // A task to save, taken when save was called, or the id of a task to delete
+    public record Write(Long id, Task task, boolean created) {
+        public static Write save(Task task, boolean created) {
+            return new Write(task.getId(), task, created);
+        }
+
+        public static Write delete(Long id) {
+            return new Write(id, null, false);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.tasksapi.sharding;
+
+import com.example.tasksapi.deadline.RequestDeadline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+// The shard databases holding tasks, and which one an owner's tasks live on. Owners are
+// spread by a hash of their id, unless they are pinned to a shard; changing the number of
+// shards moves most owners, so their tasks have to be copied over first. Work on several
+// shards runs in parallel on a pool of its own, carrying the request deadline along.
+public class TaskShards implements AutoCloseable {
+    private final List<TaskShard> shards;
+    private final Map<Long, Integer> pinnedOwners;
+    private final ExecutorService executor;
+
+    public TaskShards(List<TaskShard> shards, Map<Long, Integer> pinnedOwners, int threads) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one task shard is required");
+        }
+        pinnedOwners.forEach((ownerId, shard) -> {
+            if (shard < 0 || shard >= shards.size()) {
+                throw new IllegalArgumentException("Owner " + ownerId + " is pinned to unknown shard " + shard);
+            }
+        });
+        this.shards = List.copyOf(shards);
+        this.pinnedOwners = Map.copyOf(pinnedOwners);
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "task-shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<TaskShard> all() {
+        return shards;
+    }
+
+    // Tasks without an owner go to the first shard
+    public TaskShard forOwner(Long ownerId) {
+        if (ownerId == null) {
+            return shards.get(0);
+        }
+        Integer pinned = pinnedOwners.get(ownerId);
+        return shards.get(pinned != null ? pinned : Math.floorMod(mix(ownerId), shards.size()));
+    }
+
+    // Runs the query on every shard at once and returns the results in shard order. The
+    // first failure is rethrown once all queries have finished.
+    public <T> List<T> scatter(Function<TaskShard, T> query) {
+        RequestDeadline.checkNotExpired();
+        if (shards.size() == 1) {
+            return List.of(query.apply(shards.get(0)));
+        }
+
+        Optional<Duration> remaining = RequestDeadline.remaining();
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (TaskShard shard : shards) {
+            futures.add(executor.submit(() -> {
+                remaining.ifPresent(RequestDeadline::set);
+                try {
+                    return query.apply(shard);
+                } finally {
+                    RequestDeadline.clear();
+                }
+            }));
+        }
+
+        List<T> results = new ArrayList<>(shards.size());
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new IllegalStateException("Task shard query failed", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Interrupted while querying task shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    // Spreads sequential owner ids evenly (the finalizer of SplitMix64)
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdownNow();
+        for (TaskShard shard : shards) {
+            shard.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.tasksapi.timing;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Accumulates the latency breakdown of the request on the current thread. Only
+// requests for which ServerTimingFilter has started an accumulator pay for this;
+// for all others recording is a single thread-local read.
+public final class RequestTimings {
+    public enum Phase {
+        JWT("jwt"),
+        USER_LOOKUP("user"),
+        DB("db"),
+        SERIALIZATION("ser");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final ThreadLocal<RequestTimings> current = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+    private int statementCount;
+
+    private RequestTimings() {}
+
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        current.set(timings);
+        return timings;
+    }
+
+    public static void clear() {
+        current.remove();
+    }
+
+    public static void record(Phase phase, long elapsedNanos) {
+        RequestTimings timings = current.get();
+        if (timings != null) {
+            timings.nanos.merge(phase, elapsedNanos, Long::sum);
+        }
+    }
+
+    public static void countStatement() {
+        RequestTimings timings = current.get();
+        if (timings != null) {
+            timings.statementCount++;
+        }
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos.getOrDefault(phase, 0L);
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    // Renders the Server-Timing header value, durations in milliseconds
+    public String toHeaderValue() {
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            header.append(phase.getMetricName()).append(";dur=").append(millis(getNanos(phase)));
+            if (phase == Phase.DB) {
+                header.append(";desc=\"").append(statementCount).append(" statements\"");
+            }
+            header.append(", ");
+        }
+        return header.append("total;dur=").append(millis(System.nanoTime() - startNanos)).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.tasksapi.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Adds a Server-Timing header breaking the request down into JWT verification, user
+// lookup, database time and statement count, and serialization. Enabled for every
+// request by app.serverTiming.enabled, or per request by sending the configured
+// app.serverTiming.token in the X-Server-Timing header.
+public class ServerTimingFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Server-Timing";
+    public static final String REQUEST_HEADER = "X-Server-Timing";
+
+    @Value("${app.serverTiming.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.serverTiming.token:}")
+    private String token;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled && !hasValidToken(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTimings timings = RequestTimings.start();
+        TimingResponseWrapper responseWrapper = new TimingResponseWrapper(response, timings);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            RequestTimings.clear();
+            // Async responses are written on other threads after this returns, so they aren't timed
+            if (request.isAsyncStarted()) {
+                responseWrapper.skip();
+            } else {
+                responseWrapper.finish();
+            }
+        }
+    }
+
+    private boolean hasValidToken(HttpServletRequest request) {
+        String presented = request.getHeader(REQUEST_HEADER);
+        return StringUtils.hasText(token) && presented != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.isCompatibleWith(mediaType) || mediaType.getSubtype().endsWith("+json");
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    // Nothing is buffered here: the header goes in at the last moment before the container
+    // commits the response. That is before a flush, an error, or a write that would fill the
+    // container's buffer, and otherwise once the request is done, so a JSON body that fits
+    // the buffer is timed with its serialization. The converters flush right after writing,
+    // before serialization is recorded, so that flush is held back until the request is
+    // done. Other bodies, such as recording dumps, are written straight to the response and
+    // get no header.
+    private static final class TimingResponseWrapper extends HttpServletResponseWrapper {
+        private final RequestTimings timings;
+        private boolean done;
+        private boolean flushPending;
+        private long contentLength = -1;
+        private TimingOutputStream outputStream;
+
+        TimingResponseWrapper(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        void addTimingHeader() {
+            if (done) {
+                return;
+            }
+            done = true;
+            String contentType = getContentType();
+            if (!isCommitted() && (contentType == null || isJson(contentType))) {
+                setHeader(HEADER, timings.toHeaderValue());
+            }
+        }
+
+        void skip() {
+            done = true;
+        }
+
+        void finish() throws IOException {
+            addTimingHeader();
+            if (flushPending) {
+                flushPending = false;
+                outputStream.delegate.flush();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream != null) {
+                return outputStream;
+            }
+            ServletOutputStream delegate = super.getOutputStream();
+            if (done || !isJson(getContentType())) {
+                skip();
+                return delegate;
+            }
+            outputStream = new TimingOutputStream(delegate);
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addTimingHeader();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            contentLength = len;
+            super.setContentLength(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+            super.setContentLengthLong(len);
+        }
+
+        // The container commits once its buffer is full or the declared length is written
+        private long commitThreshold() {
+            long bufferSize = getBufferSize();
+            return contentLength >= 0 ? Math.min(bufferSize, contentLength) : bufferSize;
+        }
+
+        private final class TimingOutputStream extends ServletOutputStream {
+            private final ServletOutputStream delegate;
+            private long written;
+
+            TimingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                beforeWrite(1);
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                beforeWrite(len);
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (done) {
+                    delegate.flush();
+                } else {
+                    flushPending = true;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                addTimingHeader();
+                flushPending = false;
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+
+            private void beforeWrite(int len) {
+                if (!done && written + len >= commitThreshold()) {
+                    addTimingHeader();
+                }
+                written += len;
+            }
+        }
+    }
+}
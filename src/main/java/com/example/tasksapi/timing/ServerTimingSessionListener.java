@@ -0,0 +1,35 @@
+package com.example.tasksapi.timing;
+
+import org.hibernate.SessionEventListener;
+
+// Registered through hibernate.session.events.auto; Hibernate creates one per session
+// and reports every JDBC statement it prepares and executes
+public class ServerTimingSessionListener implements SessionEventListener {
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        RequestTimings.countStatement();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimings.record(RequestTimings.Phase.DB, System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.record(RequestTimings.Phase.DB, System.nanoTime() - batchStart);
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.tasksapi.webhook;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Delivers queued webhook events from a background thread. Each poll takes the oldest due
+// outbox rows and sends every subscription's rows as one POST with a JSON array body. At
+// most maxConcurrentPerEndpoint requests go to one URL at a time; the poll leaves out rows
+// of busy endpoints, so a slow receiver can't hold back the others. A delivery leases its
+// rows by pushing next_attempt_at past the request timeout. The rows are selected FOR UPDATE
+// SKIP LOCKED in the leasing transaction, so instances polling one outbox don't pick up the
+// same rows, and rows of a crashed instance are retried once the lease runs out: receivers
+// get every event at least once and should deduplicate by event id. Failed
+// deliveries are retried with exponential backoff until maxAttempts, after which the rows
+// are kept with their last error for deadRetentionMs, for inspection, and then deleted.
+// Nothing is polled while webhooks are disabled.
+@Component
+public class WebhookDispatcher implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+    private static final String SELECT_DUE = "select o.id, o.subscription_id, o.event, o.task_id, o.payload, "
+            + "o.created_at, o.attempts, s.url, s.secret from webhook_outbox o "
+            + "join webhook_subscription s on s.id = o.subscription_id "
+            + "where o.next_attempt_at <= ? and o.attempts < ?%s order by o.id limit ? for update of o skip locked";
+    private static final String LEASE = "update webhook_outbox set next_attempt_at = ? where id = ?";
+    private static final String DELETE = "delete from webhook_outbox where id = ?";
+    private static final String RETRY = "update webhook_outbox set attempts = ?, next_attempt_at = ?, last_error = ? "
+            + "where id = ?";
+    private static final String PURGE_DEAD = "delete from webhook_outbox where attempts >= ? and next_attempt_at < ?";
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final long MAX_PURGE_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final WebhookHosts hosts;
+    private final Map<String, Semaphore> endpointPermits = new ConcurrentHashMap<>();
+
+    @Value("${app.webhooks.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.webhooks.pollMs:500}")
+    private long pollMs;
+
+    @Value("${app.webhooks.batchSize:100}")
+    private int batchSize;
+
+    @Value("${app.webhooks.threads:4}")
+    private int threads;
+
+    @Value("${app.webhooks.maxConcurrentPerEndpoint:2}")
+    private int maxConcurrentPerEndpoint;
+
+    @Value("${app.webhooks.timeoutMs:10000}")
+    private long timeoutMs;
+
+    @Value("${app.webhooks.maxAttempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.webhooks.initialBackoffMs:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.webhooks.maxBackoffMs:300000}")
+    private long maxBackoffMs;
+
+    @Value("${app.webhooks.deadRetentionMs:604800000}")
+    private long deadRetentionMs;
+
+    private volatile boolean running;
+    private Instant lastPurge = Instant.EPOCH;
+    private Thread thread;
+    private ExecutorService deliveries;
+    private HttpClient httpClient;
+
+    public WebhookDispatcher(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry, WebhookHosts hosts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.hosts = hosts;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        deliveries = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread delivery = new Thread(runnable, "webhook-delivery");
+            delivery.setDaemon(true);
+            return delivery;
+        });
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        thread = new Thread(this::run, "webhook-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Deliveries still in flight after the grace period are abandoned; their leases expire
+    // and they are retried after a restart
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            deliveries.shutdown();
+            deliveries.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                purgeDead();
+                if (dispatchDue() < batchSize) {
+                    Thread.sleep(pollMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Polling the webhook outbox failed", e);
+                try {
+                    Thread.sleep(pollMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Starts deliveries for the due rows and returns how many rows were dispatched; rows of
+    // busy endpoints aren't selected, so that the loop doesn't spin on them
+    int dispatchDue() {
+        Instant now = Instant.now();
+        List<String> busy = endpointPermits.entrySet().stream()
+                .filter(endpoint -> endpoint.getValue().availablePermits() == 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<Object> args = new ArrayList<>(List.of(utc(now), maxAttempts));
+        args.addAll(busy);
+        args.add(batchSize);
+        String sql = SELECT_DUE.formatted(busy.isEmpty() ? ""
+                : " and s.url not in (" + String.join(", ", Collections.nCopies(busy.size(), "?")) + ")");
+
+        // Permits taken for the leased rows, handed to the deliveries once the leases are committed
+        List<Lease> leased = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<OutboxRow> due = jdbcTemplate.query(sql, (rs, i) -> new OutboxRow(rs.getLong("id"),
+                        rs.getLong("subscription_id"), rs.getString("event"), rs.getLong("task_id"),
+                        rs.getString("payload"), rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+                        rs.getInt("attempts"), rs.getString("url"), rs.getString("secret")), args.toArray());
+
+                Map<Long, List<OutboxRow>> bySubscription = new LinkedHashMap<>();
+                due.forEach(row -> bySubscription.computeIfAbsent(row.subscriptionId(), id -> new ArrayList<>()).add(row));
+                OffsetDateTime leaseUntil = utc(now.plusMillis(2 * timeoutMs));
+                for (List<OutboxRow> rows : bySubscription.values()) {
+                    Semaphore permits = endpointPermits.computeIfAbsent(rows.get(0).url(),
+                            u -> new Semaphore(maxConcurrentPerEndpoint));
+                    if (!permits.tryAcquire()) {
+                        continue;
+                    }
+                    leased.add(new Lease(rows, permits));
+                    jdbcTemplate.batchUpdate(LEASE, rows.stream().map(row -> new Object[]{leaseUntil, row.id()}).toList());
+                }
+            });
+        } catch (RuntimeException e) {
+            leased.forEach(lease -> lease.permits().release());
+            throw e;
+        }
+
+        int dispatched = 0;
+        for (Lease lease : leased) {
+            try {
+                deliveries.execute(() -> {
+                    try {
+                        deliver(lease.rows().get(0).url(), lease.rows());
+                    } finally {
+                        lease.permits().release();
+                    }
+                });
+                dispatched += lease.rows().size();
+            } catch (RejectedExecutionException e) {
+                lease.permits().release();
+            }
+        }
+        return dispatched;
+    }
+
+    // Deletes the rows that ran out of attempts more than deadRetentionMs ago, going by the
+    // next_attempt_at their last failed attempt set (at most maxBackoffMs after that failure)
+    void purgeDead() {
+        Instant now = Instant.now();
+        if (lastPurge.isAfter(now.minusMillis(Math.min(deadRetentionMs / 2, MAX_PURGE_INTERVAL_MS)))) {
+            return;
+        }
+        int purged = jdbcTemplate.update(PURGE_DEAD, maxAttempts, utc(now.minusMillis(deadRetentionMs)));
+        if (purged > 0) {
+            logger.info("Purged {} webhook events that could not be delivered", purged);
+        }
+        lastPurge = now;
+    }
+
+    private void deliver(String url, List<OutboxRow> rows) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String error;
+        try {
+            // The host is resolved again here, and the connection below reuses the addresses the
+            // JVM has just cached for it (networkaddress.cache.ttl), so a host that was public
+            // when it was registered can't be pointed at an internal address later on
+            URI uri = URI.create(url);
+            if (!hosts.isPublic(uri.getHost())) {
+                throw new IllegalStateException("Host no longer resolves to a public address");
+            }
+            String body = body(rows);
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            String secret = rows.get(0).secret();
+            if (secret != null && !secret.isEmpty()) {
+                request.header(SIGNATURE_HEADER, "sha256=" + sign(secret, body));
+            }
+            HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 == 2) {
+                jdbcTemplate.batchUpdate(DELETE, rows.stream().map(row -> new Object[]{row.id()}).toList());
+                sample.stop(deliveryTimer("success"));
+                return;
+            }
+            error = "HTTP " + response.statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        }
+
+        sample.stop(deliveryTimer("failure"));
+        logger.debug("Delivering {} webhook events to {} failed: {}", rows.size(), url, error);
+        String lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        Instant now = Instant.now();
+        jdbcTemplate.batchUpdate(RETRY, rows.stream().map(row -> new Object[]{row.attempts() + 1,
+                utc(now.plusMillis(backoffMs(row.attempts()))), lastError, row.id()}).toList());
+    }
+
+    private long backoffMs(int attempts) {
+        return Math.min(initialBackoffMs << Math.min(attempts, 20), maxBackoffMs);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private Timer deliveryTimer(String outcome) {
+        return Timer.builder("webhooks.deliveries")
+                .description("Webhook delivery requests, each carrying a batch of events")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // [{"id":..,"event":"TASK_UPDATED","taskId":..,"occurredAt":"..","task":{..}}, ..]; the
+    // payloads are already JSON and are spliced in as they are
+    private static String body(List<OutboxRow> rows) {
+        StringJoiner events = new StringJoiner(",", "[", "]");
+        for (OutboxRow row : rows) {
+            events.add("{\"id\":" + row.id() + ",\"event\":\"" + row.event() + "\",\"taskId\":" + row.taskId()
+                    + ",\"occurredAt\":\"" + row.createdAt() + "\",\"task\":" + row.payload() + "}");
+        }
+        return events.toString();
+    }
+
+    private static String sign(String secret, String body) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record Lease(List<OutboxRow> rows, Semaphore permits) {}
+
+    private record OutboxRow(long id, long subscriptionId, String event, long taskId, String payload,
+                             Instant createdAt, int attempts, String url, String secret) {}
+}
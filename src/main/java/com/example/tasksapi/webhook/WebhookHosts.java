@@ -0,0 +1,83 @@
+package com.example.tasksapi.webhook;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+
+// Keeps webhooks from reaching the loopback interface, cloud metadata endpoints and the
+// private network. Checked when a webhook is registered and again before every delivery,
+// since the host may resolve to a different address by then (DNS rebinding).
+@Component
+public class WebhookHosts {
+    // ::ffff:0:0/96 (IPv4-mapped), ::/96 (IPv4-compatible) and 64:ff9b::/96 (NAT64) carry an
+    // IPv4 address in their last four bytes
+    private static final byte[] MAPPED_PREFIX = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xff, (byte) 0xff};
+    private static final byte[] COMPATIBLE_PREFIX = new byte[12];
+    private static final byte[] NAT64_PREFIX = {0, 0x64, (byte) 0xff, (byte) 0x9b, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    // Hosts that may be called even though they resolve to a private address, e.g. internal receivers
+    @Value("${app.webhooks.allowedHosts:}")
+    private Set<String> allowedHosts;
+
+    // Every address the host resolves to must be public
+    public boolean isPublic(String host) {
+        if (allowedHosts.contains(host.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        try {
+            for (InetAddress address : InetAddress.getAllByName(host)) {
+                if (!isPublic(address)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            return isPublicIpv4(bytes);
+        }
+        if (address instanceof Inet6Address) {
+            byte[] prefix = Arrays.copyOf(bytes, 12);
+            if (Arrays.equals(prefix, MAPPED_PREFIX) || Arrays.equals(prefix, COMPATIBLE_PREFIX)
+                    || Arrays.equals(prefix, NAT64_PREFIX)) {
+                try {
+                    return isPublic(InetAddress.getByAddress(Arrays.copyOfRange(bytes, 12, 16)));
+                } catch (UnknownHostException e) {
+                    return false;
+                }
+            }
+            // fc00::/7 unique local addresses, which isSiteLocalAddress doesn't cover
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        return false;
+    }
+
+    // Ranges the InetAddress checks above leave out: 0.0.0.0/8 ("this network"), 100.64.0.0/10
+    // (carrier-grade NAT), 192.0.0.0/24 (protocol assignments), 198.18.0.0/15 (benchmarking)
+    // and 240.0.0.0/4 (reserved, including the broadcast address)
+    private static boolean isPublicIpv4(byte[] bytes) {
+        int first = bytes[0] & 0xff;
+        int second = bytes[1] & 0xff;
+        return first != 0
+                && !(first == 100 && (second & 0xc0) == 64)
+                && !(first == 192 && second == 0 && bytes[2] == 0)
+                && !(first == 198 && (second & 0xfe) == 18)
+                && first < 240;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.tasksapi.webhook;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.WebhookSubscription;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Queues webhook deliveries for a task write. The rows are inserted through JdbcTemplate,
+// which joins the transaction of the task write, so they commit or roll back with it; a
+// slow or failing receiver never holds up the request.
+@Component
+public class WebhookOutbox {
+    private static final String INSERT = "insert into webhook_outbox (subscription_id, event, task_id, payload, "
+            + "created_at, attempts, next_attempt_at) values (?, ?, ?, ?, ?, 0, ?)";
+
+    private final WebhookSubscriptions subscriptions;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public WebhookOutbox(WebhookSubscriptions subscriptions, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.subscriptions = subscriptions;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // An update that completes the task is also a TASK_COMPLETED event
+    public void taskSaved(Task task, boolean created, boolean wasCompleted) {
+        List<WebhookSubscription> owned = subscriptions.forOwner(task.getOwnerId());
+        if (owned.isEmpty()) {
+            return;
+        }
+
+        List<WebhookSubscription.Event> events = new ArrayList<>(2);
+        events.add(created ? WebhookSubscription.Event.TASK_CREATED : WebhookSubscription.Event.TASK_UPDATED);
+        if (!created && !wasCompleted && task.isCompleted()) {
+            events.add(WebhookSubscription.Event.TASK_COMPLETED);
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        String payload = null;
+        OffsetDateTime now = Instant.now().atOffset(ZoneOffset.UTC);
+        for (WebhookSubscription subscription : owned) {
+            for (WebhookSubscription.Event event : events) {
+                if (subscription.getEvents().contains(event)) {
+                    payload = payload != null ? payload : json(task);
+                    rows.add(new Object[]{subscription.getId(), event.name(), task.getId(), payload, now, now});
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+
+    private String json(Task task) {
+        try {
+            return objectMapper.writeValueAsString(task);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Task is not serializable", e);
+        }
+    }
+}
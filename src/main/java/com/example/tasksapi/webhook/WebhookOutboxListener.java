@@ -0,0 +1,35 @@
+package com.example.tasksapi.webhook;
+
+import com.example.tasksapi.model.Task;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// JPA entity listener that queues webhook deliveries for task writes. The callbacks run
+// during the flush, inside the writing transaction. Like TaskIndexingListener, it resolves
+// the outbox lazily, so it is absent in slices such as @DataJpaTest.
+public class WebhookOutboxListener {
+    private final ObjectProvider<WebhookOutbox> outbox;
+
+    public WebhookOutboxListener(ObjectProvider<WebhookOutbox> outbox) {
+        this.outbox = outbox;
+    }
+
+    @PostLoad
+    public void afterLoad(Task task) {
+        task.markStored();
+    }
+
+    @PostPersist
+    public void afterInsert(Task task) {
+        outbox.ifAvailable(o -> o.taskSaved(task, true, false));
+        task.markStored();
+    }
+
+    @PostUpdate
+    public void afterUpdate(Task task) {
+        outbox.ifAvailable(o -> o.taskSaved(task, false, task.wasStoredCompleted()));
+        task.markStored();
+    }
+}
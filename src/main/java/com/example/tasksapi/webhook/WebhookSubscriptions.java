@@ -0,0 +1,95 @@
+package com.example.tasksapi.webhook;
+
+import com.example.tasksapi.invalidation.InvalidationBus;
+import com.example.tasksapi.model.WebhookSubscription;
+import com.example.tasksapi.repository.WebhookSubscriptionRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Manages webhook subscriptions and keeps every owner's subscriptions in memory, so that a
+// task write by an owner without any costs a map lookup rather than a query. Changes made
+// on other instances arrive through the invalidation bus.
+@Service
+public class WebhookSubscriptions implements SmartInitializingSingleton {
+    private final WebhookSubscriptionRepository repo;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, List<WebhookSubscription>> byOwner = new ConcurrentHashMap<>();
+
+    private final InvalidationBus invalidationBus;
+
+    public WebhookSubscriptions(WebhookSubscriptionRepository repo, JdbcTemplate jdbcTemplate,
+                                InvalidationBus invalidationBus) {
+        this.repo = repo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(InvalidationBus.WEBHOOK_SUBSCRIPTIONS, batch -> {
+            if (!batch.local()) {
+                batch.ids(InvalidationBus.WEBHOOK_SUBSCRIPTIONS).forEach(this::reload);
+            }
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        repo.findAll().forEach(subscription -> byOwner.merge(subscription.getOwnerId(), List.of(subscription),
+                (existing, added) -> Stream.concat(existing.stream(), added.stream()).toList()));
+    }
+
+    public List<WebhookSubscription> forOwner(Long ownerId) {
+        return byOwner.getOrDefault(ownerId, List.of());
+    }
+
+    public long count(Long ownerId) {
+        return repo.countByOwnerId(ownerId);
+    }
+
+    @Transactional
+    public WebhookSubscription subscribe(WebhookSubscription subscription) {
+        WebhookSubscription saved = repo.save(subscription);
+        changed(saved.getOwnerId());
+        return saved;
+    }
+
+    // Pending deliveries to the subscription are dropped along with it
+    @Transactional
+    public Optional<WebhookSubscription> unsubscribe(Long id, Long ownerId) {
+        Optional<WebhookSubscription> subscription = repo.findByIdAndOwnerId(id, ownerId);
+        subscription.ifPresent(s -> {
+            jdbcTemplate.update("delete from webhook_outbox where subscription_id = ?", s.getId());
+            repo.delete(s);
+            changed(ownerId);
+        });
+        return subscription;
+    }
+
+    // Reloaded here right after the commit, so this instance queues deliveries for the
+    // subscription from then on; other instances follow through the bus
+    private void changed(Long ownerId) {
+        invalidationBus.publish(InvalidationBus.key(InvalidationBus.WEBHOOK_SUBSCRIPTIONS, ownerId));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload(ownerId);
+            }
+        });
+    }
+
+    private void reload(Long ownerId) {
+        List<WebhookSubscription> subscriptions = repo.findByOwnerIdOrderById(ownerId);
+        if (subscriptions.isEmpty()) {
+            byOwner.remove(ownerId);
+        } else {
+            byOwner.put(ownerId, subscriptions);
+        }
+    }
+}
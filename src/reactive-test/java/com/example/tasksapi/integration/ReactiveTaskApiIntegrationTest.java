@@ -0,0 +1,60 @@
+package com.example.tasksapi.integration;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.ReactiveTaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs the API tests of TaskApiIntegrationTest against the reactive stack (WebFlux on
+// Netty, R2DBC), on a database of its own. The statement budgets hold trivially, as they
+// only count statements issued through Hibernate. The test client's idle keep-alive
+// connections can hold Netty's graceful drain open at JVM exit, so it is skipped here.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb",
+        "server.shutdown=immediate"
+})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveTaskApiIntegrationTest extends TaskApiIntegrationTest {
+
+    @Autowired
+    private ReactiveTaskRepository reactiveTaskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    @Disabled("Server-Timing is only implemented for the servlet stack")
+    void getAllTasks_WithServerTimingToken_ShouldReportPhases() {
+    }
+
+    @Test
+    void save_WhenTaskChangedSinceRead_ShouldFailWithOptimisticLock() {
+        // Given
+        Long ownerId = userRepository.findByUsername("testuser").orElseThrow().getId();
+        Task task = new Task();
+        task.setTitle("Versioned");
+        task.setOwnerId(ownerId);
+        Long id = reactiveTaskRepository.save(task).block().getId();
+        Task first = reactiveTaskRepository.findByIdAndOwnerId(id, ownerId).block();
+        Task second = reactiveTaskRepository.findByIdAndOwnerId(id, ownerId).block();
+        first.setTitle("First");
+        reactiveTaskRepository.save(first).block();
+
+        // When
+        second.setTitle("Second");
+
+        // Then
+        assertThatThrownBy(() -> reactiveTaskRepository.save(second).block())
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(reactiveTaskRepository.findByIdAndOwnerId(id, ownerId).block().getTitle()).isEqualTo("First");
+    }
+}
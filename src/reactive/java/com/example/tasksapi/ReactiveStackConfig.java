@@ -0,0 +1,46 @@
+package com.example.tasksapi;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+// Infrastructure of the reactive stack, started by the reactive profile
+// (spring.main.web-application-type=reactive). Requests are served by the reactive
+// controllers over R2DBC. JPA stays in place for schema management and for building the
+// in-memory indexes at startup.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveStackConfig {
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked;
+    // Netty serves every connection from a small, fixed set of event-loop threads
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Boot leaves out the JDBC DataSource once an R2DBC ConnectionFactory exists, but JPA
+    // still needs one; it is configured from spring.datasource.* as usual
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Next to the R2DBC transaction manager there are two; @Transactional code without a
+    // reactive return type (the JPA repositories) has to resolve to this one
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
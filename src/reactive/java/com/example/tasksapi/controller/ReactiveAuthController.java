@@ -0,0 +1,90 @@
+package com.example.tasksapi.controller;
+
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.payload.request.LoginRequest;
+import com.example.tasksapi.payload.request.SignupRequest;
+import com.example.tasksapi.payload.response.JwtResponse;
+import com.example.tasksapi.payload.response.MessageResponse;
+import com.example.tasksapi.repository.ReactiveUserRepository;
+import com.example.tasksapi.security.JwtUtils;
+import com.example.tasksapi.security.UserDetailsImpl;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// AuthController on the reactive stack
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final ReactiveUserRepository userRepository;
+    private final PasswordEncoder encoder;
+    private final JwtUtils jwtUtils;
+
+    public ReactiveAuthController(ReactiveAuthenticationManager authenticationManager,
+                                  ReactiveUserRepository userRepository, PasswordEncoder encoder, JwtUtils jwtUtils) {
+        this.authenticationManager = authenticationManager;
+        this.userRepository = userRepository;
+        this.encoder = encoder;
+        this.jwtUtils = jwtUtils;
+    }
+
+    @PostMapping("/signin")
+    public Mono<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        return authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()))
+                .<ResponseEntity<?>>map(authentication -> {
+                    String jwt = jwtUtils.generateJwtToken(authentication);
+
+                    UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+                    String role = userDetails.getAuthorities().stream()
+                            .findFirst()
+                            .map(item -> item.getAuthority())
+                            .orElse("ROLE_MEMBER");
+
+                    return ResponseEntity.ok(new JwtResponse(jwt,
+                                                             userDetails.getId(),
+                                                             userDetails.getUsername(),
+                                                             userDetails.getEmail(),
+                                                             role));
+                })
+                .onErrorResume(AuthenticationException.class, e -> Mono.just(ResponseEntity
+                        .status(HttpStatus.UNAUTHORIZED)
+                        .body(new MessageResponse("Error: " + e.getMessage() + "!"))));
+    }
+
+    @PostMapping("/signup")
+    public Mono<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+        return userRepository.existsByUsername(signUpRequest.getUsername()).flatMap(usernameTaken -> {
+            if (usernameTaken) {
+                return Mono.just(ResponseEntity
+                        .badRequest()
+                        .body(new MessageResponse("Error: Username is already taken!")));
+            }
+            return userRepository.existsByEmail(signUpRequest.getEmail()).flatMap(emailTaken -> {
+                if (emailTaken) {
+                    return Mono.just(ResponseEntity
+                            .badRequest()
+                            .body(new MessageResponse("Error: Email is already in use!")));
+                }
+
+                // BCrypt is deliberately slow, so it runs off the event loop
+                return Mono.fromCallable(() -> encoder.encode(signUpRequest.getPassword()))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(password -> userRepository.save(
+                                new User(signUpRequest.getUsername(), signUpRequest.getEmail(), password)))
+                        .map(user -> ResponseEntity.ok(new MessageResponse("User registered successfully!")));
+            });
+        });
+    }
+}
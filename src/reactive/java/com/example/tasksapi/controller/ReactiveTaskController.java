@@ -0,0 +1,267 @@
+package com.example.tasksapi.controller;
+
+import com.example.tasksapi.archive.TaskArchive;
+import com.example.tasksapi.history.ReactiveTaskHistory;
+import com.example.tasksapi.history.TaskHistory;
+import com.example.tasksapi.idempotency.IdempotencyHandler;
+import com.example.tasksapi.idempotency.ReactiveIdempotencyHandler;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.payload.request.TaskOperationRequest;
+import com.example.tasksapi.repository.ReactiveTaskRepository;
+import com.example.tasksapi.repository.ReactiveUserRepository;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.search.TagIndex;
+import com.example.tasksapi.security.UserDetailsImpl;
+import com.example.tasksapi.service.ReactiveTaskBatchService;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// The /tasks API of TaskController on the reactive stack, with the same parameters,
+// limits and error responses
+@RestController
+@RequestMapping("/tasks")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskController {
+    private final ReactiveTaskRepository repo;
+    private final ReactiveUserRepository userRepository;
+    private final TagIndex tagIndex;
+    private final ReactiveTaskBatchService batchService;
+    private final ReactiveIdempotencyHandler idempotencyHandler;
+    private final TaskHistory history;
+    private final ReactiveTaskHistory reactiveHistory;
+    private final TaskArchive archive;
+
+    @Value("${app.tasks.maxBatchIds:100}")
+    private int maxBatchIds;
+
+    @Value("${app.tasks.maxBatchOps:100}")
+    private int maxBatchOps;
+
+    @Value("${app.history.pageSize:100}")
+    private int historyPageSize;
+
+    public ReactiveTaskController(ReactiveTaskRepository repo, ReactiveUserRepository userRepository, TagIndex tagIndex,
+                                  ReactiveTaskBatchService batchService, ReactiveIdempotencyHandler idempotencyHandler,
+                                  TaskHistory history, ReactiveTaskHistory reactiveHistory, TaskArchive archive) {
+        this.repo = repo;
+        this.userRepository = userRepository;
+        this.tagIndex = tagIndex;
+        this.batchService = batchService;
+        this.idempotencyHandler = idempotencyHandler;
+        this.history = history;
+        this.reactiveHistory = reactiveHistory;
+        this.archive = archive;
+    }
+
+    // Completed tasks moved to the archive are only listed with includeArchived=true; the
+    // archive is read over JPA, off the event loop
+    @GetMapping
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<?>> getAllTasks(@AuthenticationPrincipal UserDetailsImpl principal,
+                                               @RequestParam(required = false) Boolean completed,
+                                               @RequestParam(required = false) String q,
+                                               @RequestParam(defaultValue = "id") String sort,
+                                               @RequestParam(required = false) List<String> tags,
+                                               @RequestParam(defaultValue = "all") String mode,
+                                               @RequestParam(defaultValue = "false") boolean includeArchived) {
+        Optional<TaskFilter> parsed = TaskRequests.filter(completed, q, sort);
+        if (parsed.isEmpty()) {
+            return Mono.just(TaskRequests.unsupportedSort());
+        }
+
+        TaskFilter filter = parsed.get();
+        if (tags == null || tags.isEmpty()) {
+            return withArchived(principal.getId(), filter, repo.findByOwner(principal.getId(), filter).collectList(),
+                    includeArchived, task -> true);
+        }
+
+        Optional<TagIndex.Mode> tagMode = TaskRequests.tagMode(mode);
+        if (tagMode.isEmpty()) {
+            return Mono.just(TaskRequests.unsupportedTagMode());
+        }
+
+        List<String> normalizedTags = TaskRequests.normalizedTags(tags);
+        Roaring64Bitmap matches = tagIndex.match(principal.getId(), normalizedTags, tagMode.get());
+        Mono<List<Task>> live;
+        if (matches.isEmpty()) {
+            live = Mono.just(List.of());
+        } else if (TaskRequests.restrictToMatches(filter, matches)) {
+            live = repo.findByOwner(principal.getId(), filter).collectList();
+        } else {
+            live = repo.findByOwner(principal.getId(), filter)
+                    .filter(task -> matches.contains(task.getId()))
+                    .collectList();
+        }
+        return withArchived(principal.getId(), filter, live, includeArchived,
+                task -> tagMode.get().matches(task.getTags(), normalizedTags));
+    }
+
+    // Multi-get for clients holding a list of ids: one IN query instead of one request per task
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<?>> getTasksByIds(@AuthenticationPrincipal UserDetailsImpl principal,
+                                                 @RequestParam List<Long> ids,
+                                                 @RequestParam(defaultValue = "false") boolean includeArchived) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxBatchIds) {
+            return Mono.just(TaskRequests.tooManyIds(maxBatchIds));
+        }
+
+        TaskFilter filter = new TaskFilter();
+        filter.setIds(requested);
+        return repo.findByOwner(principal.getId(), filter)
+                .collect(Collectors.toMap(Task::getId, Function.identity(), (a, b) -> a, HashMap::new))
+                .flatMap(found -> {
+                    if (!includeArchived || found.size() == requested.size()) {
+                        return Mono.just(found);
+                    }
+                    List<Long> notLive = requested.stream().filter(id -> !found.containsKey(id)).toList();
+                    return Mono.fromCallable(() -> archive.findByIds(principal.getId(), notLive))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .map(archived -> {
+                                found.putAll(archived);
+                                return found;
+                            });
+                })
+                .map(found -> ResponseEntity.ok(TaskRequests.batchResponse(requested, found)));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<?>> createTask(@AuthenticationPrincipal UserDetailsImpl principal, @RequestBody Task task,
+                                              @RequestHeader(value = IdempotencyHandler.HEADER, required = false) String idempotencyKey) {
+        // Retried requests carrying the same key get the first response replayed instead of a duplicate task
+        if (idempotencyKey != null) {
+            return idempotencyHandler.execute(principal.getId(), idempotencyKey, task, () -> create(principal, task));
+        }
+        return create(principal, task);
+    }
+
+    // Runs an ordered list of create/update/delete operations in one transaction, so a
+    // reconnecting client can sync with a single round-trip
+    @PostMapping("/ops")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<?>> applyOperations(@AuthenticationPrincipal UserDetailsImpl principal,
+                                                   @RequestBody List<TaskOperationRequest> operations) {
+        if (operations.size() > maxBatchOps) {
+            return Mono.just(TaskRequests.tooManyOperations(maxBatchOps));
+        }
+
+        return batchService.apply(principal.getId(), TaskRequests.isAdmin(principal), operations).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<Task>> getTaskById(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id) {
+        return repo.findByIdAndOwnerId(id, principal.getId())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<?>> updateTask(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id,
+                                              @RequestBody Task updated) {
+        return repo.findByIdAndOwnerId(id, principal.getId())
+                .flatMap(task -> isKnownAssignee(updated.getAssigneeId()).flatMap(known -> {
+                    if (!known) {
+                        return Mono.just(TaskRequests.unknownAssignee());
+                    }
+                    if (updated.hasOversizedTag()) {
+                        return Mono.just(TaskRequests.oversizedTag());
+                    }
+                    Map<String, Object> before = history.stateOf(task);
+                    task.setTitle(updated.getTitle());
+                    task.setDescription(updated.getDescription());
+                    task.setCompleted(updated.isCompleted());
+                    task.setAssigneeId(updated.getAssigneeId());
+                    task.setTags(updated.getTags());
+                    return repo.save(task)
+                            .flatMap(saved -> reactiveHistory.recordUpdated(saved, before, principal.getId())
+                                    .thenReturn(ResponseEntity.ok(saved)));
+                }))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Void>> deleteTask(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id) {
+        return repo.findByIdAndOwnerId(id, principal.getId())
+                .flatMap(task -> repo.delete(task)
+                        .then(reactiveHistory.recordDeleted(task, principal.getId()))
+                        .thenReturn(ResponseEntity.ok().<Void>build()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // History is read through JPA, so the blocking queries run off the event loop
+    @GetMapping("/{id}/history")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<?>> getTaskHistory(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id,
+                                                  @RequestParam(defaultValue = "0") long after,
+                                                  @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? historyPageSize : limit;
+        if (pageSize < 1 || pageSize > historyPageSize) {
+            return Mono.just(TaskRequests.invalidHistoryLimit(historyPageSize));
+        }
+
+        return Mono.fromCallable(() -> history.events(id, principal.getId(), after, pageSize))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(events -> events.isEmpty() && after == 0
+                        ? ResponseEntity.notFound().build()
+                        : ResponseEntity.ok(events));
+    }
+
+    @GetMapping(value = "/{id}/history", params = "at")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<Task>> getTaskAt(@AuthenticationPrincipal UserDetailsImpl principal, @PathVariable Long id,
+                                                @RequestParam Instant at) {
+        return Mono.fromCallable(() -> history.stateAt(id, principal.getId(), at))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(task -> task.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
+    }
+
+    private Mono<ResponseEntity<?>> withArchived(Long ownerId, TaskFilter filter, Mono<List<Task>> live,
+                                                 boolean includeArchived, Predicate<Task> matches) {
+        if (!includeArchived) {
+            return live.map(ResponseEntity::ok);
+        }
+        return live.flatMap(tasks -> Mono.fromCallable(() -> archive.withArchived(ownerId, filter, tasks, matches))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .map(ResponseEntity::ok);
+    }
+
+    private Mono<ResponseEntity<?>> create(UserDetailsImpl principal, Task task) {
+        return isKnownAssignee(task.getAssigneeId()).flatMap(known -> {
+            if (!known) {
+                return Mono.just(TaskRequests.unknownAssignee());
+            }
+            if (task.hasOversizedTag()) {
+                return Mono.just(TaskRequests.oversizedTag());
+            }
+
+            task.setId(null);
+            task.setOwnerId(principal.getId());
+            return repo.save(task)
+                    .flatMap(saved -> reactiveHistory.recordCreated(saved, principal.getId())
+                            .thenReturn(ResponseEntity.ok(saved)));
+        });
+    }
+
+    private Mono<Boolean> isKnownAssignee(Long assigneeId) {
+        return assigneeId == null ? Mono.just(true) : userRepository.existsById(assigneeId);
+    }
+}
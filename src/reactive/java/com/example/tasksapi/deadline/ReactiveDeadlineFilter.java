@@ -0,0 +1,59 @@
+package com.example.tasksapi.deadline;
+
+import com.example.tasksapi.payload.response.MessageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+// Reactive counterpart of DeadlineFilter. Instead of a thread-bound deadline, the rest of
+// the chain is subscribed with a timeout: once the budget is spent the pending R2DBC
+// queries are cancelled and the client gets a 504. Ordered after the security filters,
+// like DeadlineFilter, so authentication is not part of the budget.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDeadlineFilter implements WebFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveDeadlineFilter.class);
+
+    private final DeadlineBudget deadlineBudget;
+    private final byte[] exceededBody;
+
+    public ReactiveDeadlineFilter(DeadlineBudget deadlineBudget, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        this.deadlineBudget = deadlineBudget;
+        this.exceededBody = objectMapper.writeValueAsBytes(new MessageResponse("Error: Request deadline exceeded!"));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long budgetMs = deadlineBudget.budgetMs(exchange.getRequest().getPath().pathWithinApplication().value(),
+                exchange.getRequest().getHeaders().getFirst(DeadlineFilter.HEADER));
+        if (budgetMs <= 0) {
+            return deadlineExceeded(exchange.getResponse());
+        }
+        return chain.filter(exchange)
+                .timeout(Duration.ofMillis(budgetMs))
+                .onErrorResume(TimeoutException.class, e -> {
+                    logger.warn("Request cancelled: deadline of {} ms exceeded", budgetMs);
+                    return exchange.getResponse().isCommitted() ? Mono.error(e) : deadlineExceeded(exchange.getResponse());
+                });
+    }
+
+    private Mono<Void> deadlineExceeded(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(exceededBody)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tasksapi.history;
+
+import com.example.tasksapi.model.Task;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+// Hands recorded history to the writer from the reactive stack. Events are queued without
+// blocking while the writer keeps up; once its queue is full, the rest are queued from a
+// bounded-elastic thread, so the event loop never waits and no event is dropped.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskHistory {
+    private final TaskHistory history;
+
+    public ReactiveTaskHistory(TaskHistory history) {
+        this.history = history;
+    }
+
+    public TaskHistory.Batch batch() {
+        return history.batch();
+    }
+
+    public Mono<Void> recordCreated(Task task, Long actorId) {
+        return Mono.defer(() -> {
+            TaskHistory.Batch recorded = history.batch();
+            recorded.recordCreated(task, actorId);
+            return submit(recorded);
+        });
+    }
+
+    public Mono<Void> recordUpdated(Task task, Map<String, Object> before, Long actorId) {
+        return Mono.defer(() -> {
+            TaskHistory.Batch recorded = history.batch();
+            recorded.recordUpdated(task, before, actorId);
+            return submit(recorded);
+        });
+    }
+
+    public Mono<Void> recordDeleted(Task task, Long actorId) {
+        return Mono.defer(() -> {
+            TaskHistory.Batch recorded = history.batch();
+            recorded.recordDeleted(task, actorId);
+            return submit(recorded);
+        });
+    }
+
+    // Completes once every event of the batch is queued
+    public Mono<Void> submit(TaskHistory.Batch recorded) {
+        return Mono.defer(() -> recorded.trySubmit()
+                ? Mono.<Void>empty()
+                : Mono.<Void>fromRunnable(recorded::submit).subscribeOn(Schedulers.boundedElastic()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.tasksapi.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// IdempotencyHandler for the reactive stack, over the same store and responses. The store
+// is in memory, so reserving and completing a key never blocks the event loop.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveIdempotencyHandler {
+    private final IdempotencyHandler handler;
+    private final IdempotencyStore store;
+
+    public ReactiveIdempotencyHandler(IdempotencyHandler handler, IdempotencyStore store) {
+        this.handler = handler;
+        this.store = store;
+    }
+
+    public Mono<ResponseEntity<?>> execute(Long callerId, String idempotencyKey, Object request,
+                                           Supplier<Mono<ResponseEntity<?>>> action) {
+        if (!IdempotencyHandler.isValidKey(idempotencyKey)) {
+            return Mono.just(IdempotencyHandler.invalidKey());
+        }
+
+        String key = IdempotencyHandler.key(callerId, idempotencyKey);
+        String fingerprint = handler.fingerprint(request);
+        Optional<IdempotencyRecord> existing = store.reserveOrGet(key, fingerprint);
+        if (existing.isPresent()) {
+            return Mono.just(handler.replay(existing.get(), fingerprint));
+        }
+
+        AtomicBoolean completed = new AtomicBoolean();
+        return Mono.defer(action)
+                .doOnNext(response -> {
+                    handler.complete(key, fingerprint, response);
+                    completed.set(true);
+                })
+                // Let the client retry a request that failed unexpectedly or was abandoned
+                .doFinally(signal -> {
+                    if (!completed.get()) {
+                        store.release(key);
+                    }
+                });
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.invalidation.InvalidationBus;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.search.TaskIndexMaintainer;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Non-blocking counterpart of TaskRepository for the reactive stack, over R2DBC. It reads
+// and writes the tables mapped by Task, loads tags in batches of the same size as the JPA
+// @BatchSize, and takes ids from the same task_seq blocks as Hibernate's pooled optimizer,
+// so both stacks can write to one database. Updates check the version column like the
+// JPA @Version does. Writes run in a transaction of their own unless the caller already
+// started one, and reach the in-memory indexes once it commits.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskRepository {
+    private static final String COLUMNS = "id, title, description, completed, version, owner_id, assignee_id";
+    private static final int TAG_BATCH_SIZE = 100;
+
+    private final DatabaseClient client;
+    private final TransactionalOperator transactionalOperator;
+    private final TaskIndexMaintainer indexMaintainer;
+    private final InvalidationBus invalidationBus;
+    private final String nextIdSql;
+    private final boolean postgres;
+    private final AtomicReference<IdBlock> idBlock = new AtomicReference<>(IdBlock.EXHAUSTED);
+
+    public ReactiveTaskRepository(DatabaseClient client, ConnectionFactory connectionFactory,
+                                  TransactionalOperator transactionalOperator, TaskIndexMaintainer indexMaintainer,
+                                  InvalidationBus invalidationBus) {
+        this.client = client;
+        this.transactionalOperator = transactionalOperator;
+        this.indexMaintainer = indexMaintainer;
+        this.invalidationBus = invalidationBus;
+        this.postgres = connectionFactory.getMetadata().getName().contains("PostgreSQL");
+        this.nextIdSql = postgres ? "select nextval('task_seq')" : "select next value for task_seq";
+    }
+
+    public Mono<Task> findByIdAndOwnerId(Long id, Long ownerId) {
+        return client.sql("select " + COLUMNS + " from task where id = :id and owner_id = :ownerId")
+                .bind("id", id)
+                .bind("ownerId", ownerId)
+                .map(ReactiveTaskRepository::toTask)
+                .one()
+                .flatMap(task -> withTags(List.of(task)).single());
+    }
+
+    public Flux<Task> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return withTags(client.sql("select " + COLUMNS + " from task where id in (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveTaskRepository::toTask)
+                .all());
+    }
+
+    // Same filtering and ordering as TaskRepositoryImpl.findByOwner; sort attributes
+    // are also the column names
+    public Flux<Task> findByOwner(Long ownerId, TaskFilter filter) {
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from task where owner_id = :ownerId");
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("ownerId", ownerId);
+        if (filter.getIds() != null) {
+            if (filter.getIds().isEmpty()) {
+                return Flux.empty();
+            }
+            sql.append(" and id in (:ids)");
+            params.put("ids", filter.getIds());
+        }
+        if (filter.getCompleted() != null) {
+            sql.append(" and completed = :completed");
+            params.put("completed", filter.getCompleted());
+        }
+        if (StringUtils.hasText(filter.getText())) {
+            sql.append(" and (lower(title) like :pattern escape '\\' or lower(description) like :pattern escape '\\')");
+            params.put("pattern", "%" + escapeLike(filter.getText().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+
+        String direction = filter.isDescending() ? " desc" : " asc";
+        if (filter.getSort() == TaskSort.TITLE) {
+            // Titles in TaskSort.TITLE_ORDER, null titles first when ascending; on Postgres,
+            // CollatedTitleIndexes serves this order
+            sql.append(" order by ").append(postgres ? "title collate \"C\"" : "title").append(direction)
+                    .append(filter.isDescending() ? " nulls last" : " nulls first");
+        } else {
+            sql.append(" order by ").append(filter.getSort().getAttribute()).append(direction);
+        }
+        if (filter.getSort() != TaskSort.ID) {
+            // Tie-break on the primary key so results are stable
+            sql.append(", id").append(direction);
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return withTags(spec.map(ReactiveTaskRepository::toTask).all());
+    }
+
+    public Mono<Task> save(Task task) {
+        Mono<Task> written = task.getId() == null
+                ? nextId().flatMap(id -> {
+                    task.setId(id);
+                    return insert(task);
+                })
+                : update(task).then(deleteTags(task.getId())).thenReturn(task);
+        return written
+                .flatMap(this::insertTags)
+                .flatMap(saved -> afterCommit(() -> {
+                    indexMaintainer.taskSaved(saved);
+                    invalidationBus.publish(InvalidationBus.key(InvalidationBus.TASK, saved.getId()));
+                }).thenReturn(saved))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Void> delete(Task task) {
+        return deleteTags(task.getId())
+                .then(client.sql("delete from task where id = :id").bind("id", task.getId()).then())
+                .then(afterCommit(() -> {
+                    indexMaintainer.taskRemoved(task.getId());
+                    invalidationBus.publish(InvalidationBus.key(InvalidationBus.TASK, task.getId()));
+                }))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Task> insert(Task task) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql("insert into task (id, title, description, completed, "
+                        + "version, owner_id, assignee_id, completed_at) values (:id, :title, :description, :completed, 0, :ownerId, "
+                        + ":assigneeId, :completedAt)")
+                .bind("id", task.getId())
+                .bind("completed", task.isCompleted());
+        spec = bindNullable(spec, "title", task.getTitle(), String.class);
+        spec = bindNullable(spec, "description", task.getDescription(), String.class);
+        spec = bindNullable(spec, "ownerId", task.getOwnerId(), Long.class);
+        spec = bindNullable(spec, "assigneeId", task.getAssigneeId(), Long.class);
+        spec = bindNullable(spec, "completedAt", task.isCompleted() ? utcNow() : null, OffsetDateTime.class);
+        task.setVersion(0L);
+        return spec.then().thenReturn(task);
+    }
+
+    // Fails with OptimisticLockingFailureException when the task was changed or deleted
+    // since it was read, as Hibernate does for a stale @Version
+    private Mono<Void> update(Task task) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql("update task set title = :title, description = :description, "
+                        + "completed = :completed, assignee_id = :assigneeId, version = version + 1, "
+                        + "completed_at = case when :completed then coalesce(completed_at, :now) end "
+                        + "where id = :id and version = :version")
+                .bind("id", task.getId())
+                .bind("version", task.getVersion())
+                .bind("completed", task.isCompleted())
+                .bind("now", utcNow());
+        spec = bindNullable(spec, "title", task.getTitle(), String.class);
+        spec = bindNullable(spec, "description", task.getDescription(), String.class);
+        spec = bindNullable(spec, "assigneeId", task.getAssigneeId(), Long.class);
+        return spec.fetch().rowsUpdated().flatMap(updated -> {
+            if (updated == 0) {
+                return Mono.error(new OptimisticLockingFailureException(
+                        "Task " + task.getId() + " was changed by another transaction"));
+            }
+            task.setVersion(task.getVersion() + 1);
+            return Mono.empty();
+        });
+    }
+
+    private Mono<Task> insertTags(Task task) {
+        return Flux.fromIterable(task.getTags())
+                .concatMap(tag -> client.sql("insert into task_tag (task_id, tag) values (:taskId, :tag)")
+                        .bind("taskId", task.getId())
+                        .bind("tag", tag)
+                        .then())
+                .then(Mono.just(task));
+    }
+
+    private Mono<Void> deleteTags(Long taskId) {
+        return client.sql("delete from task_tag where task_id = :taskId").bind("taskId", taskId).then();
+    }
+
+    // Fills in the tags of each batch of tasks with one IN query, keeping the task order
+    private Flux<Task> withTags(Flux<Task> tasks) {
+        return tasks.buffer(TAG_BATCH_SIZE).concatMap(this::withTags);
+    }
+
+    private Flux<Task> withTags(List<Task> batch) {
+        Map<Long, Task> byId = batch.stream().collect(Collectors.toMap(Task::getId, Function.identity()));
+        return client.sql("select task_id, tag from task_tag where task_id in (:ids)")
+                .bind("ids", byId.keySet())
+                .map(row -> Map.entry(row.get("task_id", Long.class), row.get("tag", String.class)))
+                .all()
+                .doOnNext(tag -> byId.get(tag.getKey()).getTags().add(tag.getValue()))
+                .thenMany(Flux.fromIterable(batch));
+    }
+
+    // Hands out the ids of one sequence block before fetching the next. A block covers the
+    // allocation size below the sequence value, as with Hibernate's pooled optimizer.
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = idBlock.get().take();
+            if (id > 0) {
+                return Mono.just(id);
+            }
+            return client.sql(nextIdSql)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        IdBlock block = new IdBlock(Math.max(hi - Task.ID_ALLOCATION_SIZE + 1, 1), hi);
+                        long first = block.take();
+                        idBlock.set(block);
+                        return first;
+                    });
+        });
+    }
+
+    // Runs the action once the surrounding transaction commits, or right away without one
+    private static Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronizations -> {
+                    if (!synchronizations.isSynchronizationActive()) {
+                        return Mono.<Void>fromRunnable(action);
+                    }
+                    synchronizations.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(action);
+                        }
+                    });
+                    return Mono.<Void>empty();
+                })
+                .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(action));
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                      String name, T value, Class<T> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static Task toTask(Readable row) {
+        Task task = new Task();
+        task.setId(row.get("id", Long.class));
+        task.setTitle(row.get("title", String.class));
+        task.setDescription(row.get("description", String.class));
+        task.setCompleted(Boolean.TRUE.equals(row.get("completed", Boolean.class)));
+        task.setVersion(row.get("version", Long.class));
+        task.setOwnerId(row.get("owner_id", Long.class));
+        task.setAssigneeId(row.get("assignee_id", Long.class));
+        return task;
+    }
+
+    // Kept in step with the completed_at stamping of Task, so the archiver sees these tasks too
+    private static OffsetDateTime utcNow() {
+        return Instant.now().atOffset(ZoneOffset.UTC);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static final class IdBlock {
+        static final IdBlock EXHAUSTED = new IdBlock(1, 0);
+
+        private final AtomicLong next;
+        private final long hi;
+
+        IdBlock(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+
+        // Returns 0 once the block is used up
+        long take() {
+            long id = next.getAndIncrement();
+            return id <= hi ? id : 0;
+        }
+    }
+}
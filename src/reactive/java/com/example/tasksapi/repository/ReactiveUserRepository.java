@@ -0,0 +1,87 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.invalidation.InvalidationBus;
+import com.example.tasksapi.model.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// Non-blocking access to the users table for the reactive stack, over R2DBC. The table
+// itself is still created and owned by the JPA mapping of User.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+    private final DatabaseClient client;
+    private final InvalidationBus invalidationBus;
+
+    public ReactiveUserRepository(DatabaseClient client, InvalidationBus invalidationBus) {
+        this.client = client;
+        this.invalidationBus = invalidationBus;
+    }
+
+    public Mono<User> findByUsername(String username) {
+        return client.sql("select id, username, email, password, role from users where username = :username")
+                .bind("username", username)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<Boolean> existsByUsername(String username) {
+        return exists("select id from users where username = :value", username);
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return exists("select id from users where email = :value", email);
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return exists("select id from users where id = :value", id);
+    }
+
+    public Flux<Long> findExistingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return client.sql("select id from users where id in (:ids)")
+                .bind("ids", ids)
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+
+    public Mono<User> save(User user) {
+        return client.sql("insert into users (username, email, password, role) values (:username, :email, :password, :role)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("username", user.getUsername())
+                .bind("email", user.getEmail())
+                .bind("password", user.getPassword())
+                .bind("role", user.getRole().name())
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    user.setId(id);
+                    invalidationBus.publish(InvalidationBus.key(InvalidationBus.USER, id));
+                    return user;
+                });
+    }
+
+    private Mono<Boolean> exists(String sql, Object value) {
+        return client.sql(sql)
+                .bind("value", value)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .hasElement();
+    }
+
+    private static User toUser(Readable row) {
+        User user = new User(row.get("username", String.class), row.get("email", String.class),
+                row.get("password", String.class));
+        user.setId(row.get("id", Long.class));
+        user.setRole(User.Role.valueOf(row.get("role", String.class)));
+        return user;
+    }
+}
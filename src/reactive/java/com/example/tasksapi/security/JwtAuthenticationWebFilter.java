@@ -0,0 +1,84 @@
+package com.example.tasksapi.security;
+
+import com.example.tasksapi.jfr.JwtVerificationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Reactive counterpart of AuthTokenFilter: verifies the bearer token, loads its user over
+// R2DBC and runs the rest of the chain with that authentication in the reactive security
+// context. Requests without a valid token continue unauthenticated, as in AuthTokenFilter.
+public class JwtAuthenticationWebFilter implements WebFilter {
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationWebFilter.class);
+
+    private final JwtUtils jwtUtils;
+    private final ReactiveUserDetailsService userDetailsService;
+    private final Timer jwtVerificationTimer;
+
+    public JwtAuthenticationWebFilter(JwtUtils jwtUtils, ReactiveUserDetailsService userDetailsService,
+                                      MeterRegistry meterRegistry) {
+        this.jwtUtils = jwtUtils;
+        this.userDetailsService = userDetailsService;
+        this.jwtVerificationTimer = Timer.builder("auth.jwt.verification")
+                .description("Time spent verifying and parsing bearer tokens")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String jwt = parseJwt(exchange.getRequest());
+        if (jwt == null) {
+            return chain.filter(exchange);
+        }
+
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        long verificationStart = System.nanoTime();
+        String username = jwtUtils.validateJwtToken(jwt) ? jwtUtils.getUserNameFromJwtToken(jwt) : null;
+        jwtVerificationTimer.record(System.nanoTime() - verificationStart, TimeUnit.NANOSECONDS);
+        event.setValid(username != null);
+        event.commit();
+        if (username == null) {
+            return chain.filter(exchange);
+        }
+
+        return userDetailsService.findByUsername(username)
+                .<Optional<Authentication>>map(userDetails -> Optional.of(
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())))
+                .onErrorResume(e -> {
+                    logger.error("Cannot set user authentication: {}", e);
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> authentication
+                        .map(auth -> chain.filter(exchange)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private String parseJwt(ServerHttpRequest request) {
+        String headerAuth = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tasksapi.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+// Security for the reactive stack, mirroring WebSecurityConfig: stateless JWT
+// authentication, the same public paths, and @PreAuthorize on the reactive controllers
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
+    }
+
+    // BCrypt checks run on the bounded elastic scheduler, never on the event loop
+    @Bean
+    public ReactiveAuthenticationManager authenticationManager(ReactiveUserDetailsServiceImpl userDetailsService,
+                                                               PasswordEncoder passwordEncoder) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        return authenticationManager;
+    }
+
+    @Bean
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, JwtUtils jwtUtils,
+                                                            ReactiveUserDetailsServiceImpl userDetailsService,
+                                                            ReactiveAuthEntryPointJwt unauthorizedHandler,
+                                                            MeterRegistry meterRegistry) {
+        http.csrf(csrf -> csrf.disable())
+            .httpBasic(httpBasic -> httpBasic.disable())
+            .formLogin(formLogin -> formLogin.disable())
+            .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchange ->
+                exchange.pathMatchers("/api/auth/**").permitAll()
+                    .pathMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                    .anyExchange().authenticated()
+            );
+
+        http.addFilterAt(new JwtAuthenticationWebFilter(jwtUtils, userDetailsService, meterRegistry),
+                SecurityWebFiltersOrder.AUTHENTICATION);
+
+        return http.build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.tasksapi.service;
+
+import com.example.tasksapi.history.ReactiveTaskHistory;
+import com.example.tasksapi.history.TaskHistory;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.payload.request.TaskOperationRequest;
+import com.example.tasksapi.payload.response.TaskOperationResult;
+import com.example.tasksapi.repository.ReactiveTaskRepository;
+import com.example.tasksapi.repository.ReactiveUserRepository;
+import com.example.tasksapi.repository.TaskFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Reactive counterpart of TaskBatchService: the same operations, results and handling of
+// invalid operations, applied one after another in a single R2DBC transaction. History is recorded once the transaction
+// has committed; there is no thread-bound synchronization to defer it to, so the events are
+// collected in a TaskHistory.Batch and submitted, without blocking, when it completes.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskBatchService {
+    private final ReactiveTaskRepository taskRepository;
+    private final ReactiveUserRepository userRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final TaskHistory history;
+    private final ReactiveTaskHistory reactiveHistory;
+
+    public ReactiveTaskBatchService(ReactiveTaskRepository taskRepository, ReactiveUserRepository userRepository,
+                                    TransactionalOperator transactionalOperator, TaskHistory history,
+                                    ReactiveTaskHistory reactiveHistory) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.history = history;
+        this.reactiveHistory = reactiveHistory;
+    }
+
+    public Mono<List<TaskOperationResult>> apply(Long ownerId, boolean admin, List<TaskOperationRequest> operations) {
+        return Mono.defer(() -> {
+            TaskHistory.Batch recorded = history.batch();
+            // Statements on one transaction's connection run one at a time
+            return loadOwnedTasks(ownerId, operations)
+                    .flatMap(owned -> loadKnownAssignees(operations)
+                            .flatMap(knownAssignees -> Flux.range(0, operations.size())
+                                    .concatMap(i -> applyOne(i, operations.get(i), ownerId, admin, owned,
+                                            knownAssignees, recorded))
+                                    .collectList()))
+                    .as(transactionalOperator::transactional)
+                    .flatMap(results -> reactiveHistory.submit(recorded).thenReturn(results));
+        });
+    }
+
+    private Mono<TaskOperationResult> applyOne(int index, TaskOperationRequest operation, Long ownerId, boolean admin,
+                                               Map<Long, Task> owned, Set<Long> knownAssignees,
+                                               TaskHistory.Batch recorded) {
+        TaskOperationRequest.Type op = operation.getOp();
+        if (op == null) {
+            return failure(index, null, operation.getId(), HttpStatus.BAD_REQUEST, "Operation type is required");
+        }
+
+        Task payload = operation.getTask();
+        if (op != TaskOperationRequest.Type.DELETE) {
+            if (payload == null) {
+                return failure(index, op, operation.getId(), HttpStatus.BAD_REQUEST, "Task payload is required");
+            }
+            if (payload.getAssigneeId() != null && !knownAssignees.contains(payload.getAssigneeId())) {
+                return failure(index, op, operation.getId(), HttpStatus.BAD_REQUEST, "Assignee does not exist");
+            }
+            if (payload.hasOversizedTag()) {
+                return failure(index, op, operation.getId(), HttpStatus.BAD_REQUEST,
+                        "Tags must be at most " + Task.MAX_TAG_LENGTH + " characters");
+            }
+        }
+
+        if (op == TaskOperationRequest.Type.CREATE) {
+            payload.setId(null);
+            payload.setOwnerId(ownerId);
+            return taskRepository.save(payload)
+                    .doOnNext(created -> {
+                        recorded.recordCreated(created, ownerId);
+                        owned.put(created.getId(), created);
+                    })
+                    .map(created -> new TaskOperationResult(index, op, HttpStatus.OK.value(), created.getId(), created, null));
+        }
+
+        Task task = operation.getId() == null ? null : owned.get(operation.getId());
+        if (task == null) {
+            return failure(index, op, operation.getId(), HttpStatus.NOT_FOUND, "Task not found");
+        }
+
+        if (op == TaskOperationRequest.Type.UPDATE) {
+            Map<String, Object> before = history.stateOf(task);
+            task.setTitle(payload.getTitle());
+            task.setDescription(payload.getDescription());
+            task.setCompleted(payload.isCompleted());
+            task.setAssigneeId(payload.getAssigneeId());
+            task.setTags(payload.getTags());
+            return taskRepository.save(task)
+                    .doOnNext(updated -> recorded.recordUpdated(updated, before, ownerId))
+                    .map(updated -> new TaskOperationResult(index, op, HttpStatus.OK.value(), updated.getId(), updated, null));
+        }
+
+        // Deleting is reserved for admins, as on DELETE /tasks/{id}
+        if (!admin) {
+            return failure(index, op, task.getId(), HttpStatus.FORBIDDEN, "Only admins can delete tasks");
+        }
+        owned.remove(task.getId());
+        recorded.recordDeleted(task, ownerId);
+        return taskRepository.delete(task)
+                .thenReturn(new TaskOperationResult(index, op, HttpStatus.OK.value(), task.getId(), null, null));
+    }
+
+    private Mono<Map<Long, Task>> loadOwnedTasks(Long ownerId, List<TaskOperationRequest> operations) {
+        Set<Long> ids = operations.stream()
+                .filter(operation -> operation.getOp() != TaskOperationRequest.Type.CREATE)
+                .map(TaskOperationRequest::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Mono.just(new HashMap<>());
+        }
+
+        TaskFilter filter = new TaskFilter();
+        filter.setIds(ids);
+        return taskRepository.findByOwner(ownerId, filter)
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private Mono<Set<Long>> loadKnownAssignees(List<TaskOperationRequest> operations) {
+        Set<Long> assigneeIds = operations.stream()
+                .map(TaskOperationRequest::getTask)
+                .filter(Objects::nonNull)
+                .map(Task::getAssigneeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return userRepository.findExistingIds(assigneeIds).collect(Collectors.toSet());
+    }
+
+    private static Mono<TaskOperationResult> failure(int index, TaskOperationRequest.Type op, Long id,
+                                                     HttpStatus status, String error) {
+        return Mono.just(new TaskOperationResult(index, op, status.value(), id, null, error));
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.tasksapi.archive;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.payload.request.LoginRequest;
+import com.example.tasksapi.payload.response.JwtResponse;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import com.example.tasksapi.search.TagIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Ages tasks by backdating completed_at and then runs the archiver directly. The test gets its
+// own database, so the archive tables of other cached test contexts stay untouched.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive",
+        "app.archive.batchSize=2",
+        "app.archive.pauseMs=0"
+})
+@ActiveProfiles("test")
+class TaskArchiverTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String baseUrl;
+    private HttpHeaders headers;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        jdbcTemplate.update("delete from task_archive_tag");
+        jdbcTemplate.update("delete from task_archive");
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+        headers = login();
+    }
+
+    @Test
+    void archiveDue_ShouldMoveOnlyTasksCompletedLongEnoughAgo() throws Exception {
+        // Given
+        List<Long> old = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            old.add(completedDaysAgo(save("Old " + i, true, "work"), 40));
+        }
+        Long recent = completedDaysAgo(save("Recent", true, "work"), 5);
+        Long open = save("Open", false, "work");
+
+        // When
+        int moved = archiver.archiveDue();
+
+        // Then
+        assertThat(moved).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("select id from task order by id", Long.class))
+                .containsExactly(recent, open);
+        assertThat(jdbcTemplate.queryForList("select id from task_archive order by id", Long.class))
+                .containsExactlyElementsOf(old);
+        assertThat(jdbcTemplate.queryForList("select task_id from task_archive_tag where tag = 'work' order by task_id",
+                Long.class)).containsExactlyElementsOf(old);
+        assertThat(tagIndex.match(userId, List.of("work"), TagIndex.Mode.ALL).toArray())
+                .containsExactlyInAnyOrder(recent, open);
+        assertThat(archiver.archiveDue()).isZero();
+    }
+
+    @Test
+    void listings_ShouldIncludeArchivedTasksOnlyWhenAskedTo() throws Exception {
+        // Given
+        Long archived = completedDaysAgo(save("Archived", true, "home"), 40);
+        Long live = save("Live", false, "home");
+        archiver.archiveDue();
+
+        // When
+        JsonNode liveOnly = get("/tasks");
+        JsonNode withArchived = get("/tasks?includeArchived=true&sort=-title");
+        JsonNode openOnly = get("/tasks?includeArchived=true&completed=false");
+        JsonNode tagged = get("/tasks?includeArchived=true&tags=home");
+        JsonNode byIds = get("/tasks?includeArchived=true&ids=" + archived + "," + live);
+
+        // Then
+        assertThat(ids(liveOnly)).containsExactly(live);
+        assertThat(ids(withArchived)).containsExactly(live, archived);
+        assertThat(withArchived.get(0).has("archived")).isFalse();
+        assertThat(withArchived.get(1).get("archived").asBoolean()).isTrue();
+        assertThat(ids(openOnly)).containsExactly(live);
+        assertThat(ids(tagged)).containsExactly(archived, live);
+        assertThat(ids(byIds.get("tasks"))).containsExactly(archived, live);
+        assertThat(byIds.get("missing")).isEmpty();
+    }
+
+    @Test
+    void listings_WithArchived_ShouldKeepTheTitleOrderOfBothSources() throws Exception {
+        // Given
+        Long archivedUntitled = completedDaysAgo(save(null, true, "home"), 40);
+        Long archivedLower = completedDaysAgo(save("alpha", true, "home"), 40);
+        archiver.archiveDue();
+        Long liveUpper = save("Beta", false, "home");
+        Long liveUntitled = save(null, false, "home");
+        Long liveLower = save("beta", false, "home");
+
+        // When
+        JsonNode ascending = get("/tasks?includeArchived=true&sort=title");
+        JsonNode descending = get("/tasks?includeArchived=true&sort=-title");
+
+        // Then
+        assertThat(ids(ascending))
+                .containsExactly(archivedUntitled, liveUntitled, liveUpper, archivedLower, liveLower);
+        assertThat(ids(descending))
+                .containsExactly(liveLower, archivedLower, liveUpper, liveUntitled, archivedUntitled);
+    }
+
+    @Test
+    void completionTime_ShouldFollowTheCompletedFlag() throws Exception {
+        // Given
+        Long id = save("Toggle", true, "misc");
+        assertThat(completedAt(id)).isNotNull();
+        jdbcTemplate.update("update task set completed_at = null where id = ?", id);
+
+        // When
+        archiver.stampUntimed();
+        Instant stamped = completedAt(id);
+        Task task = taskRepository.findById(id).orElseThrow();
+        task.setCompleted(false);
+        taskRepository.save(task);
+
+        // Then
+        assertThat(stamped).isNotNull();
+        assertThat(completedAt(id)).isNull();
+    }
+
+    private Long save(String title, boolean completed, String tag) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setCompleted(completed);
+        task.setOwnerId(userId);
+        task.getTags().add(tag);
+        return taskRepository.save(task).getId();
+    }
+
+    private Long completedDaysAgo(Long id, int days) {
+        jdbcTemplate.update("update task set completed_at = ? where id = ?",
+                Instant.now().minus(Duration.ofDays(days)).atOffset(ZoneOffset.UTC), id);
+        return id;
+    }
+
+    private Instant completedAt(Long id) {
+        OffsetDateTime completedAt = jdbcTemplate.queryForObject("select completed_at from task where id = ?",
+                OffsetDateTime.class, id);
+        return completedAt == null ? null : completedAt.toInstant();
+    }
+
+    private JsonNode get(String path) throws Exception {
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + path, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private static List<Long> ids(JsonNode tasks) {
+        List<Long> ids = new ArrayList<>();
+        tasks.forEach(task -> ids.add(task.get("id").asLong()));
+        return ids;
+    }
+
+    private HttpHeaders login() {
+        User user = new User();
+        user.setUsername("archiveuser");
+        user.setEmail("archive@example.com");
+        user.setPassword(passwordEncoder.encode("password"));
+        userId = userRepository.save(user).getId();
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("archiveuser");
+        loginRequest.setPassword("password");
+        String token = restTemplate.postForEntity(baseUrl + "/api/auth/signin", loginRequest, JwtResponse.class)
+                .getBody().getAccessToken();
+
+        HttpHeaders authHeaders = new HttpHeaders();
+        authHeaders.setBearerAuth(token);
+        return authHeaders;
+    }
+}
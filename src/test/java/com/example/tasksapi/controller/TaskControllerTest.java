@@ -1,25 +1,51 @@
 package com.example.tasksapi.controller;
 
+import com.example.tasksapi.archive.TaskArchive;
+import com.example.tasksapi.deadline.DeadlineExceptionHandler;
+import com.example.tasksapi.history.TaskHistory;
+import com.example.tasksapi.idempotency.IdempotencyHandler;
 import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskFilter;
 import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.TaskSort;
+import com.example.tasksapi.repository.UserRepository;
+import com.example.tasksapi.search.TagIndex;
+import com.example.tasksapi.security.UserDetailsImpl;
+import com.example.tasksapi.service.TaskBatchService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.web.access.ExceptionTranslationFilter;
+import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,6 +56,24 @@ class TaskControllerTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TagIndex tagIndex;
+
+    @Mock
+    private TaskBatchService batchService;
+
+    @Mock
+    private IdempotencyHandler idempotencyHandler;
+
+    @Mock
+    private TaskHistory history;
+
+    @Mock
+    private TaskArchive archive;
+
     @InjectMocks
     private TaskController taskController;
 
@@ -38,8 +82,36 @@ class TaskControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(taskController).build();
+        // Standalone MockMvc skips the Spring context, so apply @PreAuthorize through a proxy
+        // and translate access denials into 403 the way the security filter chain does
+        ProxyFactory proxyFactory = new ProxyFactory(taskController);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+        mockMvc = MockMvcBuilders.standaloneSetup(proxyFactory.getProxy())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new DeadlineExceptionHandler())
+                .addFilters(new ExceptionTranslationFilter(new Http403ForbiddenEntryPoint()))
+                .build();
         objectMapper = new ObjectMapper();
+        ReflectionTestUtils.setField(taskController, "maxBatchIds", 3);
+        ReflectionTestUtils.setField(taskController, "maxBatchOps", 2);
+        ReflectionTestUtils.setField(taskController, "historyPageSize", 10);
+
+        // Authenticate as user 1 so the controller can scope queries to the principal
+        authenticateAs("MEMBER");
+    }
+
+    // @WithMockUser needs the Spring test context, so the role is set on the principal directly
+    private static void authenticateAs(String role) {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "testuser", "test@example.com", "password",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -59,7 +131,7 @@ class TaskControllerTest {
         task2.setCompleted(true);
 
         List<Task> tasks = Arrays.asList(task1, task2);
-        when(taskRepository.findAll()).thenReturn(tasks);
+        when(taskRepository.findByOwner(eq(1L), any(TaskFilter.class))).thenReturn(tasks);
 
         // When & Then
         mockMvc.perform(get("/tasks"))
@@ -70,7 +142,136 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].title").value("Task 2"));
 
-        verify(taskRepository, times(1)).findAll();
+        verify(taskRepository, times(1)).findByOwner(eq(1L), any(TaskFilter.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getAllTasks_WithIncludeArchived_ShouldMergeArchivedTasks() throws Exception {
+        // Given
+        Task live = new Task();
+        live.setId(2L);
+        live.setTitle("Live");
+        Task archived = new Task();
+        archived.setId(1L);
+        archived.setTitle("Archived");
+        archived.setCompleted(true);
+        archived.setArchived(true);
+        when(taskRepository.findByOwner(eq(1L), any(TaskFilter.class))).thenReturn(List.of(live));
+        when(archive.withArchived(eq(1L), any(TaskFilter.class), eq(List.of(live)), any()))
+                .thenReturn(List.of(archived, live));
+
+        // When & Then
+        mockMvc.perform(get("/tasks").param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].archived").value(true))
+                .andExpect(jsonPath("$[1].id").value(2))
+                .andExpect(jsonPath("$[1].archived").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getAllTasks_WithoutIncludeArchived_ShouldNotReadArchive() throws Exception {
+        // Given
+        when(taskRepository.findByOwner(eq(1L), any(TaskFilter.class))).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/tasks"))
+                .andExpect(status().isOk());
+
+        verifyNoInteractions(archive);
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getAllTasks_WithFilterAndSort_ShouldPassThemToRepository() throws Exception {
+        // Given
+        when(taskRepository.findByOwner(eq(1L), any(TaskFilter.class))).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/tasks").param("completed", "false").param("q", "report").param("sort", "-title"))
+                .andExpect(status().isOk());
+
+        verify(taskRepository, times(1)).findByOwner(eq(1L), argThat(filter ->
+                Boolean.FALSE.equals(filter.getCompleted())
+                        && "report".equals(filter.getText())
+                        && filter.getSort() == TaskSort.TITLE
+                        && filter.isDescending()));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getAllTasks_WithUnsupportedSort_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/tasks").param("sort", "description"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskRepository, never()).findByOwner(anyLong(), any(TaskFilter.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getAllTasks_WithTags_ShouldRestrictToTagMatches() throws Exception {
+        // Given
+        when(tagIndex.match(1L, List.of("backend", "urgent"), TagIndex.Mode.ANY))
+                .thenReturn(Roaring64Bitmap.bitmapOf(3, 7));
+        when(taskRepository.findByOwner(eq(1L), any(TaskFilter.class))).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/tasks").param("tags", "Backend,urgent").param("mode", "any"))
+                .andExpect(status().isOk());
+
+        verify(taskRepository, times(1)).findByOwner(eq(1L), argThat(filter ->
+                filter.getIds().containsAll(List.of(3L, 7L)) && filter.getIds().size() == 2));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getAllTasks_WithUnmatchedTags_ShouldNotQueryRepository() throws Exception {
+        // Given
+        when(tagIndex.match(1L, List.of("missing"), TagIndex.Mode.ALL)).thenReturn(new Roaring64Bitmap());
+
+        // When & Then
+        mockMvc.perform(get("/tasks").param("tags", "missing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verify(taskRepository, never()).findByOwner(anyLong(), any(TaskFilter.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getTasksByIds_ShouldReturnTasksInRequestOrderAndReportMissing() throws Exception {
+        // Given
+        Task task1 = new Task();
+        task1.setId(1L);
+        task1.setTitle("Task 1");
+
+        Task task3 = new Task();
+        task3.setId(3L);
+        task3.setTitle("Task 3");
+
+        when(taskRepository.findByOwner(eq(1L), any(TaskFilter.class))).thenReturn(List.of(task1, task3));
+
+        // When & Then
+        mockMvc.perform(get("/tasks").param("ids", "3,2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].id").value(3))
+                .andExpect(jsonPath("$.tasks[1].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(2));
+
+        verify(taskRepository, times(1)).findByOwner(eq(1L), argThat(filter -> filter.getIds().size() == 3));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getTasksByIds_OverLimit_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/tasks").param("ids", "1,2,3,4"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskRepository, never()).findByOwner(anyLong(), any(TaskFilter.class));
     }
 
     @Test
@@ -100,7 +301,78 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.description").value("New Description"))
                 .andExpect(jsonPath("$.completed").value(false));
 
-        verify(taskRepository, times(1)).save(any(Task.class));
+        verify(taskRepository, times(1)).save(argThat(task -> task.getOwnerId().equals(1L)));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void createTask_WithUnknownAssignee_ShouldReturnBadRequest() throws Exception {
+        // Given
+        Task taskToCreate = new Task();
+        taskToCreate.setTitle("New Task");
+        taskToCreate.setAssigneeId(42L);
+
+        when(userRepository.existsById(42L)).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(taskToCreate)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: Assignee does not exist!"));
+
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void applyOperations_ShouldDelegateToBatchService() throws Exception {
+        // Given
+        String operations = "[{\"op\":\"create\",\"task\":{\"title\":\"New Task\"}},{\"op\":\"delete\",\"id\":5}]";
+
+        // When & Then
+        mockMvc.perform(post("/tasks/ops")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(operations))
+                .andExpect(status().isOk());
+
+        verify(batchService, times(1)).apply(eq(1L), eq(false), argThat(ops -> ops.size() == 2));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void applyOperations_OverLimit_ShouldReturnBadRequest() throws Exception {
+        // Given
+        String operations = "[{\"op\":\"delete\",\"id\":1},{\"op\":\"delete\",\"id\":2},{\"op\":\"delete\",\"id\":3}]";
+
+        // When & Then
+        mockMvc.perform(post("/tasks/ops")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(operations))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(batchService);
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void createTask_WithIdempotencyKey_ShouldGoThroughIdempotencyHandler() throws Exception {
+        // Given
+        Task taskToCreate = new Task();
+        taskToCreate.setTitle("New Task");
+
+        doReturn(ResponseEntity.ok().build())
+                .when(idempotencyHandler).execute(eq(1L), eq("retry-1"), any(Task.class), any());
+
+        // When & Then
+        mockMvc.perform(post("/tasks")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(taskToCreate)))
+                .andExpect(status().isOk());
+
+        verify(idempotencyHandler, times(1)).execute(eq(1L), eq("retry-1"), any(Task.class), any());
+        verify(taskRepository, never()).save(any(Task.class));
     }
 
     @Test
@@ -113,7 +385,7 @@ class TaskControllerTest {
         task.setDescription("Description 1");
         task.setCompleted(false);
 
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        when(taskRepository.findByIdAndOwnerId(1L, 1L)).thenReturn(Optional.of(task));
 
         // When & Then
         mockMvc.perform(get("/tasks/1"))
@@ -123,20 +395,32 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.description").value("Description 1"))
                 .andExpect(jsonPath("$.completed").value(false));
 
-        verify(taskRepository, times(1)).findById(1L);
+        verify(taskRepository, times(1)).findByIdAndOwnerId(1L, 1L);
     }
 
     @Test
     @WithMockUser(roles = "MEMBER")
     void getTaskById_WhenTaskNotFound_ShouldReturnNotFound() throws Exception {
         // Given
-        when(taskRepository.findById(999L)).thenReturn(Optional.empty());
+        when(taskRepository.findByIdAndOwnerId(999L, 1L)).thenReturn(Optional.empty());
 
         // When & Then
         mockMvc.perform(get("/tasks/999"))
                 .andExpect(status().isNotFound());
 
-        verify(taskRepository, times(1)).findById(999L);
+        verify(taskRepository, times(1)).findByIdAndOwnerId(999L, 1L);
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getTaskById_WhenDeadlineExceeded_ShouldReturnGatewayTimeout() throws Exception {
+        // Given
+        when(taskRepository.findByIdAndOwnerId(1L, 1L)).thenThrow(new QueryTimeoutException("Query timed out"));
+
+        // When & Then
+        mockMvc.perform(get("/tasks/1"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.message").value("Error: Request deadline exceeded!"));
     }
 
     @Test
@@ -155,7 +439,7 @@ class TaskControllerTest {
         updatedTask.setDescription("Updated Description");
         updatedTask.setCompleted(true);
 
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.findByIdAndOwnerId(1L, 1L)).thenReturn(Optional.of(existingTask));
         when(taskRepository.save(any(Task.class))).thenReturn(updatedTask);
 
         // When & Then
@@ -168,7 +452,7 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.description").value("Updated Description"))
                 .andExpect(jsonPath("$.completed").value(true));
 
-        verify(taskRepository, times(1)).findById(1L);
+        verify(taskRepository, times(1)).findByIdAndOwnerId(1L, 1L);
         verify(taskRepository, times(1)).save(any(Task.class));
     }
 
@@ -176,38 +460,52 @@ class TaskControllerTest {
     @WithMockUser(roles = "ADMIN")
     void deleteTask_ShouldDeleteTask() throws Exception {
         // Given
+        authenticateAs("ADMIN");
         Task task = new Task();
         task.setId(1L);
         task.setTitle("Test Task");
         task.setDescription("Test Description");
         task.setCompleted(false);
 
-        when(taskRepository.existsById(1L)).thenReturn(true);
+        when(taskRepository.findByIdAndOwnerId(1L, 1L)).thenReturn(Optional.of(task));
 
         // When & Then
         mockMvc.perform(delete("/tasks/1"))
                 .andExpect(status().isOk());
 
-        verify(taskRepository, times(1)).existsById(1L);
-        verify(taskRepository, times(1)).deleteById(1L);
+        verify(taskRepository, times(1)).findByIdAndOwnerId(1L, 1L);
+        verify(taskRepository, times(1)).delete(task);
     }
 
     @Test
     @WithMockUser(roles = "MEMBER")
-    void deleteTask_WhenNotAdmin_ShouldBeForbidden() throws Exception {
+    void getTaskHistory_OverLimit_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/tasks/1/history").param("limit", "11"))
+                .andExpect(status().isBadRequest());
+
+        verify(history, never()).events(anyLong(), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void getTaskHistory_WhenTaskHasNoHistory_ShouldReturnNotFound() throws Exception {
         // Given
-        Task task = new Task();
-        task.setId(1L);
-        task.setTitle("Test Task");
-        task.setDescription("Test Description");
-        task.setCompleted(false);
+        when(history.events(1L, 1L, 0L, 10)).thenReturn(List.of());
 
-        when(taskRepository.existsById(1L)).thenReturn(true);
+        // When & Then
+        mockMvc.perform(get("/tasks/1/history"))
+                .andExpect(status().isNotFound());
+    }
 
+    @Test
+    @WithMockUser(roles = "MEMBER")
+    void deleteTask_WhenNotAdmin_ShouldBeForbidden() throws Exception {
         // When & Then
         mockMvc.perform(delete("/tasks/1"))
                 .andExpect(status().isForbidden());
 
-        verify(taskRepository, never()).deleteById(any());
+        verify(taskRepository, never()).findByIdAndOwnerId(anyLong(), anyLong());
+        verify(taskRepository, never()).delete(any(Task.class));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.tasksapi.deadline;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineAwareDataSourceTest {
+
+    private DeadlineAwareDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:deadlines;DB_CLOSE_DELAY=-1");
+        dataSource = new DeadlineAwareDataSource(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void prepareStatement_WithoutDeadline_ShouldLeaveTimeoutUnset() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            assertThat(statement.getQueryTimeout()).isZero();
+        }
+    }
+
+    @Test
+    void prepareStatement_ShouldApplyRemainingBudgetRoundedUp() throws Exception {
+        // Given
+        RequestDeadline.set(Duration.ofMillis(2500));
+
+        // When & Then
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            assertThat(statement.getQueryTimeout()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void prepareStatement_WhenDeadlinePassed_ShouldRefuse() throws Exception {
+        // Given
+        RequestDeadline.set(Duration.ZERO);
+
+        // When & Then
+        try (Connection connection = dataSource.getConnection()) {
+            assertThatThrownBy(() -> connection.prepareStatement("SELECT 1"))
+                    .isInstanceOf(SQLTimeoutException.class);
+            assertThatThrownBy(connection::createStatement)
+                    .isInstanceOf(SQLTimeoutException.class);
+        }
+    }
+
+    @Test
+    void unwrap_ShouldReachTargetDataSource() throws Exception {
+        assertThat(dataSource.isWrapperFor(JdbcDataSource.class)).isTrue();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.tasksapi.embedded;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.TaskRepositoryContractTest;
+import com.example.tasksapi.search.TaskIndexMaintainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EmbeddedTaskRepositoryTest extends TaskRepositoryContractTest {
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedTaskStore store;
+    private EmbeddedTaskRepository repository;
+    private long lastUserId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void openStore() throws IOException {
+        store = EmbeddedTaskStore.open(directory, 64 * 1024, false, 0);
+        repository = new EmbeddedTaskRepository(store, mock(ObjectProvider.class), mock(ObjectProvider.class),
+                mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void closeStore() throws IOException {
+        store.close();
+    }
+
+    @Override
+    protected TaskRepository repository() {
+        return repository;
+    }
+
+    @Override
+    protected Task persist(Task task) {
+        task.setId(store.nextId());
+        store.apply(List.of(EmbeddedTaskStore.Write.save(EmbeddedTaskStore.copy(task))));
+        return task;
+    }
+
+    @Override
+    protected Task findStored(Long id) {
+        return store.get(id);
+    }
+
+    // Users live in the relational database; the store only keeps their ids
+    @Override
+    protected Long persistUser(String username) {
+        return ++lastUserId;
+    }
+
+    @Test
+    void findById_ShouldReturnCopyOfStoredTask() {
+        // Given
+        Task task = new Task();
+        task.setTitle("Original");
+        Long id = repository.save(task).getId();
+
+        // When
+        repository.findById(id).orElseThrow().setTitle("Changed without saving");
+        task.setTitle("Changed after saving");
+
+        // Then
+        assertThat(repository.findById(id).orElseThrow().getTitle()).isEqualTo("Original");
+    }
+
+    @Test
+    void save_InsideTransaction_ShouldOnlyApplyOnCommit() {
+        // Given
+        Task committed = new Task();
+        committed.setTitle("Committed");
+        Task rolledBack = new Task();
+        rolledBack.setTitle("Rolled back");
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repository.save(committed);
+            assertThat(repository.findById(committed.getId())).isEmpty();
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repository.save(rolledBack);
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertThat(repository.findById(committed.getId())).isPresent();
+        assertThat(repository.findById(rolledBack.getId())).isEmpty();
+        assertThat(repository.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.tasksapi.embedded;
+
+import com.example.tasksapi.model.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddedTaskStoreTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_AfterCrash_ShouldReplayLoggedWrites() throws IOException {
+        // Given: a store that is never closed, as if the process had died
+        EmbeddedTaskStore crashed = EmbeddedTaskStore.open(directory, SEGMENT_BYTES, false, 0);
+        crashed.apply(List.of(save(crashed, "First", 7L), save(crashed, "Second", 7L)));
+        crashed.apply(List.of(EmbeddedTaskStore.Write.delete(1)));
+        Task third = task(crashed, "Third", 8L);
+        third.getTags().add("urgent");
+        crashed.apply(List.of(EmbeddedTaskStore.Write.save(third)));
+
+        // When
+        EmbeddedTaskStore recovered = EmbeddedTaskStore.open(directory, SEGMENT_BYTES, false, 0);
+
+        // Then
+        assertThat(recovered.size()).isEqualTo(2);
+        assertThat(recovered.get(1)).isNull();
+        assertThat(recovered.get(2).getTitle()).isEqualTo("Second");
+        assertThat(recovered.get(3).getTags()).containsExactly("urgent");
+        assertThat(recovered.ownedBy(7L)).extracting(Task::getTitle).containsExactly("Second");
+        assertThat(recovered.nextId()).isEqualTo(4);
+        recovered.close();
+    }
+
+    @Test
+    void snapshot_ShouldReplaceOlderSegments() throws IOException {
+        // Given
+        EmbeddedTaskStore store = EmbeddedTaskStore.open(directory, SEGMENT_BYTES, false, 0);
+        store.apply(List.of(save(store, "Before snapshot", 1L)));
+        store.snapshot();
+        store.apply(List.of(save(store, "After snapshot", 1L)));
+
+        // When
+        EmbeddedTaskStore recovered = EmbeddedTaskStore.open(directory, SEGMENT_BYTES, false, 0);
+
+        // Then
+        assertThat(recovered.ownedBy(1L)).extracting(Task::getTitle)
+                .containsExactlyInAnyOrder("Before snapshot", "After snapshot");
+        assertThat(files()).containsExactlyInAnyOrder("snapshot-00000000000000000002.bin",
+                "wal-00000000000000000002.log");
+        recovered.close();
+    }
+
+    @Test
+    void apply_WhenSegmentIsFull_ShouldContinueInNextSegment() throws IOException {
+        // Given
+        EmbeddedTaskStore store = EmbeddedTaskStore.open(directory, 1024, false, 0);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            store.apply(List.of(save(store, "Task " + i, 1L)));
+        }
+        EmbeddedTaskStore recovered = EmbeddedTaskStore.open(directory, 1024, false, 0);
+
+        // Then
+        assertThat(files()).hasSizeGreaterThan(1);
+        assertThat(recovered.size()).isEqualTo(100);
+        recovered.close();
+    }
+
+    @Test
+    void open_ShouldStopAtTornRecordAndAppendAfterLastIntactOne() throws IOException {
+        // Given: the last record of the log is damaged
+        EmbeddedTaskStore crashed = EmbeddedTaskStore.open(directory, SEGMENT_BYTES, false, 0);
+        crashed.apply(List.of(save(crashed, "Intact", 1L)));
+        crashed.apply(List.of(save(crashed, "Torn", 1L)));
+        corruptLastByte(directory.resolve("wal-00000000000000000001.log"));
+
+        // When
+        EmbeddedTaskStore recovered = EmbeddedTaskStore.open(directory, SEGMENT_BYTES, false, 0);
+        recovered.apply(List.of(save(recovered, "Written after recovery", 1L)));
+        EmbeddedTaskStore recoveredAgain = EmbeddedTaskStore.open(directory, SEGMENT_BYTES, false, 0);
+
+        // Then
+        assertThat(recoveredAgain.ownedBy(1L)).extracting(Task::getTitle)
+                .containsExactlyInAnyOrder("Intact", "Written after recovery");
+        recoveredAgain.close();
+    }
+
+    private static EmbeddedTaskStore.Write save(EmbeddedTaskStore store, String title, Long ownerId) {
+        return EmbeddedTaskStore.Write.save(task(store, title, ownerId));
+    }
+
+    private static Task task(EmbeddedTaskStore store, String title, Long ownerId) {
+        Task task = new Task();
+        task.setId(store.nextId());
+        task.setTitle(title);
+        task.setOwnerId(ownerId);
+        return task;
+    }
+
+    private Set<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return Set.copyOf(files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    // Flips the last non-zero byte of the log, which belongs to its last record
+    private static void corruptLastByte(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer contents = ByteBuffer.allocate((int) channel.size());
+            channel.read(contents, 0);
+            int last = contents.capacity() - 1;
+            while (contents.get(last) == 0) {
+                last--;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~contents.get(last)}), last);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.tasksapi.history;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskEventRepository;
+import com.example.tasksapi.repository.TaskHistorySnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskHistoryBatchTest {
+
+    @Mock
+    private TaskHistoryWriter writer;
+
+    @Mock
+    private TaskEventRepository eventRepository;
+
+    @Mock
+    private TaskHistorySnapshotRepository snapshotRepository;
+
+    private TaskHistory history;
+
+    @BeforeEach
+    void setUp() {
+        history = new TaskHistory(writer, eventRepository, snapshotRepository, new ObjectMapper());
+    }
+
+    @Test
+    void trySubmit_WhenQueueFills_ShouldKeepTheRestForSubmit() {
+        // Given
+        TaskHistory.Batch batch = history.batch();
+        batch.recordCreated(task(1L), 7L);
+        batch.recordCreated(task(2L), 7L);
+        batch.recordCreated(task(3L), 7L);
+        when(writer.offer(any())).thenReturn(true, false);
+
+        // When
+        boolean submitted = batch.trySubmit();
+        batch.submit();
+
+        // Then
+        assertThat(submitted).isFalse();
+        ArgumentCaptor<TaskHistoryWriter.PendingEvent> enqueued = ArgumentCaptor.forClass(TaskHistoryWriter.PendingEvent.class);
+        verify(writer, times(2)).enqueue(enqueued.capture());
+        assertThat(enqueued.getAllValues()).extracting(TaskHistoryWriter.PendingEvent::taskId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void trySubmit_WhenQueueHasRoom_ShouldNotBlock() {
+        // Given
+        TaskHistory.Batch batch = history.batch();
+        batch.recordDeleted(task(1L), 7L);
+        when(writer.offer(any())).thenReturn(true);
+
+        // When
+        boolean submitted = batch.trySubmit();
+        batch.submit();
+
+        // Then
+        assertThat(submitted).isTrue();
+        verify(writer, never()).enqueue(any());
+    }
+
+    private static Task task(Long id) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("Task " + id);
+        task.setOwnerId(7L);
+        return task;
+    }
+}
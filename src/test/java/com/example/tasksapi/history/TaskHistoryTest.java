@@ -0,0 +1,95 @@
+package com.example.tasksapi.history;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskHistorySnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.history.snapshotEvery=2")
+@ActiveProfiles("test")
+class TaskHistoryTest {
+    private static final Long OWNER_ID = 7L;
+    private static final Long ACTOR_ID = 8L;
+
+    @Autowired
+    private TaskHistory history;
+
+    @Autowired
+    private TaskHistoryWriter writer;
+
+    @Autowired
+    private TaskHistorySnapshotRepository snapshotRepository;
+
+    @Test
+    void stateAt_ShouldReplayEventsOnTopOfTheLatestSnapshot() throws Exception {
+        // Given
+        Task task = new Task();
+        task.setId(9001L);
+        task.setOwnerId(OWNER_ID);
+        task.setTitle("Title 0");
+        history.recordCreated(task, ACTOR_ID);
+        for (int i = 1; i <= 4; i++) {
+            rename(task, "Title " + i);
+        }
+        Instant afterFourthTitle = pause();
+        task.setTags(Set.of("audit"));
+        rename(task, "Title 5");
+        assertThat(writer.awaitWritten(Duration.ofSeconds(10))).isTrue();
+
+        // When
+        Optional<Task> past = history.stateAt(9001L, OWNER_ID, afterFourthTitle);
+        Optional<Task> current = history.stateAt(9001L, OWNER_ID, Instant.now());
+        Optional<Task> otherOwner = history.stateAt(9001L, OWNER_ID + 1, Instant.now());
+
+        // Then
+        assertThat(snapshotRepository.findFirstByTaskIdAndOwnerIdAndOccurredAtLessThanEqualOrderByEventIdDesc(
+                9001L, OWNER_ID, Instant.now())).isPresent();
+        assertThat(past).get().extracting(Task::getTitle).isEqualTo("Title 4");
+        assertThat(past.get().getTags()).isEmpty();
+        assertThat(current).get().extracting(Task::getTitle).isEqualTo("Title 5");
+        assertThat(current.get().getTags()).containsExactly("audit");
+        assertThat(current.get().getOwnerId()).isEqualTo(OWNER_ID);
+        assertThat(otherOwner).isEmpty();
+    }
+
+    @Test
+    void recordUpdated_WithoutChanges_ShouldNotRecordAnEvent() throws Exception {
+        // Given
+        Task task = new Task();
+        task.setId(9002L);
+        task.setOwnerId(OWNER_ID);
+        task.setTitle("Unchanged");
+        history.recordCreated(task, ACTOR_ID);
+
+        // When
+        history.recordUpdated(task, history.stateOf(task), ACTOR_ID);
+        assertThat(writer.awaitWritten(Duration.ofSeconds(10))).isTrue();
+
+        // Then
+        assertThat(history.events(9002L, OWNER_ID, 0, 10)).hasSize(1);
+    }
+
+    private void rename(Task task, String title) {
+        Map<String, Object> before = history.stateOf(task);
+        task.setTitle(title);
+        history.recordUpdated(task, before, ACTOR_ID);
+    }
+
+    // Keeps the returned instant strictly between the events recorded around it
+    private static Instant pause() throws InterruptedException {
+        Thread.sleep(5);
+        Instant now = Instant.now();
+        Thread.sleep(5);
+        return now;
+    }
+}
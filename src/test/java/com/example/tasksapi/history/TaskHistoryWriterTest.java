@@ -0,0 +1,86 @@
+package com.example.tasksapi.history;
+
+import com.example.tasksapi.model.TaskEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskHistoryWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TaskHistoryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new TaskHistoryWriter(jdbcTemplate, transactionManager, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writer, "snapshotEvery", 2);
+    }
+
+    @Test
+    void write_WhenABatchIsRetried_ShouldCountItsEventsOnce() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<TaskHistoryWriter.PendingEvent>anyCollection(), anyInt(),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<TaskHistoryWriter.PendingEvent>>any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection lost"))
+                .thenReturn(new int[0][]);
+        List<TaskHistoryWriter.PendingEvent> batch = List.of(event(TaskEvent.Type.UPDATED));
+        assertThatThrownBy(() -> writer.write(batch)).isInstanceOf(DataAccessResourceFailureException.class);
+
+        // When
+        writer.write(batch);
+
+        // Then
+        // The event is the task's first, so a snapshot is only due after the next one
+        verify(jdbcTemplate, never()).update(startsWith("insert into task_history_snapshot"), any(Object[].class));
+    }
+
+    @Test
+    void write_WhenTaskIsNotTracked_ShouldCountItsEventsSinceTheLastSnapshotInTheDatabase() throws Exception {
+        // Given
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(1L);
+        when(resultSet.getInt(2)).thenReturn(1);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("select e.task_id"), any(RowCallbackHandler.class), any(Object[].class));
+
+        // When
+        writer.write(List.of(event(TaskEvent.Type.UPDATED)));
+
+        // Then
+        // One event was written before a restart, so this one completes the snapshot interval
+        verify(jdbcTemplate).update(startsWith("insert into task_history_snapshot"), any(Object[].class));
+    }
+
+    private static TaskHistoryWriter.PendingEvent event(TaskEvent.Type type) {
+        return new TaskHistoryWriter.PendingEvent(1L, 7L, 7L, type, Instant.now(), Map.of("title", "Renamed"),
+                Map.of("title", "Renamed"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.tasksapi.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedIdempotencyStoreTest {
+
+    @Test
+    void reserveOrGet_ShouldReserveUnknownKey() {
+        // Given
+        StripedIdempotencyStore store = new StripedIdempotencyStore(100, 60_000, 4);
+
+        // When
+        Optional<IdempotencyRecord> first = store.reserveOrGet("1:key", "fp");
+        Optional<IdempotencyRecord> second = store.reserveOrGet("1:key", "fp");
+
+        // Then
+        assertThat(first).isEmpty();
+        assertThat(second).isPresent();
+        assertThat(second.get().isCompleted()).isFalse();
+    }
+
+    @Test
+    void complete_ShouldMakeResponseAvailableForReplay() {
+        // Given
+        StripedIdempotencyStore store = new StripedIdempotencyStore(100, 60_000, 4);
+        store.reserveOrGet("1:key", "fp");
+
+        // When
+        store.complete("1:key", IdempotencyRecord.completed("fp", 200, "{\"id\":1}"));
+
+        // Then
+        IdempotencyRecord record = store.reserveOrGet("1:key", "fp").orElseThrow();
+        assertThat(record.isCompleted()).isTrue();
+        assertThat(record.getStatus()).isEqualTo(200);
+        assertThat(record.getBody()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void release_ShouldAllowKeyToBeReservedAgain() {
+        // Given
+        StripedIdempotencyStore store = new StripedIdempotencyStore(100, 60_000, 4);
+        store.reserveOrGet("1:key", "fp");
+
+        // When
+        store.release("1:key");
+
+        // Then
+        assertThat(store.reserveOrGet("1:key", "fp")).isEmpty();
+    }
+
+    @Test
+    void reserveOrGet_ShouldIgnoreExpiredEntries() {
+        // Given
+        MutableClock clock = new MutableClock();
+        StripedIdempotencyStore store = new StripedIdempotencyStore(100, 1_000, 4, clock);
+        store.reserveOrGet("1:key", "fp");
+        store.complete("1:key", IdempotencyRecord.completed("fp", 200, "{}"));
+
+        // When
+        clock.advance(1_001);
+
+        // Then
+        assertThat(store.reserveOrGet("1:key", "fp")).isEmpty();
+    }
+
+    @Test
+    void store_ShouldStayBounded() {
+        // Given
+        StripedIdempotencyStore store = new StripedIdempotencyStore(8, 60_000, 2);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            store.reserveOrGet("1:key-" + i, "fp");
+        }
+
+        // Then
+        assertThat(store.size()).isLessThanOrEqualTo(8);
+        assertThat(store.reserveOrGet("1:key-99", "fp")).isPresent();
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long deltaMs) {
+            millis += deltaMs;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+    }
+}
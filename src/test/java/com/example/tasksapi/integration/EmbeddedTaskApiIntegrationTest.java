@@ -0,0 +1,29 @@
+package com.example.tasksapi.integration;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+// Runs the API tests of TaskApiIntegrationTest with tasks in the embedded store, whose log
+// goes to a temporary directory. The statement budgets hold trivially, as task access no
+// longer issues SQL.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:embeddeddb",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.hbm2ddl.auto=create-drop"
+})
+@ActiveProfiles({"test", "embedded"})
+class EmbeddedTaskApiIntegrationTest extends TaskApiIntegrationTest {
+
+    @TempDir
+    static Path storeDirectory;
+
+    @DynamicPropertySource
+    static void storeProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.embedded.directory", storeDirectory::toString);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.tasksapi.integration;
+
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.payload.request.LoginRequest;
+import com.example.tasksapi.payload.response.JwtResponse;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureObservability
+class MetricsIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeRequestAuthAndDatabaseMetrics() {
+        // Given
+        User user = new User();
+        user.setUsername("metricsuser");
+        user.setEmail("metrics@example.com");
+        user.setPassword(passwordEncoder.encode("password"));
+        user.setRole(User.Role.ADMIN);
+        userRepository.save(user);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("metricsuser");
+        loginRequest.setPassword("password");
+        String token = restTemplate.postForEntity(baseUrl + "/api/auth/signin", loginRequest, JwtResponse.class)
+                .getBody().getAccessToken();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        restTemplate.exchange(baseUrl + "/tasks", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // When
+        ResponseEntity<String> anonymous = restTemplate.getForEntity(baseUrl + "/actuator/prometheus", String.class);
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/actuator/prometheus", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        // Then
+        assertThat(anonymous.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/tasks\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("auth_jwt_verification_seconds_count")
+                .contains("auth_password_hash_seconds_count{operation=\"matches\"")
+                .contains("hikaricp_connections_active")
+                .contains("hikaricp_connections_pending")
+                .contains("hibernate_query_executions_total");
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.tasksapi.integration;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Runs the API tests of TaskApiIntegrationTest with tasks spread over two in-memory H2
+// shards. The statement budgets hold trivially, as the shards are not queried through
+// Hibernate.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardeddb",
+        "app.sharding.urls=jdbc:h2:mem:sharded0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:sharded1;DB_CLOSE_DELAY=-1",
+        "app.sharding.username=sa",
+        "app.sharding.password="
+})
+@ActiveProfiles({"test", "sharded"})
+class ShardedTaskApiIntegrationTest extends TaskApiIntegrationTest {
+}
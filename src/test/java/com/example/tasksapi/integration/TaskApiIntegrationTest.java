@@ -1,11 +1,16 @@
 package com.example.tasksapi.integration;
 
+import com.example.tasksapi.deadline.DeadlineFilter;
+import com.example.tasksapi.history.TaskHistoryWriter;
 import com.example.tasksapi.model.Task;
 import com.example.tasksapi.model.User;
 import com.example.tasksapi.payload.request.LoginRequest;
 import com.example.tasksapi.payload.response.JwtResponse;
 import com.example.tasksapi.repository.TaskRepository;
 import com.example.tasksapi.repository.UserRepository;
+import com.example.tasksapi.support.SqlStatementCounter;
+import com.example.tasksapi.timing.ServerTimingFilter;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,13 +22,18 @@ import org.springframework.http.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
 class TaskApiIntegrationTest {
+    // Every authenticated request first loads its user in AuthTokenFilter
+    private static final int AUTH_STATEMENTS = 1;
 
     @LocalServerPort
     private int port;
@@ -40,9 +50,13 @@ class TaskApiIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TaskHistoryWriter historyWriter;
+
     private ObjectMapper objectMapper;
     private String baseUrl;
     private String jwtToken;
+    private Long userId;
 
     @BeforeEach
     void setUp() {
@@ -64,7 +78,7 @@ class TaskApiIntegrationTest {
         user.setEmail("test@example.com");
         user.setPassword(passwordEncoder.encode("password"));
         user.setRole(User.Role.ADMIN); // Set as ADMIN to allow delete operations
-        userRepository.save(user);
+        userId = userRepository.save(user).getId();
 
         // Login to get JWT token
         LoginRequest loginRequest = new LoginRequest();
@@ -88,12 +102,14 @@ class TaskApiIntegrationTest {
         task1.setTitle("Test Task 1");
         task1.setDescription("Description 1");
         task1.setCompleted(false);
+        task1.setOwnerId(userId);
         taskRepository.save(task1);
 
         Task task2 = new Task();
         task2.setTitle("Test Task 2");
         task2.setDescription("Description 2");
         task2.setCompleted(true);
+        task2.setOwnerId(userId);
         taskRepository.save(task2);
 
         // When
@@ -101,12 +117,12 @@ class TaskApiIntegrationTest {
         headers.setBearerAuth(jwtToken);
         HttpEntity<String> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<Task[]> response = restTemplate.exchange(
+        ResponseEntity<Task[]> response = SqlStatementCounter.expectAtMost(AUTH_STATEMENTS + 2, () -> restTemplate.exchange(
                 baseUrl + "/tasks",
                 HttpMethod.GET,
                 entity,
                 Task[].class
-        );
+        ));
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -116,6 +132,86 @@ class TaskApiIntegrationTest {
                 .containsExactlyInAnyOrder("Test Task 1", "Test Task 2");
     }
 
+    @Test
+    void getAllTasks_WhenDeadlineAlreadySpent_ShouldReturnGatewayTimeout() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        headers.set(DeadlineFilter.HEADER, "0");
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        // When
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/tasks",
+                HttpMethod.GET,
+                entity,
+                String.class
+        );
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(response.getBody()).contains("Request deadline exceeded");
+    }
+
+    @Test
+    void getAllTasks_WithServerTimingToken_ShouldReportPhases() {
+        // Given
+        Task task = new Task();
+        task.setTitle("Timed Task");
+        task.setOwnerId(userId);
+        taskRepository.save(task);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        headers.set(ServerTimingFilter.REQUEST_HEADER, "test-timing-token");
+
+        // When
+        ResponseEntity<Task[]> timed = restTemplate.exchange(
+                baseUrl + "/tasks", HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+        headers.remove(ServerTimingFilter.REQUEST_HEADER);
+        ResponseEntity<Task[]> untimed = restTemplate.exchange(
+                baseUrl + "/tasks", HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+
+        // Then
+        assertThat(timed.getBody()).hasSize(1);
+        assertThat(timed.getHeaders().getFirst(ServerTimingFilter.HEADER))
+                .containsPattern("^jwt;dur=[0-9.]+, user;dur=[0-9.]+, db;dur=[0-9.]+;desc=\"[1-9][0-9]* statements\", "
+                        + "ser;dur=[0-9.]+, total;dur=[0-9.]+$");
+        assertThat(untimed.getHeaders().containsKey(ServerTimingFilter.HEADER)).isFalse();
+    }
+
+    @Test
+    void getTasksByIds_ShouldReturnRequestedTasks() {
+        // Given
+        Task task1 = new Task();
+        task1.setTitle("Batch Task 1");
+        task1.setOwnerId(userId);
+        Task saved1 = taskRepository.save(task1);
+
+        Task task2 = new Task();
+        task2.setTitle("Batch Task 2");
+        task2.setOwnerId(userId);
+        Task saved2 = taskRepository.save(task2);
+
+        long unknownId = saved2.getId() + 1000;
+
+        // When
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/tasks?ids=" + saved2.getId() + "," + unknownId + "," + saved1.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        );
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("\"missing\":[" + unknownId + "]")
+                .containsSubsequence("Batch Task 2", "Batch Task 1");
+    }
+
     @Test
     void createTask_ShouldCreateNewTask() {
         // Given
@@ -130,12 +226,12 @@ class TaskApiIntegrationTest {
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<Task> entity = new HttpEntity<>(taskToCreate, headers);
 
-        ResponseEntity<Task> response = restTemplate.exchange(
+        ResponseEntity<Task> response = SqlStatementCounter.expectAtMost(AUTH_STATEMENTS + 1, () -> restTemplate.exchange(
                 baseUrl + "/tasks",
                 HttpMethod.POST,
                 entity,
                 Task.class
-        );
+        ));
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -149,6 +245,72 @@ class TaskApiIntegrationTest {
         List<Task> allTasks = taskRepository.findAll();
         assertThat(allTasks).hasSize(1);
         assertThat(allTasks.get(0).getTitle()).isEqualTo("New Task");
+        assertThat(allTasks.get(0).getOwnerId()).isEqualTo(userId);
+    }
+
+    @Test
+    void tasksOfOtherOwners_ShouldNotBeVisible() {
+        // Given
+        User other = new User("otheruser", "other@example.com", passwordEncoder.encode("password"));
+        Long otherId = userRepository.save(other).getId();
+
+        Task foreignTask = new Task();
+        foreignTask.setTitle("Foreign Task");
+        foreignTask.setOwnerId(otherId);
+        Task savedTask = taskRepository.save(foreignTask);
+
+        // When
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        ResponseEntity<Task[]> listResponse = restTemplate.exchange(
+                baseUrl + "/tasks",
+                HttpMethod.GET,
+                entity,
+                Task[].class
+        );
+        ResponseEntity<String> getResponse = restTemplate.exchange(
+                baseUrl + "/tasks/" + savedTask.getId(),
+                HttpMethod.GET,
+                entity,
+                String.class
+        );
+
+        // Then
+        assertThat(listResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(listResponse.getBody()).isEmpty();
+        assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void createTask_WithIdempotencyKey_ShouldNotCreateDuplicates() {
+        // Given
+        Task taskToCreate = new Task();
+        taskToCreate.setTitle("Retried Task");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Idempotency-Key", "create-retried-task");
+        HttpEntity<Task> entity = new HttpEntity<>(taskToCreate, headers);
+
+        // When
+        ResponseEntity<Task> first = restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST, entity, Task.class);
+        ResponseEntity<Task> retry = restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST, entity, Task.class);
+
+        Task different = new Task();
+        different.setTitle("Different Task");
+        ResponseEntity<String> reused = restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST,
+                new HttpEntity<>(different, headers), String.class);
+
+        // Then
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getBody().getId()).isEqualTo(first.getBody().getId());
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(taskRepository.findAll()).hasSize(1);
     }
 
     @Test
@@ -158,6 +320,7 @@ class TaskApiIntegrationTest {
         task.setTitle("Test Task");
         task.setDescription("Test Description");
         task.setCompleted(false);
+        task.setOwnerId(userId);
         Task savedTask = taskRepository.save(task);
 
         // When
@@ -165,12 +328,12 @@ class TaskApiIntegrationTest {
         headers.setBearerAuth(jwtToken);
         HttpEntity<String> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<Task> response = restTemplate.exchange(
+        ResponseEntity<Task> response = SqlStatementCounter.expectAtMost(AUTH_STATEMENTS + 1, () -> restTemplate.exchange(
                 baseUrl + "/tasks/" + savedTask.getId(),
                 HttpMethod.GET,
                 entity,
                 Task.class
-        );
+        ));
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -186,6 +349,7 @@ class TaskApiIntegrationTest {
         task.setTitle("Original Title");
         task.setDescription("Original Description");
         task.setCompleted(false);
+        task.setOwnerId(userId);
         Task savedTask = taskRepository.save(task);
 
         Task updatedTask = new Task();
@@ -199,12 +363,12 @@ class TaskApiIntegrationTest {
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<Task> entity = new HttpEntity<>(updatedTask, headers);
 
-        ResponseEntity<Task> response = restTemplate.exchange(
+        ResponseEntity<Task> response = SqlStatementCounter.expectAtMost(AUTH_STATEMENTS + 2, () -> restTemplate.exchange(
                 baseUrl + "/tasks/" + savedTask.getId(),
                 HttpMethod.PUT,
                 entity,
                 Task.class
-        );
+        ));
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -222,6 +386,7 @@ class TaskApiIntegrationTest {
         task.setTitle("Task to Delete");
         task.setDescription("Description");
         task.setCompleted(false);
+        task.setOwnerId(userId);
         Task savedTask = taskRepository.save(task);
 
         // When
@@ -229,12 +394,12 @@ class TaskApiIntegrationTest {
         headers.setBearerAuth(jwtToken);
         HttpEntity<String> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<Void> response = restTemplate.exchange(
+        ResponseEntity<Void> response = SqlStatementCounter.expectAtMost(AUTH_STATEMENTS + 3, () -> restTemplate.exchange(
                 baseUrl + "/tasks/" + savedTask.getId(),
                 HttpMethod.DELETE,
                 entity,
                 Void.class
-        );
+        ));
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -244,6 +409,167 @@ class TaskApiIntegrationTest {
         assertThat(allTasks).isEmpty();
     }
 
+    @Test
+    void searchTasks_ShouldReflectWrites() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Task report = new Task();
+        report.setTitle("Quarterly report");
+        report.setDescription("Numbers for finance");
+        Task created = restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST,
+                new HttpEntity<>(report, headers), Task.class).getBody();
+
+        Task other = new Task();
+        other.setTitle("Plan offsite");
+        other.setDescription("Needs the report first");
+        restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST, new HttpEntity<>(other, headers), Task.class);
+
+        // When
+        ResponseEntity<Task[]> search = restTemplate.exchange(baseUrl + "/tasks/search?q=report",
+                HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+        ResponseEntity<Task[]> autocomplete = restTemplate.exchange(baseUrl + "/tasks/autocomplete?prefix=quar",
+                HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+        restTemplate.exchange(baseUrl + "/tasks/" + created.getId(), HttpMethod.DELETE,
+                new HttpEntity<>(headers), Void.class);
+        ResponseEntity<Task[]> afterDelete = restTemplate.exchange(baseUrl + "/tasks/search?q=report",
+                HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+
+        // Then
+        assertThat(search.getBody()).extracting("title").containsExactly("Quarterly report", "Plan offsite");
+        assertThat(autocomplete.getBody()).extracting("title").containsExactly("Quarterly report");
+        assertThat(afterDelete.getBody()).extracting("title").containsExactly("Plan offsite");
+    }
+
+    @Test
+    void filterByTags_ShouldReflectTagUpdates() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Task backend = new Task();
+        backend.setTitle("Fix API");
+        backend.setTags(Set.of("Backend", "urgent"));
+        Task created = restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST,
+                new HttpEntity<>(backend, headers), Task.class).getBody();
+
+        Task frontend = new Task();
+        frontend.setTitle("Fix UI");
+        frontend.setTags(Set.of("frontend", "urgent"));
+        restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST, new HttpEntity<>(frontend, headers), Task.class);
+
+        // When
+        ResponseEntity<Task[]> all = restTemplate.exchange(baseUrl + "/tasks?tags=backend,urgent&mode=all",
+                HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+        ResponseEntity<Task[]> any = restTemplate.exchange(baseUrl + "/tasks?tags=backend,frontend&mode=any",
+                HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+
+        // Only the tags change, so this also checks that collection-only updates reach the index
+        created.setTags(Set.of("frontend"));
+        restTemplate.exchange(baseUrl + "/tasks/" + created.getId(), HttpMethod.PUT,
+                new HttpEntity<>(created, headers), Task.class);
+        ResponseEntity<Task[]> afterUpdate = restTemplate.exchange(baseUrl + "/tasks?tags=frontend",
+                HttpMethod.GET, new HttpEntity<>(headers), Task[].class);
+
+        // Then
+        assertThat(all.getBody()).extracting("title").containsExactly("Fix API");
+        assertThat(all.getBody()[0].getTags()).containsExactlyInAnyOrder("backend", "urgent");
+        assertThat(any.getBody()).extracting("title").containsExactly("Fix API", "Fix UI");
+        assertThat(afterUpdate.getBody()).extracting("title").containsExactly("Fix API", "Fix UI");
+    }
+
+    @Test
+    void applyOperations_ShouldApplyAllOperationsInOrder() throws Exception {
+        // Given
+        Task existing = new Task();
+        existing.setTitle("Existing Task");
+        existing.setOwnerId(userId);
+        Task savedExisting = taskRepository.save(existing);
+
+        Task doomed = new Task();
+        doomed.setTitle("Doomed Task");
+        doomed.setOwnerId(userId);
+        Task savedDoomed = taskRepository.save(doomed);
+
+        String operations = "["
+                + "{\"op\":\"create\",\"task\":{\"title\":\"Created Task\"}},"
+                + "{\"op\":\"update\",\"id\":" + savedExisting.getId() + ",\"task\":{\"title\":\"Renamed Task\",\"completed\":true}},"
+                + "{\"op\":\"delete\",\"id\":" + savedDoomed.getId() + "},"
+                + "{\"op\":\"update\",\"id\":" + (savedDoomed.getId() + 1000) + ",\"task\":{\"title\":\"Ghost\"}}"
+                + "]";
+
+        // When
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/tasks/ops",
+                HttpMethod.POST,
+                new HttpEntity<>(operations, headers),
+                String.class
+        );
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Integer> statuses = objectMapper.readTree(response.getBody()).findValuesAsText("status").stream()
+                .map(Integer::valueOf)
+                .toList();
+        assertThat(statuses).containsExactly(200, 200, 200, 404);
+
+        List<Task> allTasks = taskRepository.findAll();
+        assertThat(allTasks).extracting("title").containsExactlyInAnyOrder("Created Task", "Renamed Task");
+        assertThat(allTasks).allMatch(task -> userId.equals(task.getOwnerId()));
+    }
+
+    @Test
+    void taskHistory_ShouldRecordChangesAndRebuildPastStates() throws Exception {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Task task = new Task();
+        task.setTitle("First Title");
+        Long id = restTemplate.exchange(baseUrl + "/tasks", HttpMethod.POST, new HttpEntity<>(task, headers),
+                Task.class).getBody().getId();
+        Instant afterCreate = Instant.now();
+
+        task.setTitle("Second Title");
+        task.setCompleted(true);
+        restTemplate.exchange(baseUrl + "/tasks/" + id, HttpMethod.PUT, new HttpEntity<>(task, headers), Task.class);
+        restTemplate.exchange(baseUrl + "/tasks/" + id, HttpMethod.DELETE, new HttpEntity<>(headers), Void.class);
+        assertThat(historyWriter.awaitWritten(Duration.ofSeconds(10))).isTrue();
+
+        // When
+        ResponseEntity<String> history = restTemplate.exchange(baseUrl + "/tasks/" + id + "/history",
+                HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<Task> pastState = restTemplate.exchange(baseUrl + "/tasks/" + id + "/history?at=" + afterCreate,
+                HttpMethod.GET, new HttpEntity<>(headers), Task.class);
+        ResponseEntity<Task> currentState = restTemplate.exchange(
+                baseUrl + "/tasks/" + id + "/history?at=" + Instant.now(),
+                HttpMethod.GET, new HttpEntity<>(headers), Task.class);
+
+        // Then
+        assertThat(history.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode events = objectMapper.readTree(history.getBody());
+        assertThat(events.findValuesAsText("type")).containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(events.findValuesAsText("actorId")).containsOnly(userId.toString());
+        JsonNode update = events.get(1).get("changes");
+        assertThat(update.get("title").get("from").asText()).isEqualTo("First Title");
+        assertThat(update.get("title").get("to").asText()).isEqualTo("Second Title");
+        assertThat(update.get("completed").get("to").asBoolean()).isTrue();
+        assertThat(update.has("description")).isFalse();
+
+        assertThat(pastState.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(pastState.getBody().getId()).isEqualTo(id);
+        assertThat(pastState.getBody().getTitle()).isEqualTo("First Title");
+        assertThat(pastState.getBody().isCompleted()).isFalse();
+        assertThat(currentState.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
     @Test
     void accessWithoutToken_ShouldReturnUnauthorized() {
         // When
@@ -0,0 +1,74 @@
+package com.example.tasksapi.invalidation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingInvalidationBusTest {
+    private FlakyBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new FlakyBus();
+        ReflectionTestUtils.setField(bus, "coalesceMs", 20L);
+        ReflectionTestUtils.setField(bus, "maxBatchKeys", 10);
+        ReflectionTestUtils.setField(bus, "maxSendAttempts", 3);
+    }
+
+    @Test
+    void flush_WhenSendFails_ShouldSendTheKeysAgainOnTheNextFlush() {
+        // Given
+        bus.failures = 1;
+        bus.publish("task:1");
+        bus.flush();
+        bus.publish("task:2");
+
+        // When
+        bus.flush();
+
+        // Then
+        assertThat(bus.sent).containsExactly(Set.of("task:1", "task:2"));
+    }
+
+    @Test
+    void flush_WhenSendKeepsFailing_ShouldGiveUpAfterMaxSendAttempts() {
+        // Given
+        bus.failures = Integer.MAX_VALUE;
+        bus.publish("task:1");
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            bus.flush();
+        }
+
+        // Then
+        assertThat(bus.attempts).isEqualTo(3);
+        assertThat(bus.sent).isEmpty();
+    }
+
+    private static class FlakyBus extends CoalescingInvalidationBus {
+        private final List<Set<String>> sent = new CopyOnWriteArrayList<>();
+        private int failures;
+        private int attempts;
+
+        FlakyBus() {
+            super(new SimpleMeterRegistry());
+        }
+
+        @Override
+        protected void send(Set<String> keys) {
+            attempts++;
+            if (failures-- > 0) {
+                throw new IllegalStateException("Transport unavailable");
+            }
+            sent.add(keys);
+        }
+    }
+}
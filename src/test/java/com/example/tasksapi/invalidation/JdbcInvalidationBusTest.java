@@ -0,0 +1,74 @@
+package com.example.tasksapi.invalidation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two buses on one H2 database stand in for two instances of the application
+class JdbcInvalidationBusTest {
+    private DriverManagerDataSource dataSource;
+    private JdbcInvalidationBus first;
+    private JdbcInvalidationBus second;
+    private final BlockingQueue<InvalidationBatch> firstReceived = new LinkedBlockingQueue<>();
+    private final BlockingQueue<InvalidationBatch> secondReceived = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table cache_invalidation (id bigint generated by default as identity primary key, "
+                + "node_id varchar(36) not null, invalidated_keys text not null, "
+                + "created_at timestamp(6) with time zone not null)");
+
+        first = start(jdbcTemplate, firstReceived);
+        second = start(jdbcTemplate, secondReceived);
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.stop();
+        second.stop();
+        new JdbcTemplate(dataSource).execute("drop table cache_invalidation");
+    }
+
+    @Test
+    void publish_ShouldReachTheOtherInstanceAsOneBatch() throws Exception {
+        // Given
+        first.publish("task:1");
+        first.publish("task:2");
+        first.publish("task:1");
+
+        // When
+        InvalidationBatch remote = secondReceived.poll(5, TimeUnit.SECONDS);
+        InvalidationBatch local = firstReceived.poll(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(remote).isEqualTo(new InvalidationBatch(Set.of("task:1", "task:2"), false));
+        assertThat(local).isEqualTo(new InvalidationBatch(Set.of("task:1", "task:2"), true));
+        assertThat(secondReceived.poll(300, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(firstReceived.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private JdbcInvalidationBus start(JdbcTemplate jdbcTemplate, BlockingQueue<InvalidationBatch> received) {
+        JdbcInvalidationBus bus = new JdbcInvalidationBus(jdbcTemplate, dataSource, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bus, "coalesceMs", 20L);
+        ReflectionTestUtils.setField(bus, "maxBatchKeys", 1000);
+        ReflectionTestUtils.setField(bus, "pollMs", 50L);
+        ReflectionTestUtils.setField(bus, "lookbackMs", 10000L);
+        ReflectionTestUtils.setField(bus, "retentionMs", 60000L);
+        bus.subscribe(InvalidationBus.TASK, received::add);
+        bus.start();
+        return bus;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.tasksapi.invalidation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalInvalidationBusTest {
+    private LocalInvalidationBus bus;
+    private List<InvalidationBatch> received;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalInvalidationBus(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bus, "coalesceMs", 20L);
+        ReflectionTestUtils.setField(bus, "maxBatchKeys", 2);
+        received = new CopyOnWriteArrayList<>();
+        bus.subscribe(InvalidationBus.TASK, received::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publish_ShouldCoalesceRepeatedKeysIntoOneBatch() {
+        // Given
+        bus.publish("task:1");
+        bus.publish("task:1");
+        bus.publish("task:2");
+        bus.publish("user:1");
+
+        // When
+        bus.flush();
+
+        // Then
+        assertThat(received).containsExactly(new InvalidationBatch(Set.of("task:1", "task:2"), true));
+        assertThat(received.get(0).ids(InvalidationBus.TASK)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void flush_ShouldSplitBatchesAtTheKeyLimit() {
+        // Given
+        bus.publish("task:1");
+        bus.publish("task:2");
+        bus.publish("task:3");
+
+        // When
+        bus.flush();
+
+        // Then
+        assertThat(received).extracting(InvalidationBatch::keys)
+                .containsExactly(Set.of("task:1", "task:2"), Set.of("task:3"));
+    }
+
+    @Test
+    void publish_InTransaction_ShouldWaitForCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish("task:1");
+        bus.publish("task:2");
+        bus.flush();
+        assertThat(received).isEmpty();
+
+        // When
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        bus.flush();
+
+        // Then
+        assertThat(synchronizations).hasSize(1);
+        assertThat(received).extracting(InvalidationBatch::keys).containsExactly(Set.of("task:1", "task:2"));
+    }
+
+    @Test
+    void publish_InRolledBackTransaction_ShouldBeDropped() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish("task:1");
+
+        // When
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        bus.flush();
+
+        // Then
+        assertThat(received).isEmpty();
+    }
+}
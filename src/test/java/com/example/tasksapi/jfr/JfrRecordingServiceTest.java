@@ -0,0 +1,81 @@
+package com.example.tasksapi.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrRecordingServiceTest {
+
+    private final JfrRecordingService recordingService = new JfrRecordingService();
+
+    @AfterEach
+    void tearDown() {
+        recordingService.stop();
+    }
+
+    @Test
+    void dump_ShouldContainCustomEvents() throws Exception {
+        // Given
+        recordingService.start(Duration.ofMinutes(1), 10 * 1024 * 1024);
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        event.setRepository("TaskRepository");
+        event.setMethod("findByIdAndOwnerId");
+        event.commit();
+
+        // When
+        Path file = recordingService.dump().orElseThrow();
+
+        // Then
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events)
+                    .filteredOn(recorded -> recorded.getEventType().getName().equals("com.example.tasksapi.RepositoryCall"))
+                    .extracting(recorded -> recorded.getString("method"))
+                    .contains("findByIdAndOwnerId");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void start_WhenSettingsAreRejected_ShouldCloseTheRecording() {
+        // Given
+        int registered = FlightRecorder.getFlightRecorder().getRecordings().size();
+
+        // When & Then
+        assertThatThrownBy(() -> recordingService.start(Duration.ofMinutes(1), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(FlightRecorder.getFlightRecorder().getRecordings()).hasSize(registered);
+        assertThat(recordingService.getState()).isEmpty();
+    }
+
+    @Test
+    void start_WhenAlreadyRunning_ShouldFail() throws Exception {
+        // Given
+        recordingService.start(Duration.ofMinutes(1), 10 * 1024 * 1024);
+
+        // When & Then
+        assertThatThrownBy(() -> recordingService.start(Duration.ofMinutes(1), 10 * 1024 * 1024))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(recordingService.stop()).isTrue();
+        assertThat(recordingService.getState()).contains(RecordingState.STOPPED);
+        assertThat(recordingService.stop()).isFalse();
+    }
+
+    @Test
+    void dump_WithoutRecording_ShouldBeEmpty() throws Exception {
+        assertThat(recordingService.dump()).isEmpty();
+    }
+}
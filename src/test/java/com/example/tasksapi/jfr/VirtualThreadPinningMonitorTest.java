@@ -0,0 +1,54 @@
+package com.example.tasksapi.jfr;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry);
+
+    @Test
+    void classify_ShouldUseInnermostKnownLibrary() {
+        // Given
+        List<String> jdbcUnderHibernate = List.of(
+                "java.lang.VirtualThread.parkOnCarrierThread:1",
+                "org.postgresql.core.v3.QueryExecutorImpl.execute:2",
+                "org.hibernate.sql.exec.internal.JdbcSelectExecutorStandardImpl.executeQuery:3",
+                "com.example.tasksapi.controller.TaskController.getTaskById:4");
+        List<String> bcrypt = List.of(
+                "org.springframework.security.crypto.bcrypt.BCrypt.hashpw:1",
+                "com.example.tasksapi.security.TimedPasswordEncoder.matches:2");
+        List<String> application = List.of("com.example.tasksapi.jfr.JfrRecordingService.dump:1");
+
+        // When / Then
+        assertThat(VirtualThreadPinningMonitor.classify(jdbcUnderHibernate)).isEqualTo("jdbc");
+        assertThat(VirtualThreadPinningMonitor.classify(bcrypt)).isEqualTo("bcrypt");
+        assertThat(VirtualThreadPinningMonitor.classify(application)).isEqualTo("other");
+        assertThat(VirtualThreadPinningMonitor.classify(List.of())).isEqualTo("other");
+    }
+
+    @Test
+    void record_ShouldTimePinningBySource() {
+        // Given
+        List<String> frames = List.of(
+                "java.lang.Object.wait:1",
+                "org.hibernate.internal.SessionImpl.find:2");
+
+        // When
+        monitor.record(frames, Duration.ofMillis(30));
+        monitor.record(frames, Duration.ofMillis(50));
+
+        // Then
+        Timer timer = meterRegistry.get("threads.virtual.pinned").tag("source", "hibernate").timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(80);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.tasksapi.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void tryAcquire_ShouldRejectBeyondLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10);
+
+        // When & Then
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void limit_ShouldGrowWhileLatencyIsStable() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100);
+
+        // When
+        runAtLimit(limiter, 200, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // Then
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void limit_ShouldShrinkWhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100);
+        runAtLimit(limiter, 200, TimeUnit.MILLISECONDS.toNanos(10));
+        int stableLimit = limiter.getLimit();
+
+        // When
+        runAtLimit(limiter, 20, TimeUnit.MILLISECONDS.toNanos(200));
+
+        // Then
+        assertThat(limiter.getLimit()).isLessThan(stableLimit);
+    }
+
+    @Test
+    void limit_ShouldStayWithinBounds() {
+        // Given
+        AdaptiveConcurrencyLimiter growing = new AdaptiveConcurrencyLimiter("test", 10, 5, 20);
+        AdaptiveConcurrencyLimiter shrinking = new AdaptiveConcurrencyLimiter("test", 10, 9, 12);
+        runAtLimit(shrinking, 200, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // When
+        runAtLimit(growing, 1000, TimeUnit.MILLISECONDS.toNanos(10));
+        runAtLimit(shrinking, 5, TimeUnit.SECONDS.toNanos(10));
+
+        // Then
+        assertThat(growing.getLimit()).isEqualTo(20);
+        assertThat(shrinking.getLimit()).isEqualTo(9);
+    }
+
+    // Fills the limiter, then completes every request with the given latency
+    private static void runAtLimit(AdaptiveConcurrencyLimiter limiter, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tasksapi.limit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new ConcurrencyLimitFilter();
+        ReflectionTestUtils.setField(filter, "authInitialLimit", 1);
+        ReflectionTestUtils.setField(filter, "authMinLimit", 1);
+        ReflectionTestUtils.setField(filter, "authMaxLimit", 1);
+        ReflectionTestUtils.setField(filter, "tasksInitialLimit", 1);
+        ReflectionTestUtils.setField(filter, "tasksMinLimit", 1);
+        ReflectionTestUtils.setField(filter, "tasksMaxLimit", 1);
+        ReflectionTestUtils.setField(filter, "retryAfterSeconds", 2);
+        filter.afterPropertiesSet();
+    }
+
+    @Test
+    void doFilter_WhenLimitReached_ShouldShedWith503() throws Exception {
+        // Given
+        filter.getTasksLimiter().tryAcquire();
+        MockHttpServletRequest request = request("/tasks");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void doFilter_ShouldUseSeparateLimitsForAuthAndTasks() throws Exception {
+        // Given
+        filter.getTasksLimiter().tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request("/api/auth/signin"), response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(filter.getAuthLimiter().getInFlight()).isZero();
+    }
+
+    @Test
+    void doFilter_ShouldNotLimitOtherRoutes() throws Exception {
+        // Given
+        filter.getTasksLimiter().tryAcquire();
+        filter.getAuthLimiter().tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request("/api/test/all"), response, chain);
+
+        // Then
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
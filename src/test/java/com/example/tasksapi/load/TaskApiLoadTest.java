@@ -0,0 +1,276 @@
+package com.example.tasksapi.load;
+
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives a production-like mix of traffic through the HTTP API and fails when latency or
+// throughput SLOs regress. Excluded from the default build; run with ./mvnw -Pload test.
+// Every knob can be overridden with a -Dload.* system property.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.orm.jpa=WARN"
+})
+@ActiveProfiles("test")
+@Tag("load")
+class TaskApiLoadTest {
+    enum Operation { SIGN_IN, LIST, GET, CREATE, UPDATE, DELETE }
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskApiLoadTest.class);
+
+    private static final int USERS = Integer.getInteger("load.users", 50);
+    private static final int SEED_TASKS = Integer.getInteger("load.seedTasks", 20);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.durationSeconds", 30));
+    private static final String MIX = System.getProperty("load.mix", "signin=2,list=40,get=30,create=12,update=10,delete=6");
+
+    // Sign-in is dominated by BCrypt and gets its own latency objective
+    private static final long SLO_P99_MS = Long.getLong("load.slo.p99Ms", 250);
+    private static final long SLO_SIGN_IN_P99_MS = Long.getLong("load.slo.signInP99Ms", 1000);
+    private static final double SLO_MIN_THROUGHPUT = Double.parseDouble(System.getProperty("load.slo.minThroughput", "200"));
+    private static final double SLO_MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.slo.maxErrorRate", "0.01"));
+
+    private static final String PASSWORD = "load-test-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    @Test
+    void trafficMix_ShouldMeetSlos() throws Exception {
+        // Given
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+        }
+        List<Operation> mix = parseMix(MIX);
+        List<String> usernames = provisionUsers();
+
+        // When
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureUntil = measureFrom + DURATION.toNanos();
+        List<Future<?>> clients = new ArrayList<>(USERS);
+        try (ClientExecutor executor = ClientExecutor.create(USERS)) {
+            for (String username : usernames) {
+                clients.add(executor.submit(() -> runClient(username, mix, measureFrom, measureUntil)));
+            }
+        }
+        for (Future<?> client : clients) {
+            client.get();
+        }
+
+        // Then
+        long total = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        double seconds = DURATION.toNanos() / 1e9;
+        double throughput = total / seconds;
+        double errorRate = total == 0 ? 1.0 : errors.sum() / (double) total;
+        logger.info("{}", report(seconds, throughput, errorRate));
+
+        SoftAssertions slos = new SoftAssertions();
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            long budgetMs = entry.getKey() == Operation.SIGN_IN ? SLO_SIGN_IN_P99_MS : SLO_P99_MS;
+            slos.assertThat(entry.getValue().getValueAtPercentile(99.0) / 1000.0)
+                    .as("p99 of %s in ms", entry.getKey())
+                    .isLessThanOrEqualTo(budgetMs);
+        }
+        slos.assertThat(throughput).as("throughput in requests/s").isGreaterThanOrEqualTo(SLO_MIN_THROUGHPUT);
+        slos.assertThat(errorRate).as("error rate").isLessThanOrEqualTo(SLO_MAX_ERROR_RATE);
+        slos.assertAll();
+    }
+
+    // Signs users up through the API; they are then promoted to admins, since sign-up
+    // only creates members and the mix includes deletes
+    private List<String> provisionUsers() throws IOException, InterruptedException {
+        List<String> usernames = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            String username = "load" + i;
+            HttpResponse<String> response = send(null, "POST", "/api/auth/signup", Map.of(
+                    "username", username, "email", username + "@example.com", "password", PASSWORD));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Sign-up failed: " + response.body());
+            }
+            User user = userRepository.findByUsername(username).orElseThrow();
+            user.setRole(User.Role.ADMIN);
+            userRepository.save(user);
+            usernames.add(username);
+        }
+        return usernames;
+    }
+
+    private void runClient(String username, List<Operation> mix, long measureFrom, long measureUntil) {
+        try {
+            String token = signIn(username);
+            List<Long> taskIds = new ArrayList<>();
+            for (int i = 0; i < SEED_TASKS; i++) {
+                taskIds.add(createTask(token));
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < measureUntil) {
+                Operation operation = mix.get(random.nextInt(mix.size()));
+                if (taskIds.isEmpty() && operation != Operation.SIGN_IN && operation != Operation.LIST) {
+                    operation = Operation.CREATE;
+                }
+                Long taskId = taskIds.isEmpty() ? null : taskIds.get(random.nextInt(taskIds.size()));
+
+                long start = System.nanoTime();
+                HttpResponse<String> response = switch (operation) {
+                    case SIGN_IN -> send(null, "POST", "/api/auth/signin", Map.of("username", username, "password", PASSWORD));
+                    case LIST -> send(token, "GET", "/tasks", null);
+                    case GET -> send(token, "GET", "/tasks/" + taskId, null);
+                    case CREATE -> send(token, "POST", "/tasks", newTask());
+                    case UPDATE -> send(token, "PUT", "/tasks/" + taskId, newTask());
+                    case DELETE -> send(token, "DELETE", "/tasks/" + taskId, null);
+                };
+                long elapsedMicros = (System.nanoTime() - start) / 1000;
+
+                if (response.statusCode() == 200) {
+                    if (operation == Operation.SIGN_IN) {
+                        token = readTree(response).get("accessToken").asText();
+                    } else if (operation == Operation.CREATE) {
+                        taskIds.add(readTree(response).get("id").asLong());
+                    } else if (operation == Operation.DELETE) {
+                        taskIds.remove(taskId);
+                    }
+                }
+                if (start >= measureFrom) {
+                    latencies.get(operation).recordValue(Math.max(1, elapsedMicros));
+                    if (response.statusCode() == 503) {
+                        shed.increment();
+                    }
+                    if (response.statusCode() != 200) {
+                        errors.increment();
+                    }
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException("Client " + username + " failed", e);
+        }
+    }
+
+    private String signIn(String username) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(null, "POST", "/api/auth/signin", Map.of("username", username, "password", PASSWORD));
+        return readTree(response).get("accessToken").asText();
+    }
+
+    private long createTask(String token) throws IOException, InterruptedException {
+        return readTree(send(token, "POST", "/tasks", newTask())).get("id").asLong();
+    }
+
+    private static Map<String, Object> newTask() {
+        int n = ThreadLocalRandom.current().nextInt(1_000_000);
+        return Map.of(
+                "title", "Load task " + n,
+                "description", "Generated by the load test",
+                "completed", n % 3 == 0,
+                "tags", n % 2 == 0 ? List.of("load", "even") : List.of("load"));
+    }
+
+    private HttpResponse<String> send(String token, String method, String path, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode readTree(HttpResponse<String> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+
+    // "list=40,get=30" becomes a list with 40 LIST and 30 GET entries to draw from
+    private static List<Operation> parseMix(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            Operation operation = Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT).replace("SIGNIN", "SIGN_IN"));
+            operations.addAll(Collections.nCopies(Integer.parseInt(weight[1].trim()), operation));
+        }
+        return operations;
+    }
+
+    private String report(double seconds, double throughput, double errorRate) {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "%nLoad test: %d clients for %.0fs, %.1f req/s, error rate %.4f (%d shed)%n%-8s %9s %9s %9s %9s %9s %9s%n",
+                USERS, seconds, throughput, errorRate, shed.sum(), "op", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        latencies.forEach((operation, histogram) -> report.append(String.format(Locale.ROOT,
+                "%-8s %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0)));
+        return report.toString();
+    }
+
+    // One thread per client. Virtual threads are used when the JVM has them (Java 21+);
+    // the project targets Java 17, where this falls back to one platform thread per client.
+    private record ClientExecutor(ExecutorService executor) implements AutoCloseable {
+        static ClientExecutor create(int clients) {
+            try {
+                return new ClientExecutor((ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+            } catch (ReflectiveOperationException e) {
+                return new ClientExecutor(Executors.newFixedThreadPool(clients));
+            }
+        }
+
+        Future<?> submit(Runnable client) {
+            return executor.submit(client);
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.tasksapi.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Statement;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CollatedTitleIndexesTest {
+
+    @Test
+    void onPostgres_ShouldCreateTheCollatedTitleIndexes() throws Exception {
+        // Given
+        Statement statement = mock(Statement.class);
+        DataSource dataSource = dataSource("PostgreSQL", statement);
+
+        // When
+        new CollatedTitleIndexes(mock(EntityManagerFactory.class), dataSource);
+
+        // Then
+        for (String index : CollatedTitleIndexes.POSTGRES_INDEXES) {
+            verify(statement).execute(index);
+        }
+    }
+
+    @Test
+    void onOtherDatabases_ShouldCreateNothing() throws Exception {
+        // Given
+        Statement statement = mock(Statement.class);
+        DataSource dataSource = dataSource("H2", statement);
+
+        // When
+        new CollatedTitleIndexes(mock(EntityManagerFactory.class), dataSource);
+
+        // Then
+        verify(statement, never()).execute(anyString());
+    }
+
+    private static DataSource dataSource(String productName, Statement statement) throws Exception {
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn(productName);
+        Connection connection = mock(Connection.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.tasksapi.repository;
+
+import com.example.tasksapi.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The behaviour every TaskRepository implementation has to provide, run against the JPA
+// repository by TaskRepositoryTest, against the embedded store by EmbeddedTaskRepositoryTest and
+// against the task shards by ShardedTaskRepositoryTest.
+// Spring looks for @Transactional on the class declaring the test methods, so it sits here;
+// without a Spring test context it has no effect.
+@Transactional
+public abstract class TaskRepositoryContractTest {
+
+    protected abstract TaskRepository repository();
+
+    // Stores the task directly, bypassing the repository under test
+    protected abstract Task persist(Task task);
+
+    // Reads the task directly from where the repository keeps it, or null if it isn't there
+    protected abstract Task findStored(Long id);
+
+    // Creates a user to own tasks and returns its id
+    protected abstract Long persistUser(String username);
+
+    private Task task1;
+    private Task task2;
+
+    @BeforeEach
+    void setUp() {
+        // Create test tasks
+        task1 = new Task();
+        task1.setTitle("Test Task 1");
+        task1.setDescription("Test Description 1");
+        task1.setCompleted(false);
+
+        task2 = new Task();
+        task2.setTitle("Test Task 2");
+        task2.setDescription("Test Description 2");
+        task2.setCompleted(true);
+    }
+
+    @Test
+    void save_ShouldPersistTask() {
+        // When
+        Task savedTask = repository().save(task1);
+
+        // Then
+        assertThat(savedTask.getId()).isNotNull();
+        assertThat(savedTask.getTitle()).isEqualTo("Test Task 1");
+        assertThat(savedTask.getDescription()).isEqualTo("Test Description 1");
+        assertThat(savedTask.isCompleted()).isFalse();
+
+        // Verify it's actually persisted in the store
+        Task foundTask = findStored(savedTask.getId());
+        assertThat(foundTask).isNotNull();
+        assertThat(foundTask.getTitle()).isEqualTo("Test Task 1");
+    }
+
+    @Test
+    void findAll_ShouldReturnAllTasks() {
+        // Given
+        persist(task1);
+        persist(task2);
+
+        // When
+        List<Task> tasks = repository().findAll();
+
+        // Then
+        assertThat(tasks).hasSize(2);
+        assertThat(tasks).extracting("title")
+                .containsExactlyInAnyOrder("Test Task 1", "Test Task 2");
+    }
+
+    @Test
+    void findById_ShouldReturnTask() {
+        // Given
+        Task savedTask = persist(task1);
+
+        // When
+        Optional<Task> foundTask = repository().findById(savedTask.getId());
+
+        // Then
+        assertThat(foundTask).isPresent();
+        assertThat(foundTask.get().getTitle()).isEqualTo("Test Task 1");
+    }
+
+    @Test
+    void findById_WhenTaskNotFound_ShouldReturnEmpty() {
+        // When
+        Optional<Task> foundTask = repository().findById(999L);
+
+        // Then
+        assertThat(foundTask).isEmpty();
+    }
+
+    @Test
+    void save_ShouldUpdateExistingTask() {
+        // Given
+        Task savedTask = persist(task1);
+        savedTask.setTitle("Updated Title");
+        savedTask.setCompleted(true);
+
+        // When
+        Task updatedTask = repository().save(savedTask);
+
+        // Then
+        assertThat(updatedTask.getId()).isEqualTo(savedTask.getId());
+        assertThat(updatedTask.getTitle()).isEqualTo("Updated Title");
+        assertThat(updatedTask.isCompleted()).isTrue();
+
+        // Verify it's actually updated in the store
+        Task foundTask = findStored(savedTask.getId());
+        assertThat(foundTask.getTitle()).isEqualTo("Updated Title");
+        assertThat(foundTask.isCompleted()).isTrue();
+    }
+
+    @Test
+    void findByOwnerId_ShouldReturnOnlyOwnedTasks() {
+        // Given
+        Long ownerId = persistUser("owner");
+        Long otherId = persistUser("other");
+        task1.setOwnerId(ownerId);
+        task2.setOwnerId(otherId);
+        persist(task1);
+        persist(task2);
+
+        // When
+        List<Task> tasks = repository().findByOwner(ownerId, new TaskFilter());
+
+        // Then
+        assertThat(tasks).extracting("title").containsExactly("Test Task 1");
+        assertThat(repository().findByIdAndOwnerId(task2.getId(), ownerId)).isEmpty();
+        assertThat(repository().findByIdAndOwnerId(task1.getId(), ownerId)).isPresent();
+    }
+
+    @Test
+    void findByOwner_ShouldFilterAndSort() {
+        // Given
+        Long ownerId = persistUser("owner");
+        task1.setOwnerId(ownerId);
+        task2.setOwnerId(ownerId);
+        Task task3 = new Task();
+        task3.setTitle("Another Task");
+        task3.setDescription("Quarterly report");
+        task3.setOwnerId(ownerId);
+        persist(task1);
+        persist(task2);
+        persist(task3);
+
+        // When
+        List<Task> open = repository().findByOwner(ownerId,
+                new TaskFilter(false, null, TaskSort.TITLE, false));
+        List<Task> byTitleDesc = repository().findByOwner(ownerId,
+                new TaskFilter(null, null, TaskSort.TITLE, true));
+        List<Task> matching = repository().findByOwner(ownerId,
+                new TaskFilter(null, "REPORT", TaskSort.ID, false));
+
+        // Then
+        assertThat(open).extracting("title").containsExactly("Another Task", "Test Task 1");
+        assertThat(byTitleDesc).extracting("title").containsExactly("Test Task 2", "Test Task 1", "Another Task");
+        assertThat(matching).extracting("title").containsExactly("Another Task");
+    }
+
+    @Test
+    void findByOwner_ShouldMatchTextRegardlessOfDefaultLocale() {
+        // Given
+        Long ownerId = persistUser("owner");
+        Task task = new Task();
+        // Lower case already, as H2's lower() follows the JVM locale too
+        task.setTitle("invoice");
+        task.setOwnerId(ownerId);
+        persist(task);
+        Locale defaultLocale = Locale.getDefault();
+
+        // When
+        List<Task> matching;
+        try {
+            // Lower-casing "I" under Turkish rules gives a dotless i
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            matching = repository().findByOwner(ownerId, new TaskFilter(null, "INVOICE", TaskSort.ID, false));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+
+        // Then
+        assertThat(matching).extracting("title").containsExactly("invoice");
+    }
+
+    @Test
+    void deleteById_ShouldRemoveTask() {
+        // Given
+        Task savedTask = persist(task1);
+
+        // When
+        repository().deleteById(savedTask.getId());
+
+        // Then
+        Task foundTask = findStored(savedTask.getId());
+        assertThat(foundTask).isNull();
+    }
+} 
\ No newline at end of file
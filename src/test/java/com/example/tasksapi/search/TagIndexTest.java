@@ -0,0 +1,105 @@
+package com.example.tasksapi.search;
+
+import com.example.tasksapi.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagIndexTest {
+
+    private TagIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TagIndex();
+        index.index(task(1L, 1L, "backend", "urgent"));
+        index.index(task(2L, 1L, "backend"));
+        index.index(task(3L, 1L, "frontend", "urgent"));
+        index.index(task(4L, 2L, "backend", "urgent"));
+    }
+
+    @Test
+    void match_All_ShouldIntersectTags() {
+        // When
+        Roaring64Bitmap matches = index.match(1L, List.of("backend", "urgent"), TagIndex.Mode.ALL);
+
+        // Then
+        assertThat(matches.toArray()).containsExactly(1L);
+    }
+
+    @Test
+    void match_Any_ShouldUnionTags() {
+        // When
+        Roaring64Bitmap matches = index.match(1L, List.of("backend", "urgent"), TagIndex.Mode.ANY);
+
+        // Then
+        assertThat(matches.toArray()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void match_ShouldBeScopedToOwner() {
+        // When
+        Roaring64Bitmap matches = index.match(2L, List.of("backend"), TagIndex.Mode.ALL);
+
+        // Then
+        assertThat(matches.toArray()).containsExactly(4L);
+    }
+
+    @Test
+    void index_ShouldReplacePreviousTags() {
+        // When
+        index.index(task(2L, 1L, "urgent"));
+
+        // Then
+        assertThat(index.match(1L, List.of("backend"), TagIndex.Mode.ALL).toArray()).containsExactly(1L);
+        assertThat(index.match(1L, List.of("urgent"), TagIndex.Mode.ALL).toArray()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void remove_ShouldDropTaskFromAllTags() {
+        // When
+        index.remove(1L);
+
+        // Then
+        assertThat(index.match(1L, List.of("backend", "urgent"), TagIndex.Mode.ANY).toArray()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void match_ShouldNotExposeInternalBitmaps() {
+        // Given
+        Roaring64Bitmap matches = index.match(1L, List.of("backend"), TagIndex.Mode.ALL);
+
+        // When
+        matches.addLong(99);
+
+        // Then
+        assertThat(index.match(1L, List.of("backend"), TagIndex.Mode.ALL).toArray()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void index_ShouldAcceptIdsBeyondIntRange() {
+        // Given
+        long largeId = Integer.MAX_VALUE + 10L;
+
+        // When
+        index.index(task(largeId, 1L, "backend"));
+
+        // Then
+        assertThat(index.match(1L, List.of("backend"), TagIndex.Mode.ALL).contains(largeId)).isTrue();
+        index.remove(largeId);
+        assertThat(index.match(1L, List.of("backend"), TagIndex.Mode.ALL).toArray()).containsExactly(1L, 2L);
+    }
+
+    private static Task task(Long id, Long ownerId, String... tags) {
+        Task task = new Task();
+        task.setId(id);
+        task.setOwnerId(ownerId);
+        task.setTags(Set.of(tags));
+        return task;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tasksapi.search;
+
+import com.example.tasksapi.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskSearchIndexTest {
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TaskSearchIndex();
+        index.index(task(1L, 1L, "Write quarterly report", "Numbers for finance"));
+        index.index(task(2L, 1L, "Review pull request", "Check the report generator"));
+        index.index(task(3L, 1L, "Plan offsite", "Book rooms"));
+        index.index(task(4L, 2L, "Write report", "Someone else's task"));
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesFirst() {
+        // When
+        List<Long> ids = index.search(1L, "report", 10);
+
+        // Then
+        assertThat(ids).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_ShouldRankDocumentsMatchingMoreTerms() {
+        // When
+        List<Long> ids = index.search(1L, "review report", 10);
+
+        // Then
+        assertThat(ids).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void search_ShouldOnlyReturnOwnersTasks() {
+        // When
+        List<Long> ids = index.search(2L, "report", 10);
+
+        // Then
+        assertThat(ids).containsExactly(4L);
+    }
+
+    @Test
+    void index_ShouldReplacePreviousTerms() {
+        // Given
+        index.index(task(3L, 1L, "Plan report offsite", "Book rooms"));
+        index.index(task(1L, 1L, "Write summary", "Numbers for finance"));
+
+        // When
+        List<Long> ids = index.search(1L, "report", 10);
+
+        // Then
+        assertThat(ids).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void remove_ShouldDropTaskFromResults() {
+        // When
+        index.remove(1L);
+
+        // Then
+        assertThat(index.search(1L, "report", 10)).containsExactly(2L);
+        assertThat(index.completeTitle(1L, "wri", 10)).isEmpty();
+    }
+
+    @Test
+    void completeTitle_ShouldMatchTitleTermPrefixes() {
+        // When
+        List<Long> ids = index.completeTitle(1L, "re", 10);
+
+        // Then
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(index.completeTitle(1L, "plan off", 10)).containsExactly(3L);
+        assertThat(index.completeTitle(1L, "xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void index_ShouldAcceptIdsBeyondIntRange() {
+        // Given
+        long largeId = Integer.MAX_VALUE + 10L;
+        index.index(task(largeId, 1L, "Report archive", "Old numbers"));
+
+        // When
+        List<Long> found = index.search(1L, "archive", 10);
+        List<Long> completed = index.completeTitle(1L, "arch", 10);
+        index.remove(largeId);
+
+        // Then
+        assertThat(found).containsExactly(largeId);
+        assertThat(completed).containsExactly(largeId);
+        assertThat(index.search(1L, "archive", 10)).isEmpty();
+    }
+
+    private static Task task(Long id, Long ownerId, String title, String description) {
+        Task task = new Task();
+        task.setId(id);
+        task.setOwnerId(ownerId);
+        task.setTitle(title);
+        task.setDescription(description);
+        return task;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.tasksapi.seed;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import com.example.tasksapi.search.TagIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seeddb",
+        "app.seed.users=20",
+        "app.seed.tasks=1200",
+        "app.seed.chunkSize=500"
+})
+@ActiveProfiles({"test", "seed"})
+class DataSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Test
+    void seed_ShouldBulkLoadUsersTasksAndTags() {
+        // Then
+        assertThat(userRepository.count()).isEqualTo(20);
+        assertThat(taskRepository.count()).isEqualTo(1200);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_tag", Long.class)).isPositive();
+
+        User user = userRepository.findByUsername("user1").orElseThrow();
+        assertThat(passwordEncoder.matches("password", user.getPassword())).isTrue();
+
+        // Indexes are rebuilt after loading, so seeded tags are searchable
+        Long taskId = jdbcTemplate.queryForObject("SELECT MIN(task_id) FROM task_tag", Long.class);
+        Task tagged = taskRepository.findById(taskId).orElseThrow();
+        String tag = jdbcTemplate.queryForObject("SELECT MIN(tag) FROM task_tag WHERE task_id = ?", String.class, taskId);
+        assertThat(tagIndex.match(tagged.getOwnerId(), List.of(tag), TagIndex.Mode.ALL).contains(taskId))
+                .isTrue();
+    }
+
+    @Test
+    void seed_ShouldMoveIdGeneratorsPastLoadedRows() {
+        // When
+        User user = userRepository.save(new User("fresh", "fresh@example.com", "encodedpassword"));
+        Task task = new Task();
+        task.setTitle("Created after seeding");
+        task.setOwnerId(user.getId());
+        Task saved = taskRepository.save(task);
+
+        // Then
+        assertThat(user.getId()).isGreaterThan(20);
+        assertThat(saved.getId()).isGreaterThan(1200);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.tasksapi.service;
+
+import com.example.tasksapi.history.TaskHistory;
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.payload.request.TaskOperationRequest;
+import com.example.tasksapi.payload.response.TaskOperationResult;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskBatchServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TaskHistory history;
+
+    @InjectMocks
+    private TaskBatchService batchService;
+
+    @Test
+    void apply_WhenATaskCreatedByTheBatchIsUpdated_ShouldUpdateIt() {
+        // Given
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            if (task.getId() == null) {
+                task.setId(42L);
+            }
+            return task;
+        });
+        List<TaskOperationRequest> operations = List.of(
+                operation(TaskOperationRequest.Type.CREATE, null, "Draft"),
+                operation(TaskOperationRequest.Type.UPDATE, 42L, "Final"));
+
+        // When
+        List<TaskOperationResult> results = batchService.apply(1L, false, operations);
+
+        // Then
+        assertThat(results).extracting(TaskOperationResult::getStatus).containsExactly(200, 200);
+        assertThat(results.get(1).getTask().getTitle()).isEqualTo("Final");
+    }
+
+    private static TaskOperationRequest operation(TaskOperationRequest.Type type, Long id, String title) {
+        Task task = new Task();
+        task.setTitle(title);
+        TaskOperationRequest operation = new TaskOperationRequest();
+        operation.setOp(type);
+        operation.setId(id);
+        operation.setTask(task);
+        return operation;
+    }
+}
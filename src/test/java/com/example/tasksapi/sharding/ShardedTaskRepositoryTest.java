@@ -0,0 +1,239 @@
+package com.example.tasksapi.sharding;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.repository.TaskFilter;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.TaskRepositoryContractTest;
+import com.example.tasksapi.repository.TaskSort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+// Three in-memory H2 databases stand in for the shards, a fourth for the primary database
+// holding the id sequence
+class ShardedTaskRepositoryTest extends TaskRepositoryContractTest {
+    private static final int SHARD_COUNT = 3;
+    private static final long PINNED_OWNER = 1000;
+
+    private final List<DriverManagerDataSource> dataSources = new ArrayList<>();
+    private JdbcTemplate primary;
+    private TaskShards shards;
+    private ShardedTaskRepository repository;
+    private long lastUserId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void openShards() {
+        primary = new JdbcTemplate(dataSource("shardprimary"));
+        primary.execute("create sequence task_seq start with 1 increment by " + Task.ID_ALLOCATION_SIZE);
+
+        List<TaskShard> taskShards = new ArrayList<>();
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            TaskShard shard = new TaskShard(i, dataSource("shard" + i));
+            shard.createSchema();
+            taskShards.add(shard);
+        }
+        shards = new TaskShards(taskShards, Map.of(PINNED_OWNER, 2), 4);
+        repository = new ShardedTaskRepository(shards, primary, mock(ObjectProvider.class),
+                mock(ObjectProvider.class), mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void closeShards() throws Exception {
+        shards.close();
+        dataSources.forEach(dataSource -> new JdbcTemplate(dataSource).execute("drop all objects"));
+    }
+
+    @Override
+    protected TaskRepository repository() {
+        return repository;
+    }
+
+    @Override
+    protected Task persist(Task task) {
+        task.setId(primary.queryForObject("select next value for task_seq", Long.class));
+        shards.forOwner(task.getOwnerId()).apply(List.of(TaskShard.Write.save(task, false)));
+        return task;
+    }
+
+    @Override
+    protected Task findStored(Long id) {
+        return shards.all().stream()
+                .map(shard -> shard.findById(id))
+                .flatMap(Optional::stream)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Users live in the primary database; the shards only keep their ids
+    @Override
+    protected Long persistUser(String username) {
+        return ++lastUserId;
+    }
+
+    @Test
+    void save_ShouldKeepEachOwnersTasksOnOneShard() {
+        // Given
+        List<Long> owners = LongStream.rangeClosed(1, 30).boxed().toList();
+
+        // When
+        for (Long owner : owners) {
+            for (int i = 0; i < 2; i++) {
+                Task task = new Task();
+                task.setTitle("Task " + i + " of " + owner);
+                task.setOwnerId(owner);
+                repository.save(task);
+            }
+        }
+        Task pinned = new Task();
+        pinned.setOwnerId(PINNED_OWNER);
+        repository.save(pinned);
+
+        // Then
+        for (TaskShard shard : shards.all()) {
+            assertThat(shard.count()).isPositive();
+        }
+        for (Long owner : owners) {
+            assertThat(shards.forOwner(owner).findByOwner(owner, new TaskFilter())).hasSize(2);
+            assertThat(repository.findByOwner(owner, new TaskFilter())).hasSize(2);
+        }
+        assertThat(shards.all().get(2).findById(pinned.getId())).isPresent();
+    }
+
+    @Test
+    void findAll_ShouldMergeShardsInRequestedOrder() {
+        // Given
+        for (long owner = 1; owner <= 12; owner++) {
+            Task task = new Task();
+            task.setTitle("Title " + (char) ('a' + (owner * 7) % 12));
+            task.setOwnerId(owner);
+            repository.save(task);
+        }
+
+        // When
+        List<Task> byTitle = repository.findAll(Sort.by(Sort.Direction.DESC, "title"));
+        Page<Task> secondPage = repository.findAll(PageRequest.of(1, 5, Sort.by("title")));
+        List<Task> afterFourth = repository.findByIdGreaterThan(byTitle.stream().mapToLong(Task::getId).sorted()
+                .skip(3).findFirst().orElseThrow(), PageRequest.of(0, 4, Sort.by("id")));
+
+        // Then
+        assertThat(byTitle).extracting(Task::getTitle)
+                .isSortedAccordingTo((a, b) -> b.compareTo(a))
+                .hasSize(12);
+        assertThat(secondPage.getTotalElements()).isEqualTo(12);
+        assertThat(secondPage.getContent()).extracting(Task::getTitle)
+                .containsExactly("Title f", "Title g", "Title h", "Title i", "Title j");
+        assertThat(afterFourth).extracting(Task::getId)
+                .containsExactlyElementsOf(byTitle.stream().map(Task::getId).sorted().skip(4).limit(4).toList());
+    }
+
+    @Test
+    void findAll_ByTitle_ShouldPageThroughShardsInComparatorOrder() {
+        // Given
+        List<String> titles = Arrays.asList("beta", null, "Beta", "alpha", null, "Äpfel", "Alpha", "zeta");
+        for (int i = 0; i < titles.size(); i++) {
+            Task task = new Task();
+            task.setTitle(titles.get(i));
+            task.setOwnerId((long) i + 1);
+            repository.save(task);
+        }
+
+        // When
+        List<Task> all = repository.findAll(Sort.by("title"));
+        List<Task> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            paged.addAll(repository.findAll(PageRequest.of(page, 3, Sort.by("title"))).getContent());
+        }
+
+        // Then
+        assertThat(all).extracting(Task::getTitle)
+                .containsExactly(null, null, "Alpha", "Beta", "alpha", "beta", "zeta", "Äpfel");
+        assertThat(all).isSortedAccordingTo(TaskSort.TITLE.comparator(false));
+        assertThat(paged).extracting(Task::getId).containsExactlyElementsOf(all.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void save_WhenTaskChangedSinceRead_ShouldFailWithOptimisticLock() {
+        // Given
+        Task task = new Task();
+        task.setTitle("Original");
+        task.setOwnerId(1L);
+        Long id = repository.save(task).getId();
+        Task first = repository.findByIdAndOwnerId(id, 1L).orElseThrow();
+        Task second = repository.findByIdAndOwnerId(id, 1L).orElseThrow();
+        first.setTitle("First");
+        repository.save(first);
+
+        // When
+        second.setTitle("Second");
+
+        // Then
+        assertThatThrownBy(() -> repository.save(second)).isInstanceOf(OptimisticLockingFailureException.class);
+        first.setTitle("First again");
+        repository.save(first);
+        assertThat(findStored(id).getTitle()).isEqualTo("First again");
+    }
+
+    @Test
+    void save_InsideTransaction_ShouldOnlyApplyOnCommit() {
+        // Given
+        Task committed = new Task();
+        committed.setTitle("Committed");
+        committed.setOwnerId(1L);
+        Task rolledBack = new Task();
+        rolledBack.setTitle("Rolled back");
+        rolledBack.setOwnerId(2L);
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repository.save(committed);
+            assertThat(repository.findById(committed.getId())).isEmpty();
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repository.save(rolledBack);
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertThat(repository.findById(committed.getId())).isPresent();
+        assertThat(repository.findById(rolledBack.getId())).isEmpty();
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    private DriverManagerDataSource dataSource(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSources.add(dataSource);
+        return dataSource;
+    }
+}
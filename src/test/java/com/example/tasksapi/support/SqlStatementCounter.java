@@ -0,0 +1,56 @@
+package com.example.tasksapi.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Counts the SQL statements Hibernate prepares, so that tests can put a budget on how many
+// round-trips an operation may take. Registered for the test profile through
+// hibernate.session_factory.statement_inspector; since integration tests call the
+// application over HTTP, statements are collected globally rather than per thread.
+public class SqlStatementCounter implements StatementInspector {
+    private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    // Only collect inside expectAtMost, so that nothing piles up during other tests
+    private static volatile boolean collecting;
+
+    @Override
+    public String inspect(String sql) {
+        if (collecting) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        statements.clear();
+    }
+
+    public static List<String> statements() {
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    // Runs the action and fails if it issued more than maxStatements statements
+    public static <T> T expectAtMost(int maxStatements, Supplier<T> action) {
+        reset();
+        collecting = true;
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            collecting = false;
+        }
+        List<String> issued = statements();
+        assertThat(issued)
+                .as("SQL statements issued (budget %d):%n%s", maxStatements, String.join(System.lineSeparator(), issued))
+                .hasSizeLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.tasksapi.timing;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerTimingFilterTest {
+
+    private ServerTimingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ServerTimingFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+    }
+
+    @Test
+    void doFilter_WithJsonBody_ShouldReportSerializationWrittenBeforeTheFlush() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/tasks"), response, chain((request, servletResponse) -> {
+            servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            OutputStream body = servletResponse.getOutputStream();
+            body.write("[]".getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            RequestTimings.record(RequestTimings.Phase.SERIALIZATION, 2_000_000);
+        }));
+
+        // Then
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+        assertThat(response.getHeader(ServerTimingFilter.HEADER)).contains("ser;dur=2.000");
+    }
+
+    @Test
+    void doFilter_WithBodyLargerThanBuffer_ShouldAddHeaderBeforeCommitting() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] chunk = new byte[response.getBufferSize()];
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/tasks"), response, chain((request, servletResponse) -> {
+            servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            servletResponse.getOutputStream().write(chunk);
+            servletResponse.getOutputStream().write(chunk);
+        }));
+
+        // Then
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getHeader(ServerTimingFilter.HEADER)).startsWith("jwt;dur=");
+        assertThat(response.getContentAsByteArray()).hasSize(2 * chunk.length);
+    }
+
+    @Test
+    void doFilter_WithNonJsonBody_ShouldPassItThroughWithoutHeader() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] recording = new byte[3 * response.getBufferSize()];
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/admin/jfr/dump"), response, chain((request, servletResponse) -> {
+            servletResponse.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            OutputStream body = servletResponse.getOutputStream();
+            assertThat(body).isSameAs(response.getOutputStream());
+            body.write(recording);
+        }));
+
+        // Then
+        assertThat(response.getContentAsByteArray()).hasSize(recording.length);
+        assertThat(response.getHeader(ServerTimingFilter.HEADER)).isNull();
+    }
+
+    private interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+
+    private static MockFilterChain chain(Handler handler) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                handler.handle(request, response);
+            }
+        });
+    }
+}
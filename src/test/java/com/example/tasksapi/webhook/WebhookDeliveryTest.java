@@ -0,0 +1,399 @@
+package com.example.tasksapi.webhook;
+
+import com.example.tasksapi.model.Task;
+import com.example.tasksapi.model.User;
+import com.example.tasksapi.model.WebhookSubscription;
+import com.example.tasksapi.payload.request.LoginRequest;
+import com.example.tasksapi.payload.response.JwtResponse;
+import com.example.tasksapi.repository.TaskRepository;
+import com.example.tasksapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs deliveries against a stub receiver on a local port. The test gets its own database,
+// so the dispatchers of other cached test contexts don't pick up its outbox rows.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:webhooks",
+        "app.webhooks.pollMs=20",
+        "app.webhooks.initialBackoffMs=50",
+        "app.webhooks.batchSize=2",
+        "app.webhooks.allowedHosts=localhost",
+        "app.webhooks.deadRetentionMs=1000",
+        "app.webhooks.maxConcurrentPerEndpoint=1"
+})
+@ActiveProfiles("test")
+class WebhookDeliveryTest {
+    private static final String SECRET = "receiver-secret";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WebhookSubscriptions subscriptions;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Delivery> deliveries = new LinkedBlockingQueue<>();
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long responseDelayMs;
+    private final CountDownLatch slowReceiverReleased = new CountDownLatch(1);
+
+    private HttpServer receiver;
+    private String baseUrl;
+    private HttpHeaders headers;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.setExecutor(Executors.newCachedThreadPool());
+        receiver.createContext("/hook", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                byte[] body = exchange.getRequestBody().readAllBytes();
+                Thread.sleep(responseDelayMs);
+                deliveries.add(new Delivery(new String(body, StandardCharsets.UTF_8),
+                        exchange.getRequestHeaders().getFirst(WebhookDispatcher.SIGNATURE_HEADER)));
+                Integer status = statuses.poll();
+                exchange.sendResponseHeaders(status == null ? 204 : status, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        // Holds every request until the test ends, like an endpoint that stopped responding
+        receiver.createContext("/slow", exchange -> {
+            try {
+                exchange.getRequestBody().readAllBytes();
+                slowReceiverReleased.await(10, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(204, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        receiver.start();
+
+        baseUrl = "http://localhost:" + port;
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+        headers = login();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowReceiverReleased.countDown();
+        subscriptions.forOwner(userId).forEach(subscription -> subscriptions.unsubscribe(subscription.getId(), userId));
+        receiver.stop(0);
+    }
+
+    @Test
+    void taskWrites_ShouldBeDeliveredForSubscribedEvents() throws Exception {
+        // Given
+        subscribe(WebhookSubscription.Event.TASK_CREATED, WebhookSubscription.Event.TASK_COMPLETED);
+
+        // When
+        Task task = new Task();
+        task.setTitle("Ship it");
+        Long id = exchange("/tasks", HttpMethod.POST, task).getBody().getId();
+        task.setTitle("Ship it today");
+        exchange("/tasks/" + id, HttpMethod.PUT, task);
+        task.setCompleted(true);
+        exchange("/tasks/" + id, HttpMethod.PUT, task);
+
+        // Then
+        List<JsonNode> events = awaitEvents(2);
+        assertThat(events).extracting(event -> event.get("event").asText())
+                .containsExactly("TASK_CREATED", "TASK_COMPLETED");
+        assertThat(events).allMatch(event -> event.get("taskId").asLong() == id);
+        assertThat(events.get(0).get("task").get("title").asText()).isEqualTo("Ship it");
+        assertThat(events.get(1).get("task").get("completed").asBoolean()).isTrue();
+        assertThat(deliveries.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void failedDelivery_ShouldBeRetriedWithTheSameEvents() throws Exception {
+        // Given
+        subscribe(WebhookSubscription.Event.TASK_CREATED);
+        statuses.add(500);
+
+        // When
+        Task task = new Task();
+        task.setTitle("Flaky receiver");
+        exchange("/tasks", HttpMethod.POST, task);
+
+        // Then
+        Delivery failed = deliveries.poll(10, TimeUnit.SECONDS);
+        Delivery retried = deliveries.poll(10, TimeUnit.SECONDS);
+        assertThat(failed).isNotNull();
+        assertThat(retried).isNotNull();
+        assertThat(retried.body()).isEqualTo(failed.body());
+        assertThat(retried.signature()).isEqualTo("sha256=" + hmac(retried.body()));
+        awaitOutboxEmpty();
+    }
+
+    @Test
+    void deliveriesToOneEndpoint_ShouldNotOverlap() throws Exception {
+        // Given
+        subscribe(WebhookSubscription.Event.TASK_CREATED);
+        responseDelayMs = 150;
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            exchange("/tasks", HttpMethod.POST, task);
+            Thread.sleep(60);
+        }
+
+        // Then
+        assertThat(awaitEvents(4)).hasSize(4);
+        assertThat(maxInFlight.get()).isEqualTo(1);
+    }
+
+    @Test
+    void busyEndpoint_ShouldNotHoldBackDeliveriesToOthers() throws Exception {
+        // Given
+        subscribe("/slow", WebhookSubscription.Event.TASK_CREATED);
+        for (int i = 0; i < 4; i++) {
+            Task task = new Task();
+            task.setTitle("Stuck " + i);
+            exchange("/tasks", HttpMethod.POST, task);
+        }
+        subscribe(WebhookSubscription.Event.TASK_CREATED);
+
+        // When
+        Task task = new Task();
+        task.setTitle("Fast receiver");
+        Long id = exchange("/tasks", HttpMethod.POST, task).getBody().getId();
+
+        // Then
+        List<JsonNode> events = awaitEvents(1);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).get("taskId").asLong()).isEqualTo(id);
+    }
+
+    @Test
+    void subscribe_WithPrivateHost_ShouldBeRejected() {
+        // Given
+        List<String> urls = List.of(
+                "http://127.0.0.1:" + receiver.getAddress().getPort() + "/hook",
+                "http://169.254.169.254/latest/meta-data",
+                "http://10.0.0.1/hook",
+                "http://100.64.0.1/hook",
+                "http://[::1]/hook",
+                "http://[::ffff:127.0.0.1]/hook",
+                "http://[64:ff9b::a9fe:a9fe]/latest/meta-data");
+
+        // When
+        List<HttpStatusCode> statuses = urls.stream()
+                .map(url -> restTemplate.exchange(baseUrl + "/webhooks", HttpMethod.POST,
+                        new HttpEntity<>(Map.of("url", url, "events", List.of("TASK_CREATED")), headers), String.class)
+                        .getStatusCode())
+                .toList();
+
+        // Then
+        assertThat(statuses).containsOnly(HttpStatus.BAD_REQUEST);
+        assertThat(subscriptions.forOwner(userId)).isEmpty();
+    }
+
+    @Test
+    void delivery_ToHostNoLongerPublic_ShouldNotBeSent() throws Exception {
+        // Given: registered directly, like a host that was public when it was checked and has
+        // since been rebound to a private address
+        WebhookSubscription subscription = new WebhookSubscription();
+        subscription.setOwnerId(userId);
+        subscription.setUrl("http://127.0.0.1:" + receiver.getAddress().getPort() + "/hook");
+        subscription.setEvents(Set.of(WebhookSubscription.Event.TASK_CREATED));
+        subscriptions.subscribe(subscription);
+
+        // When
+        Task task = new Task();
+        task.setTitle("Rebound");
+        exchange("/tasks", HttpMethod.POST, task);
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (lastError() == null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(lastError()).contains("public address");
+        assertThat(deliveries).isEmpty();
+    }
+
+    @Test
+    void undeliverableEvents_ShouldBePurgedAfterTheRetention() throws Exception {
+        // Given
+        Instant now = Instant.now();
+        Long dead = insertOutboxRow(10, now.minusSeconds(60));
+        Long recentlyFailed = insertOutboxRow(10, now.plusSeconds(60));
+        Long retrying = insertOutboxRow(3, now.plusSeconds(60));
+
+        // When
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (outboxIds().contains(dead) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Then
+        assertThat(outboxIds()).doesNotContain(dead).contains(recentlyFailed, retrying);
+        jdbcTemplate.update("delete from webhook_outbox where id in (?, ?)", recentlyFailed, retrying);
+    }
+
+    @Test
+    void rolledBackWrite_ShouldNotQueueDelivery() {
+        // Given
+        subscribe(WebhookSubscription.Event.TASK_CREATED);
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Task task = new Task();
+            task.setTitle("Never committed");
+            task.setOwnerId(userId);
+            taskRepository.saveAndFlush(task);
+            assertThat(outboxSize()).isEqualTo(1);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(outboxSize()).isZero();
+    }
+
+    private HttpHeaders login() {
+        User user = new User();
+        user.setUsername("hookuser");
+        user.setEmail("hook@example.com");
+        user.setPassword(passwordEncoder.encode("password"));
+        userId = userRepository.save(user).getId();
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("hookuser");
+        loginRequest.setPassword("password");
+        String token = restTemplate.postForEntity(baseUrl + "/api/auth/signin", loginRequest, JwtResponse.class)
+                .getBody().getAccessToken();
+
+        HttpHeaders authHeaders = new HttpHeaders();
+        authHeaders.setBearerAuth(token);
+        authHeaders.setContentType(MediaType.APPLICATION_JSON);
+        return authHeaders;
+    }
+
+    // Sent as a map: the secret is write-only, so a serialized WebhookSubscription would leave it out
+    private void subscribe(WebhookSubscription.Event... events) {
+        subscribe("/hook", events);
+    }
+
+    private void subscribe(String path, WebhookSubscription.Event... events) {
+        Map<String, Object> subscription = Map.of(
+                "url", "http://localhost:" + receiver.getAddress().getPort() + path,
+                "secret", SECRET,
+                "events", events);
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/webhooks", HttpMethod.POST,
+                new HttpEntity<>(subscription, headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).doesNotContain(SECRET);
+    }
+
+    private ResponseEntity<Task> exchange(String path, HttpMethod method, Task task) {
+        ResponseEntity<Task> response = restTemplate.exchange(baseUrl + path, method, new HttpEntity<>(task, headers),
+                Task.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response;
+    }
+
+    private List<JsonNode> awaitEvents(int count) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Delivery delivery = deliveries.poll(100, TimeUnit.MILLISECONDS);
+            if (delivery != null) {
+                objectMapper.readTree(delivery.body()).forEach(events::add);
+            }
+        }
+        return events;
+    }
+
+    private void awaitOutboxEmpty() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (outboxSize() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(outboxSize()).isZero();
+    }
+
+    private Long insertOutboxRow(int attempts, Instant nextAttemptAt) {
+        jdbcTemplate.update("insert into webhook_outbox (subscription_id, event, task_id, payload, created_at, attempts, "
+                        + "next_attempt_at, last_error) values (0, 'TASK_CREATED', 0, '{}', ?, ?, ?, 'HTTP 500')",
+                Instant.now().atOffset(ZoneOffset.UTC), attempts, nextAttemptAt.atOffset(ZoneOffset.UTC));
+        return jdbcTemplate.queryForObject("select max(id) from webhook_outbox", Long.class);
+    }
+
+    private List<Long> outboxIds() {
+        return jdbcTemplate.queryForList("select id from webhook_outbox", Long.class);
+    }
+
+    private String lastError() {
+        return jdbcTemplate.queryForList("select last_error from webhook_outbox", String.class).stream()
+                .findFirst().orElse(null);
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("select count(*) from webhook_outbox", Integer.class);
+    }
+
+    private static String hmac(String body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record Delivery(String body, String signature) {}
+}